@@ -0,0 +1,119 @@
+package com.fcr.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Root;
+
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fcr.pessoa.PessoaDao;
+import com.fcr.pessoa.PessoaEntity;
+
+/**
+ * Custo por chamada da montagem de consultas no {@link BaseDao}, sobre uma
+ * tabela pequena para que o overhead de criteria predomine. Os métodos
+ * {@code *Criteria} montam a criteria a cada chamada, como o findAll fazia
+ * antes do cache de JPQL, e servem de referência.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BaseDaoBenchmark {
+
+    private static final List<String> ORDERING = List.of("nome", "idade");
+
+    private SessionFactory sessionFactory;
+    private EntityManager entityManager;
+    private PessoaDao dao;
+    private PessoaEntity example;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        sessionFactory = BenchmarkDatabase.create("basedao");
+        BenchmarkDatabase.seed(sessionFactory, 10);
+        entityManager = sessionFactory.createEntityManager();
+        dao = BenchmarkDatabase.inject(new PessoaDao(), entityManager);
+        example = new PessoaEntity();
+        example.setNome("Pessoa 1");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManager.close();
+        sessionFactory.close();
+    }
+
+    @TearDown(Level.Iteration)
+    public void clear() {
+        entityManager.clear();
+    }
+
+    @Benchmark
+    public PessoaDao getGenericTypeClass() {
+        return new PessoaDao();
+    }
+
+    @Benchmark
+    public List<PessoaEntity> findAll() throws Exception {
+        return dao.findAll();
+    }
+
+    @Benchmark
+    public List<PessoaEntity> findAllOrdering() throws Exception {
+        return dao.findAll(ORDERING, true);
+    }
+
+    @Benchmark
+    public List<PessoaEntity> findAllPagedOrdering() throws Exception {
+        return dao.findAll(0, 5, ORDERING, false);
+    }
+
+    @Benchmark
+    public List<PessoaEntity> findAllCriteria() {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<PessoaEntity> criteria = builder.createQuery(PessoaEntity.class);
+        criteria.select(criteria.from(PessoaEntity.class));
+        return entityManager.createQuery(criteria).getResultList();
+    }
+
+    @Benchmark
+    public List<PessoaEntity> findAllOrderingCriteria() {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<PessoaEntity> criteria = builder.createQuery(PessoaEntity.class);
+        Root<PessoaEntity> root = criteria.from(PessoaEntity.class);
+        criteria.select(root);
+        List<Order> ordering = new ArrayList<>();
+        for (String attribute : ORDERING) {
+            ordering.add(builder.asc(root.get(attribute)));
+        }
+        criteria.orderBy(ordering);
+        return entityManager.createQuery(criteria).getResultList();
+    }
+
+    @Benchmark
+    public List<PessoaEntity> findByExample() {
+        return dao.findByExample(example, true);
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.fcr.dao;
+
+import java.sql.PreparedStatement;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+
+import com.fcr.pessoa.PessoaEntity;
+
+/**
+ * Hibernate fora do Quarkus sobre um H2 em memória, para os benchmarks
+ * exercitarem os DAOs sem subir a aplicação.
+ */
+public final class BenchmarkDatabase {
+
+    private BenchmarkDatabase() {
+        super();
+    }
+
+    public static SessionFactory create(String name) {
+        return new Configuration()
+                .addAnnotatedClass(PessoaEntity.class)
+                .setProperty(AvailableSettings.URL, "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1")
+                .setProperty(AvailableSettings.DIALECT, "org.hibernate.dialect.H2Dialect")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, "50")
+                .setProperty(AvailableSettings.USE_SECOND_LEVEL_CACHE, "false")
+                .setProperty(AvailableSettings.USE_QUERY_CACHE, "false")
+                .buildSessionFactory();
+    }
+
+    /**
+     * Popula a tabela de pessoas com {@code rows} linhas via batch JDBC.
+     */
+    public static void seed(SessionFactory sessionFactory, int rows) {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            session.doWork(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "INSERT INTO PessoaEntity (id, nome, idade, sexo) VALUES (?, ?, ?, ?)")) {
+                    for (int i = 1; i <= rows; i++) {
+                        statement.setInt(1, i);
+                        statement.setString(2, "Pessoa " + i);
+                        statement.setInt(3, i % 100);
+                        statement.setString(4, i % 2 == 0 ? "F" : "M");
+                        statement.addBatch();
+                        if (i % 1000 == 0) {
+                            statement.executeBatch();
+                        }
+                    }
+                    statement.executeBatch();
+                }
+            });
+            session.getTransaction().commit();
+        }
+    }
+
+    /**
+     * Injeta o EntityManager que o container injetaria no DAO.
+     */
+    public static <D extends BaseDao<?, ?>> D inject(D dao, EntityManager entityManager) {
+        dao.entityManager = entityManager;
+        return dao;
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.fcr.pessoa;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fcr.dao.BenchmarkDatabase;
+
+/**
+ * {@link PessoaDao#obterTodos()} e a paginação por keyset de ponta a ponta
+ * sobre H2, em tabelas de tamanhos diferentes. Cada operação usa um
+ * EntityManager novo, como uma requisição. A página profunda (a última da
+ * tabela) deve custar o mesmo que a primeira.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PessoaDaoBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    public int rows;
+
+    private static final int PAGINA = 100;
+
+    private SessionFactory sessionFactory;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        sessionFactory = BenchmarkDatabase.create("pessoa" + rows);
+        BenchmarkDatabase.seed(sessionFactory, rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public List<PessoaEntity> obterTodos() {
+        EntityManager entityManager = sessionFactory.createEntityManager();
+        try {
+            return novoDao(entityManager).obterTodos();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    @Benchmark
+    public List<PessoaEntity> primeiraPagina() throws Exception {
+        return pagina(null);
+    }
+
+    @Benchmark
+    public List<PessoaEntity> paginaProfunda() throws Exception {
+        return pagina(rows - PAGINA);
+    }
+
+    private List<PessoaEntity> pagina(Integer ultimoVisto) throws Exception {
+        EntityManager entityManager = sessionFactory.createEntityManager();
+        try {
+            return novoDao(entityManager).findAllAfter(ultimoVisto, PAGINA);
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    static PessoaDao novoDao(EntityManager entityManager) {
+        return BenchmarkDatabase.inject(new PessoaDao(), entityManager);
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.fcr.pessoa;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.MediaType;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fcr.utils.JacksonBinaryWriter;
+
+/**
+ * Serialização de 100 mil pessoas em JSON, CBOR e Smile, sem banco. O tamanho
+ * em bytes de cada formato é impresso no setup; o tempo é o do benchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PessoaFormatoBenchmark {
+
+    @Param({ "application/json", "application/cbor", "application/x-jackson-smile" })
+    public String formato;
+
+    @Param({ "100000" })
+    public int rows;
+
+    private ObjectMapper mapper;
+    private List<PessoaEntity> pessoas;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        mapper = JacksonBinaryWriter.getMapper(MediaType.valueOf(formato), new ObjectMapper());
+        pessoas = new ArrayList<>(rows);
+        for (int i = 1; i <= rows; i++) {
+            PessoaEntity pessoa = new PessoaEntity();
+            pessoa.setId(i);
+            pessoa.setNome("Pessoa " + i);
+            pessoa.setIdade(i % 100);
+            pessoa.setSexo(i % 2 == 0 ? 'F' : 'M');
+            pessoas.add(pessoa);
+        }
+        System.out.printf("%n%s: %d bytes para %d pessoas%n", formato, serializar(), rows);
+    }
+
+    @Benchmark
+    public long serializar() throws IOException {
+        ContadorOutputStream saida = new ContadorOutputStream();
+        mapper.writeValue(saida, pessoas);
+        return saida.bytes;
+    }
+
+    /**
+     * Descarta os bytes e conta quantos foram escritos, como o socket.
+     */
+    private static final class ContadorOutputStream extends OutputStream {
+
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+
+}
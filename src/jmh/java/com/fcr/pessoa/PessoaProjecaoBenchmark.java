@@ -0,0 +1,80 @@
+package com.fcr.pessoa;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fcr.dao.BenchmarkDatabase;
+
+/**
+ * Consulta e serialização da lista completa de entidades contra a projeção
+ * de {@code ?fields=id,nome}. Rode com {@code -prof gc} para comparar a
+ * alocação por operação.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PessoaProjecaoBenchmark {
+
+    private static final List<String> CAMPOS = List.of("id", "nome");
+
+    @Param({ "10000", "100000" })
+    public int rows;
+
+    private SessionFactory sessionFactory;
+    private ObjectMapper objectMapper;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        sessionFactory = BenchmarkDatabase.create("projecao" + rows);
+        BenchmarkDatabase.seed(sessionFactory, rows);
+        objectMapper = new ObjectMapper();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public byte[] entidades() throws Exception {
+        EntityManager entityManager = sessionFactory.createEntityManager();
+        try {
+            return objectMapper.writeValueAsBytes(PessoaDaoBenchmark.novoDao(entityManager).obterTodos());
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    @Benchmark
+    public byte[] projecao() throws Exception {
+        EntityManager entityManager = sessionFactory.createEntityManager();
+        try {
+            List<Object[]> linhas = PessoaDaoBenchmark.novoDao(entityManager).obterCampos(CAMPOS);
+            return objectMapper.writeValueAsBytes(new PessoaProjecao(CAMPOS, linhas));
+        } finally {
+            entityManager.close();
+        }
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.fcr.utils;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Métodos do {@link DateUtil} usados nos caminhos de relatório. Rode com
+ * {@code -prof gc} para ver alocação por operação; os métodos
+ * {@code legado*} reproduzem a implementação anterior sobre
+ * SimpleDateFormat/Calendar para comparação.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateUtilBenchmark {
+
+    private final Date inicio = new Date(1_600_000_000_000L);
+    private final Date fim = new Date(1_650_000_000_000L);
+    private final String data = "18/10/2026";
+    private final String dataHora = "18/10/2026 13:45:10";
+
+    @Benchmark
+    public String parseDateAsString() {
+        return DateUtil.parseDateAsString(fim);
+    }
+
+    @Benchmark
+    public String parseDateAsStringPattern() {
+        return DateUtil.parseDateAsString(fim, DateUtil.PATTERN_DD_MM_YYYY_HH_MM_SS);
+    }
+
+    @Benchmark
+    public Calendar parseDate() {
+        return DateUtil.parseDate(data);
+    }
+
+    @Benchmark
+    public Calendar parseDatePattern() {
+        return DateUtil.parseDate(dataHora, DateUtil.PATTERN_DD_MM_YYYY_HH_MM_SS);
+    }
+
+    @Benchmark
+    public long getDiffInMilliseconds() {
+        return DateUtil.getDiffInMilliseconds(fim, inicio);
+    }
+
+    @Benchmark
+    public boolean isDataIgual() {
+        return DateUtil.isDataIgual(fim, inicio);
+    }
+
+    @Benchmark
+    public String legadoParseDateAsString() {
+        return new SimpleDateFormat(DateUtil.PATTERN_DD_MM_YYYY).format(fim);
+    }
+
+    @Benchmark
+    public Calendar legadoParseDate() throws ParseException {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(new SimpleDateFormat(DateUtil.PATTERN_DD_MM_YYYY).parse(data));
+        return calendar;
+    }
+
+    @Benchmark
+    public long legadoGetDiffInMilliseconds() {
+        Calendar end = Calendar.getInstance();
+        end.setTime(fim);
+        Calendar begin = Calendar.getInstance();
+        begin.setTime(inicio);
+        long endL = end.getTimeInMillis() + end.getTimeZone().getOffset(end.getTimeInMillis());
+        long startL = begin.getTimeInMillis() + begin.getTimeZone().getOffset(begin.getTimeInMillis());
+        return endL - startL;
+    }
+
+    @Benchmark
+    public boolean legadoIsDataIgual() {
+        SimpleDateFormat format = new SimpleDateFormat(DateUtil.PATTERN_DD_MM_YYYY);
+        return format.format(fim).equals(new SimpleDateFormat(DateUtil.PATTERN_DD_MM_YYYY).format(inicio));
+    }
+
+}
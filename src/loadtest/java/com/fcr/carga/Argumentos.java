@@ -0,0 +1,54 @@
+package com.fcr.carga;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Argumentos de linha de comando no formato {@code --chave valor} ou
+ * {@code --chave=valor}.
+ */
+final class Argumentos {
+
+    private final Map<String, String> valores = new HashMap<>();
+
+    Argumentos(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Argumento inesperado: " + args[i]);
+            }
+            String chave = args[i].substring(2);
+            int igual = chave.indexOf('=');
+            if (igual >= 0) {
+                valores.put(chave.substring(0, igual), chave.substring(igual + 1));
+            } else if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                valores.put(chave, args[++i]);
+            } else {
+                valores.put(chave, "true");
+            }
+        }
+    }
+
+    String texto(String chave, String padrao) {
+        return valores.getOrDefault(chave, padrao);
+    }
+
+    int inteiro(String chave, int padrao) {
+        String valor = valores.get(chave);
+        return valor == null ? padrao : Integer.parseInt(valor.replace("_", ""));
+    }
+
+    long longo(String chave, long padrao) {
+        String valor = valores.get(chave);
+        return valor == null ? padrao : Long.parseLong(valor.replace("_", ""));
+    }
+
+    double decimal(String chave, double padrao) {
+        String valor = valores.get(chave);
+        return valor == null ? padrao : Double.parseDouble(valor);
+    }
+
+    boolean possui(String chave) {
+        return valores.containsKey(chave);
+    }
+
+}
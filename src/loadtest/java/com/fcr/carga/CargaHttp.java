@@ -0,0 +1,177 @@
+package com.fcr.carga;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Gerador de carga HTTP para os endpoints de {@code /pessoa}.
+ *
+ * <ul>
+ * <li>{@code --modo fechado} (padrão): {@code --usuarios} threads, cada uma
+ * envia a próxima requisição ao receber a anterior. Com {@code --taxa}, cada
+ * thread segue um agendamento fixo (taxa / usuarios) e a latência é medida a
+ * partir do instante previsto, o que corrige a coordinated omission; sem taxa
+ * mede-se só o tempo de serviço.</li>
+ * <li>{@code --modo aberto}: as requisições saem na {@code --taxa} fixa,
+ * independente das respostas (até {@code --max-em-voo} pendentes), sempre
+ * medidas a partir do instante previsto.</li>
+ * </ul>
+ *
+ * <pre>
+ * --url http://localhost:8080 --modo aberto --taxa 2000 --duracao 60 --aquecimento 10
+ * --cenarios "8:/pessoa?limit=100;2:/pessoa/search?nome={nome}" --ids 1000000 --saida target/carga
+ * </pre>
+ */
+public final class CargaHttp {
+
+    private final HttpClient client;
+    private final URI base;
+    private final List<Cenario> cenarios;
+    private final int pesoTotal;
+    private final int ids;
+    private final Duration timeout;
+
+    CargaHttp(URI base, List<Cenario> cenarios, int ids, Duration timeout) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        this.base = base;
+        this.cenarios = cenarios;
+        this.pesoTotal = Cenario.pesoTotal(cenarios);
+        this.ids = ids;
+        this.timeout = timeout;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Argumentos argumentos = new Argumentos(args);
+        CargaHttp carga = new CargaHttp(URI.create(argumentos.texto("url", "http://localhost:8080")),
+                Cenario.ler(argumentos.texto("cenarios", Cenario.PADRAO)), argumentos.inteiro("ids", 10_000),
+                Duration.ofSeconds(argumentos.longo("timeout", 30)));
+        String modo = argumentos.texto("modo", "fechado");
+        double taxa = argumentos.decimal("taxa", 0);
+        long aquecimento = TimeUnit.SECONDS.toNanos(argumentos.longo("aquecimento", 10));
+        long duracao = TimeUnit.SECONDS.toNanos(argumentos.longo("duracao", 30));
+
+        long inicio = System.nanoTime();
+        Medicao medicao = new Medicao(carga.cenarios, inicio + aquecimento);
+        long fim = inicio + aquecimento + duracao;
+        if ("aberto".equals(modo)) {
+            if (taxa <= 0) {
+                throw new IllegalArgumentException("O modo aberto exige --taxa");
+            }
+            carga.aberto(medicao, taxa, argumentos.inteiro("max-em-voo", 10_000), inicio, fim);
+        } else if ("fechado".equals(modo)) {
+            carga.fechado(medicao, argumentos.inteiro("usuarios", 16), taxa, inicio, fim);
+        } else {
+            throw new IllegalArgumentException("Modo inválido (fechado|aberto): " + modo);
+        }
+
+        System.out.printf("modo %s, taxa %s, %d s medidos após %d s de aquecimento%n", modo,
+                taxa > 0 ? taxa + " req/s" : "livre", TimeUnit.NANOSECONDS.toSeconds(duracao),
+                TimeUnit.NANOSECONDS.toSeconds(aquecimento));
+        medicao.relatorio(System.out, duracao / 1e9);
+        if (argumentos.possui("saida")) {
+            medicao.gravar(Path.of(argumentos.texto("saida", null)));
+        }
+    }
+
+    /**
+     * Loop fechado: cada usuário espera a resposta antes de enviar a próxima.
+     * Com taxa, o instante previsto avança em passos fixos mesmo quando a
+     * resposta atrasa, e as requisições atrasadas saem em seguida.
+     */
+    void fechado(Medicao medicao, int usuarios, double taxa, long inicio, long fim) throws InterruptedException {
+        long intervalo = taxa > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) * usuarios / taxa) : 0;
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < usuarios; i++) {
+            long deslocamento = intervalo * i / usuarios;
+            Thread thread = new Thread(() -> {
+                long previsto = inicio + deslocamento;
+                while (previsto < fim) {
+                    if (intervalo > 0) {
+                        esperar(previsto);
+                    } else {
+                        previsto = System.nanoTime();
+                    }
+                    Cenario cenario = Cenario.sortear(cenarios, pesoTotal);
+                    long enviado = System.nanoTime();
+                    int status = enviar(cenario);
+                    medicao.registrar(cenario, previsto, enviado, System.nanoTime(), status);
+                    previsto += intervalo;
+                }
+            }, "carga-" + i);
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    /**
+     * Loop aberto: a requisição i sai em {@code inicio + i / taxa}. Se o
+     * limite de pendentes for atingido o envio espera, mas a latência continua
+     * contada do instante previsto.
+     */
+    void aberto(Medicao medicao, double taxa, int maxEmVoo, long inicio, long fim) throws InterruptedException {
+        double intervalo = TimeUnit.SECONDS.toNanos(1) / taxa;
+        Semaphore emVoo = new Semaphore(maxEmVoo);
+        for (long i = 0;; i++) {
+            long previsto = inicio + (long) (i * intervalo);
+            if (previsto >= fim) {
+                break;
+            }
+            esperar(previsto);
+            emVoo.acquire();
+            Cenario cenario = Cenario.sortear(cenarios, pesoTotal);
+            long enviado = System.nanoTime();
+            client.sendAsync(requisicao(cenario), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, erro) -> {
+                        medicao.registrar(cenario, previsto, enviado, System.nanoTime(),
+                                response == null ? -1 : response.statusCode());
+                        emVoo.release();
+                    });
+        }
+        if (!emVoo.tryAcquire(maxEmVoo, timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+            System.out.printf("%d requisições sem resposta ao final%n", maxEmVoo - emVoo.availablePermits());
+        }
+    }
+
+    private int enviar(Cenario cenario) {
+        try {
+            return client.send(requisicao(cenario), HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    private HttpRequest requisicao(Cenario cenario) {
+        return HttpRequest.newBuilder(cenario.uri(base, ids))
+                .header("Accept", "application/json")
+                .timeout(timeout)
+                .GET()
+                .build();
+    }
+
+    private static void esperar(long ate) {
+        long restante;
+        while ((restante = ate - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(restante);
+        }
+    }
+
+}
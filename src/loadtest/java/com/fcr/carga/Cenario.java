@@ -0,0 +1,93 @@
+package com.fcr.carga;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Requisição GET sorteada com um peso, a partir de um caminho com
+ * marcadores: {@code {id}} vira um id entre 1 e {@code --ids},
+ * {@code {cursor}} o cursor de keyset (ordem por id) logo após esse id e
+ * {@code {nome}} um nome ou sobrenome do {@link GeradorPessoas}.
+ *
+ * Formato de {@code --cenarios}: {@code peso:caminho} separados por
+ * {@code ;}, ex.: {@code 8:/pessoa?limit=100;1:/pessoa/search?nome={nome}}.
+ */
+final class Cenario {
+
+    static final String PADRAO = "6:/pessoa?limit=100;2:/pessoa/search?nome={nome};1:/pessoa/stats;"
+            + "1:/pessoa?after={cursor}&limit=100";
+
+    private final String caminho;
+    private final int peso;
+
+    private Cenario(String caminho, int peso) {
+        this.caminho = caminho;
+        this.peso = peso;
+    }
+
+    static List<Cenario> ler(String texto) {
+        List<Cenario> cenarios = new ArrayList<>();
+        for (String item : texto.split(";")) {
+            if (item.isBlank()) {
+                continue;
+            }
+            int separador = item.indexOf(':');
+            if (separador < 0 || !item.substring(separador + 1).startsWith("/")) {
+                throw new IllegalArgumentException("Cenário inválido (peso:/caminho): " + item);
+            }
+            cenarios.add(new Cenario(item.substring(separador + 1).trim(),
+                    Integer.parseInt(item.substring(0, separador).trim())));
+        }
+        if (cenarios.isEmpty()) {
+            throw new IllegalArgumentException("Nenhum cenário informado");
+        }
+        return cenarios;
+    }
+
+    /**
+     * Sorteia um cenário proporcionalmente aos pesos.
+     */
+    static Cenario sortear(List<Cenario> cenarios, int pesoTotal) {
+        int sorteio = ThreadLocalRandom.current().nextInt(pesoTotal);
+        for (Cenario cenario : cenarios) {
+            sorteio -= cenario.peso;
+            if (sorteio < 0) {
+                return cenario;
+            }
+        }
+        return cenarios.get(cenarios.size() - 1);
+    }
+
+    static int pesoTotal(List<Cenario> cenarios) {
+        return cenarios.stream().mapToInt(c -> c.peso).sum();
+    }
+
+    URI uri(URI base, int ids) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String resolvido = caminho;
+        int id = 1 + random.nextInt(Math.max(1, ids));
+        if (resolvido.contains("{id}")) {
+            resolvido = resolvido.replace("{id}", String.valueOf(id));
+        }
+        if (resolvido.contains("{cursor}")) {
+            resolvido = resolvido.replace("{cursor}", Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(("id|" + id).getBytes(StandardCharsets.UTF_8)));
+        }
+        if (resolvido.contains("{nome}")) {
+            String nome = random.nextBoolean() ? GeradorPessoas.NOMES[random.nextInt(GeradorPessoas.NOMES.length)]
+                    : GeradorPessoas.SOBRENOMES[random.nextInt(GeradorPessoas.SOBRENOMES.length)];
+            resolvido = resolvido.replace("{nome}", URLEncoder.encode(nome, StandardCharsets.UTF_8));
+        }
+        return base.resolve(resolvido);
+    }
+
+    String getCaminho() {
+        return caminho;
+    }
+
+}
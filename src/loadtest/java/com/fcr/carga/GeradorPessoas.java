@@ -0,0 +1,215 @@
+package com.fcr.carga;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fcr.pessoa.PessoaEntity;
+
+/**
+ * Popula a tabela de pessoas com dados sintéticos reprodutíveis: a mesma
+ * semente gera as mesmas pessoas, na mesma ordem, independente do
+ * paralelismo.
+ *
+ * Por padrão grava pelo {@code POST /pessoa/batch} da aplicação em execução,
+ * o que funciona com qualquer datasource (inclusive H2 em memória). Com
+ * {@code --jdbc-url} insere direto no banco com batch JDBC, bem mais rápido
+ * para 10^6 linhas ou mais; nesse caso a aplicação deve ser reiniciada depois,
+ * pois caches, snapshot e índice de nomes não veem escritas fora do Hibernate.
+ * Com {@code --csv} grava as linhas em um arquivo para o
+ * {@code POST /pessoa/import}.
+ *
+ * <pre>
+ * --linhas 100000 --lote 5000 --semente 42 --paralelismo 4
+ * --url http://localhost:8080
+ * --csv target/pessoas.csv
+ * --jdbc-url jdbc:postgresql://localhost:5432/pessoa?reWriteBatchedInserts=true --usuario u --senha s
+ * </pre>
+ */
+public final class GeradorPessoas {
+
+    static final String[] NOMES = { "Ana", "Beatriz", "Bruno", "Carla", "Carlos", "Daniel", "Eduarda", "Felipe",
+            "Fernanda", "Gabriel", "Helena", "Igor", "Isabela", "João", "Juliana", "Lucas", "Luiza", "Marcos",
+            "Maria", "Mateus", "Natália", "Otávio", "Paula", "Pedro", "Rafael", "Renata", "Rodrigo", "Sofia",
+            "Thiago", "Vitória" };
+
+    static final String[] SOBRENOMES = { "Almeida", "Alves", "Barbosa", "Cardoso", "Carvalho", "Cordeiro", "Costa",
+            "Dias", "Ferreira", "Gomes", "Lima", "Martins", "Melo", "Oliveira", "Pereira", "Ribeiro", "Rocha",
+            "Santos", "Silva", "Souza" };
+
+    private static final String INSERT = "INSERT INTO PessoaEntity (id, nome, idade, sexo) VALUES (?, ?, ?, ?)";
+
+    private final long semente;
+    private final int tamanhoLote;
+
+    GeradorPessoas(long semente, int tamanhoLote) {
+        this.semente = semente;
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Argumentos argumentos = new Argumentos(args);
+        long linhas = argumentos.longo("linhas", 10_000);
+        GeradorPessoas gerador = new GeradorPessoas(argumentos.longo("semente", 42),
+                argumentos.inteiro("lote", 5_000));
+        long inicio = System.nanoTime();
+        if (argumentos.possui("csv")) {
+            gerador.gravarCsv(Path.of(argumentos.texto("csv", null)), linhas);
+        } else if (argumentos.possui("jdbc-url")) {
+            gerador.gravarJdbc(argumentos.texto("jdbc-url", null), argumentos.texto("usuario", ""),
+                    argumentos.texto("senha", ""), linhas);
+        } else {
+            gerador.gravarHttp(URI.create(argumentos.texto("url", "http://localhost:8080")), linhas,
+                    argumentos.inteiro("paralelismo", 4));
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        System.out.printf("%d pessoas em %.1f s (%.0f linhas/s)%n", linhas, segundos, linhas / segundos);
+    }
+
+    /**
+     * Lote de índice {@code indice}: depende só da semente e do índice.
+     */
+    List<PessoaEntity> gerarLote(long indice, int tamanho) {
+        SplittableRandom random = new SplittableRandom(semente * 0x9E3779B97F4A7C15L + indice);
+        List<PessoaEntity> lote = new ArrayList<>(tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            PessoaEntity pessoa = new PessoaEntity();
+            pessoa.setNome(NOMES[random.nextInt(NOMES.length)] + " " + SOBRENOMES[random.nextInt(SOBRENOMES.length)]
+                    + " " + SOBRENOMES[random.nextInt(SOBRENOMES.length)]);
+            pessoa.setIdade(random.nextInt(20) == 0 ? null : random.nextInt(100));
+            pessoa.setSexo(random.nextBoolean() ? 'F' : 'M');
+            lote.add(pessoa);
+        }
+        return lote;
+    }
+
+    private void gravarHttp(URI url, long linhas, int paralelismo) throws Exception {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        ObjectMapper objectMapper = new ObjectMapper();
+        URI destino = url.resolve("/pessoa/batch");
+        ExecutorService executor = Executors.newFixedThreadPool(paralelismo);
+        AtomicLong gravadas = new AtomicLong();
+        try {
+            List<Future<?>> envios = new ArrayList<>();
+            long lotes = (linhas + tamanhoLote - 1) / tamanhoLote;
+            for (long indice = 0; indice < lotes; indice++) {
+                long lote = indice;
+                int tamanho = (int) Math.min(tamanhoLote, linhas - indice * tamanhoLote);
+                envios.add(executor.submit(() -> {
+                    byte[] corpo = objectMapper.writeValueAsBytes(gerarLote(lote, tamanho));
+                    HttpRequest request = HttpRequest.newBuilder(destino)
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofByteArray(corpo))
+                            .build();
+                    HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                    if (response.statusCode() != 200) {
+                        throw new IllegalStateException("Lote " + lote + ": HTTP " + response.statusCode() + " "
+                                + response.body());
+                    }
+                    long depois = gravadas.addAndGet(tamanho);
+                    progresso(depois - tamanho, depois, linhas);
+                    return null;
+                }));
+            }
+            for (Future<?> envio : envios) {
+                envio.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void gravarCsv(Path arquivo, long linhas) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8)) {
+            writer.write("nome,idade,sexo\n");
+            long gravadas = 0;
+            for (long indice = 0; gravadas < linhas; indice++) {
+                int tamanho = (int) Math.min(tamanhoLote, linhas - gravadas);
+                for (PessoaEntity pessoa : gerarLote(indice, tamanho)) {
+                    writer.write(pessoa.getNome());
+                    writer.write(',');
+                    writer.write(pessoa.getIdade() == null ? "" : pessoa.getIdade().toString());
+                    writer.write(',');
+                    writer.write(pessoa.getSexo());
+                    writer.write('\n');
+                }
+                progresso(gravadas, gravadas + tamanho, linhas);
+                gravadas += tamanho;
+            }
+        }
+    }
+
+    /**
+     * Insere a partir do maior id existente e reposiciona a sequence
+     * {@code pessoa_seq} depois do último id, para que as inserções da
+     * aplicação não colidam com as geradas.
+     */
+    private void gravarJdbc(String url, String usuario, String senha, long linhas) throws Exception {
+        try (Connection connection = DriverManager.getConnection(url, usuario, senha)) {
+            connection.setAutoCommit(false);
+            long id;
+            try (Statement statement = connection.createStatement();
+                    ResultSet resultSet = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM PessoaEntity")) {
+                resultSet.next();
+                id = resultSet.getLong(1);
+            }
+            try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+                long gravadas = 0;
+                for (long indice = 0; gravadas < linhas; indice++) {
+                    int tamanho = (int) Math.min(tamanhoLote, linhas - gravadas);
+                    for (PessoaEntity pessoa : gerarLote(indice, tamanho)) {
+                        statement.setLong(1, ++id);
+                        statement.setString(2, pessoa.getNome());
+                        if (pessoa.getIdade() == null) {
+                            statement.setNull(3, Types.INTEGER);
+                        } else {
+                            statement.setInt(3, pessoa.getIdade());
+                        }
+                        statement.setString(4, String.valueOf(pessoa.getSexo()));
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                    connection.commit();
+                    progresso(gravadas, gravadas + tamanho, linhas);
+                    gravadas += tamanho;
+                }
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ALTER SEQUENCE pessoa_seq RESTART WITH " + (id + 1));
+            }
+            connection.commit();
+        }
+    }
+
+    /**
+     * Imprime o progresso a cada 10% das linhas.
+     */
+    private static void progresso(long antes, long depois, long linhas) {
+        long passo = Math.max(1, linhas / 10);
+        if (antes / passo != depois / passo) {
+            System.out.printf("%d/%d%n", depois, linhas);
+        }
+    }
+
+}
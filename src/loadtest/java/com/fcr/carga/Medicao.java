@@ -0,0 +1,118 @@
+package com.fcr.carga;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latências por cenário, em microssegundos, em dois histogramas:
+ * <ul>
+ * <li>resposta: do instante previsto pelo agendamento até a resposta, com a
+ * correção de coordinated omission (o atraso de uma requisição lenta conta
+ * para as que deveriam ter saído durante ela);</li>
+ * <li>serviço: do envio efetivo até a resposta, sem correção.</li>
+ * </ul>
+ * Sem taxa alvo não há agendamento, e os dois coincidem.
+ */
+final class Medicao {
+
+    private static final long MAXIMO = TimeUnit.MINUTES.toMicros(10);
+
+    private final Map<String, Contadores> porCenario = new LinkedHashMap<>();
+    private final Contadores total = new Contadores();
+    private final long inicioMedicao;
+
+    Medicao(List<Cenario> cenarios, long inicioMedicao) {
+        for (Cenario cenario : cenarios) {
+            porCenario.put(cenario.getCaminho(), new Contadores());
+        }
+        this.inicioMedicao = inicioMedicao;
+    }
+
+    /**
+     * Registra uma requisição; as previstas para antes do fim do aquecimento
+     * são descartadas.
+     *
+     * @param previsto nanoTime em que a requisição deveria ter saído
+     * @param enviado  nanoTime em que saiu
+     * @param termino  nanoTime da resposta (ou falha)
+     * @param status   status HTTP, ou -1 em falha de E/S
+     */
+    void registrar(Cenario cenario, long previsto, long enviado, long termino, int status) {
+        if (previsto < inicioMedicao) {
+            return;
+        }
+        long resposta = Math.min(MAXIMO, TimeUnit.NANOSECONDS.toMicros(termino - previsto));
+        long servico = Math.min(MAXIMO, TimeUnit.NANOSECONDS.toMicros(termino - enviado));
+        boolean erro = status < 200 || status >= 400;
+        porCenario.get(cenario.getCaminho()).registrar(resposta, servico, erro);
+        total.registrar(resposta, servico, erro);
+    }
+
+    void relatorio(PrintStream saida, double segundos) {
+        saida.printf("%-44s %9s %7s %9s %9s %9s %9s %9s %9s%n", "cenário (ms)", "req", "erros", "req/s", "p50",
+                "p90", "p99", "p99.9", "max");
+        for (Map.Entry<String, Contadores> entrada : porCenario.entrySet()) {
+            entrada.getValue().linhas(saida, entrada.getKey(), segundos);
+        }
+        total.linhas(saida, "total", segundos);
+    }
+
+    /**
+     * Grava a distribuição de percentis (formato .hgrm do HdrHistogram, em ms)
+     * do total, para comparação entre execuções e plot.
+     */
+    void gravar(Path diretorio) throws IOException {
+        Files.createDirectories(diretorio);
+        try (PrintStream saida = new PrintStream(new FileOutputStream(diretorio.resolve("resposta.hgrm").toFile()))) {
+            total.resposta.outputPercentileDistribution(saida, 1000.0);
+        }
+        try (PrintStream saida = new PrintStream(new FileOutputStream(diretorio.resolve("servico.hgrm").toFile()))) {
+            total.servico.outputPercentileDistribution(saida, 1000.0);
+        }
+    }
+
+    private static final class Contadores {
+
+        private final Histogram resposta = new ConcurrentHistogram(MAXIMO, 3);
+        private final Histogram servico = new ConcurrentHistogram(MAXIMO, 3);
+        private final LongAdder erros = new LongAdder();
+
+        void registrar(long microsResposta, long microsServico, boolean erro) {
+            resposta.recordValue(microsResposta);
+            servico.recordValue(microsServico);
+            if (erro) {
+                erros.increment();
+            }
+        }
+
+        void linhas(PrintStream saida, String nome, double segundos) {
+            linha(saida, nome, resposta, segundos);
+            if (!servico.equals(resposta)) {
+                linha(saida, "  serviço (sem correção)", servico, segundos);
+            }
+        }
+
+        private void linha(PrintStream saida, String nome, Histogram histograma, double segundos) {
+            long requisicoes = histograma.getTotalCount();
+            saida.printf("%-44s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", nome, requisicoes, erros.sum(),
+                    requisicoes / segundos, ms(histograma, 50), ms(histograma, 90), ms(histograma, 99),
+                    ms(histograma, 99.9), histograma.getMaxValue() / 1000.0);
+        }
+
+        private static double ms(Histogram histograma, double percentil) {
+            return histograma.getValueAtPercentile(percentil) / 1000.0;
+        }
+    }
+
+}
@@ -6,96 +6,213 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import javax.enterprise.event.Event;
+import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
+import javax.persistence.Cache;
+import javax.persistence.Cacheable;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
-import javax.persistence.EntityTransaction;
 import javax.persistence.PersistenceException;
-import javax.persistence.PersistenceUnit;
-import javax.persistence.Query;
+import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
-import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
-
-import org.hibernate.Criteria;
-import org.hibernate.Session;
-import org.hibernate.criterion.Example;
+import javax.persistence.metamodel.SingularAttribute;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.SessionFactory;
+import org.hibernate.annotations.QueryHints;
 import org.hibernate.criterion.MatchMode;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import com.fcr.dao.DaoMetrics.Operation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 
 @SuppressWarnings("unchecked")
 public abstract class BaseDao<E, P> {
 
+    private static final ExampleQueries EXAMPLE_QUERIES = new ExampleQueries();
+
+    private static final FindAllQueries FIND_ALL_QUERIES = new FindAllQueries();
+
+    private static final int DEFAULT_BATCH_SIZE = 50;
+
     @Inject
     protected EntityManager entityManager;
 
     private Class<E> clazz;
 
+    private boolean cacheable;
+
+    private String idAttribute;
+
     @Inject
     private Logger logger;
 
-    @PersistenceUnit
-    private EntityManagerFactory entityManagerFactory;
-    private EntityTransaction tx;
-    private Session session;
+    @ConfigProperty(name = "dao.batch-size", defaultValue = "50")
+    private int batchSize;
+
+    @Inject
+    private Instance<MeterRegistry> meterRegistry;
+
+    @Inject
+    private Event<EntityChange> entityChanges;
+
+    @Inject
+    private ReadRouter readRouter;
+
+    @Inject
+    private UnitOfWork unitOfWork;
+
+    @Inject
+    private TransactionSynchronizationRegistry transactions;
+
+    private DaoMetrics metrics;
 
     public BaseDao() {
         clazz = getGenericTypeClass();
+        cacheable = clazz.isAnnotationPresent(Cacheable.class);
     }
 
     /**
-     * Persist a entity e executa flush.
+     * Persist a entity. O flush segue a {@link UnitOfWork}: no commit por
+     * padrão, ou nesta chamada com {@link FlushMode#PER_OPERATION}. Com a
+     * entidade em cache, o flush invalida as consultas em cache da tabela.
      *
      * @param entity Entity
      * @return
      * @throws Exception
      */
     public E persist(E entity) throws Exception {
+        long start = System.nanoTime();
         try {
             this.entityManager.persist(entity);
-            flush();
+            flushIfRequired();
+            fireChange(EntityChange.Type.PERSIST, entity);
             return entity;
         } catch (Exception e) {
             logger.log(Level.SEVERE, getStackTrace(e));
             throw new Exception(e.getMessage(), e);
+        } finally {
+            metrics().record(Operation.PERSIST, start);
         }
     }
 
     /**
-     * Merge a entity e executa flush.
+     * Merge a entity, com flush conforme a {@link UnitOfWork}. Com a entidade
+     * em cache, a região é atualizada e as consultas em cache da tabela são
+     * invalidadas.
      *
      * @param entity Entity
      * @return
      * @throws Exception
      */
     public void merge(E entity) throws Exception {
+        long start = System.nanoTime();
         try {
-            this.entityManager.merge(entity);
-            flush();
+            E merged = this.entityManager.merge(entity);
+            flushIfRequired();
+            fireChange(EntityChange.Type.MERGE, merged);
         } catch (Exception e) {
             logger.log(Level.SEVERE, getStackTrace(e));
             throw new Exception(e.getMessage(), e);
+        } finally {
+            metrics().record(Operation.MERGE, start);
         }
     }
 
     /**
-     * Remove a entity pela pk e executa flush.
+     * Remove a entity pela pk, com flush conforme a {@link UnitOfWork}. Com a
+     * entidade em cache, a entrada é removida e as consultas em cache da
+     * tabela são invalidadas.
      *
      * @param pk pk
      * @return
      * @throws Exception
      */
     public void remove(P pk) throws Exception {
+        long start = System.nanoTime();
         try {
-            this.entityManager.remove(find(pk));
-            flush();
+            E entity = find(pk);
+            this.entityManager.remove(entity);
+            flushIfRequired();
+            fireChange(EntityChange.Type.REMOVE, entity);
         } catch (Exception e) {
             logger.log(Level.SEVERE, getStackTrace(e));
             throw new Exception(e.getMessage(), e);
+        } finally {
+            metrics().record(Operation.REMOVE, start);
+        }
+    }
+
+    /**
+     * Persist das entities em lote. Executa flush e clear a cada
+     * {@code dao.batch-size} entities, para que os inserts sigam em batch
+     * JDBC e o contexto de persistência não cresça; as entities ficam
+     * desanexadas ao final.
+     *
+     * @param entities Entities
+     * @throws Exception
+     */
+    public void persistAll(Collection<E> entities) throws Exception {
+        long start = System.nanoTime();
+        try {
+            int size = getBatchSize();
+            int count = 0;
+            for (E entity : entities) {
+                this.entityManager.persist(entity);
+                fireChange(EntityChange.Type.PERSIST, entity);
+                if (++count % size == 0) {
+                    clear();
+                }
+            }
+            clear();
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, getStackTrace(e));
+            throw new Exception(e.getMessage(), e);
+        } finally {
+            metrics().record(Operation.PERSIST_ALL, start);
+        }
+    }
+
+    /**
+     * Merge das entities em lote, com flush e clear a cada
+     * {@code dao.batch-size} entities.
+     *
+     * @param entities Entities
+     * @throws Exception
+     */
+    public void mergeAll(Collection<E> entities) throws Exception {
+        long start = System.nanoTime();
+        try {
+            int size = getBatchSize();
+            int count = 0;
+            for (E entity : entities) {
+                fireChange(EntityChange.Type.MERGE, this.entityManager.merge(entity));
+                if (++count % size == 0) {
+                    clear();
+                }
+            }
+            clear();
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, getStackTrace(e));
+            throw new Exception(e.getMessage(), e);
+        } finally {
+            metrics().record(Operation.MERGE_ALL, start);
         }
     }
 
@@ -107,33 +224,38 @@ public abstract class BaseDao<E, P> {
      * @throws Exception
      */
     public E find(P pk) throws Exception {
+        long start = System.nanoTime();
         try {
-            return entityManager.find(clazz, pk);
+            EntityManager reader = getReadEntityManager();
+            return reader.find(clazz, pk);
         } catch (PersistenceException e) {
             throw new PersistenceException(e.getMessage(), e);
         } catch (Exception e) {
             logger.log(Level.SEVERE, getStackTrace(e));
             throw new Exception(e.getMessage(), e);
+        } finally {
+            metrics().record(Operation.FIND, start);
         }
     }
 
     /**
-     * Lista todos os dados.
+     * Lista todos os dados. As listas completas não usam o cache de
+     * consultas, que guarda só os ids: com a tabela maior que a região de
+     * entidades, cada acerto viraria uma carga por linha.
      *
      * @return
      * @throws Exception
      */
     public List<E> findAll() throws Exception {
+        long start = System.nanoTime();
         try {
-            CriteriaBuilder builder = entityManager.getCriteriaBuilder();
-            CriteriaQuery<E> criteria = builder.createQuery(clazz);
-            Root<E> root = criteria.from(clazz);
-            criteria.select(root);
-            Query query = entityManager.createQuery(criteria);
-            return query.getResultList();
+            TypedQuery<E> query = FIND_ALL_QUERIES.create(getReadEntityManager(), clazz);
+            return recordSize(Operation.FIND_ALL, query.getResultList());
         } catch (Exception e) {
             logger.log(Level.SEVERE, getStackTrace(e));
             throw new Exception(e.getMessage(), e);
+        } finally {
+            metrics().record(Operation.FIND_ALL, start);
         }
     }
 
@@ -146,17 +268,16 @@ public abstract class BaseDao<E, P> {
      * @throws Exception
      */
     public List<E> findAll(Collection<String> attributesOrdering, boolean ascendingOrdering) throws Exception {
+        long start = System.nanoTime();
         try {
-            CriteriaBuilder builder = entityManager.getCriteriaBuilder();
-            CriteriaQuery<E> criteria = builder.createQuery(clazz);
-            Root<E> root = criteria.from(clazz);
-            criteria.select(root);
-            addCriteriaOrdering(builder, criteria, root, attributesOrdering, ascendingOrdering);
-            Query query = entityManager.createQuery(criteria);
-            return query.getResultList();
+            TypedQuery<E> query = FIND_ALL_QUERIES.create(getReadEntityManager(), clazz, attributesOrdering,
+                    ascendingOrdering);
+            return recordSize(Operation.FIND_ALL, query.getResultList());
         } catch (Exception e) {
             logger.log(Level.SEVERE, getStackTrace(e));
             throw new Exception(e.getMessage(), e);
+        } finally {
+            metrics().record(Operation.FIND_ALL, start);
         }
     }
 
@@ -169,18 +290,18 @@ public abstract class BaseDao<E, P> {
      * @throws Exception
      */
     public List<E> findAll(int start, int end) throws Exception {
+        long startTime = System.nanoTime();
         try {
-            CriteriaBuilder builder = entityManager.getCriteriaBuilder();
-            CriteriaQuery<E> criteria = builder.createQuery(clazz);
-            Root<E> root = criteria.from(clazz);
-            criteria.select(root);
-            Query query = entityManager.createQuery(criteria);
+            TypedQuery<E> query = FIND_ALL_QUERIES.create(getReadEntityManager(), clazz);
+            query.setHint(QueryHints.CACHEABLE, cacheable);
             query.setFirstResult(start);
             query.setMaxResults(end);
-            return query.getResultList();
+            return recordSize(Operation.FIND_ALL, query.getResultList());
         } catch (Exception e) {
             logger.log(Level.SEVERE, getStackTrace(e));
             throw new Exception(e.getMessage(), e);
+        } finally {
+            metrics().record(Operation.FIND_ALL, startTime);
         }
     }
 
@@ -195,128 +316,183 @@ public abstract class BaseDao<E, P> {
      * @throws Exception
      */
     public List<E> findAll(int start, int end, Collection<String> attributesOrdering, boolean ascendingOrdering) throws Exception {
+        long startTime = System.nanoTime();
         try {
-            CriteriaBuilder builder = entityManager.getCriteriaBuilder();
-            CriteriaQuery<E> criteria = builder.createQuery(clazz);
-            Root<E> root = criteria.from(clazz);
-            criteria.select(root);
-            addCriteriaOrdering(builder, criteria, root, attributesOrdering, ascendingOrdering);
-            Query query = entityManager.createQuery(criteria);
+            TypedQuery<E> query = FIND_ALL_QUERIES.create(getReadEntityManager(), clazz, attributesOrdering,
+                    ascendingOrdering);
+            query.setHint(QueryHints.CACHEABLE, cacheable);
             query.setFirstResult(start);
             query.setMaxResults(end);
-            return query.getResultList();
+            return recordSize(Operation.FIND_ALL, query.getResultList());
         } catch (Exception e) {
             logger.log(Level.SEVERE, getStackTrace(e));
             throw new Exception(e.getMessage(), e);
+        } finally {
+            metrics().record(Operation.FIND_ALL, startTime);
         }
     }
 
-    private void addCriteriaOrdering(CriteriaBuilder builder, CriteriaQuery<E> criteria, Root<E> root,
-            Collection<String> attributesOrdering, boolean ascendingOrdering) {
-        List<Order> ordering = new ArrayList<>();
-        for (String attributeOrdering : attributesOrdering) {
-            if (ascendingOrdering) {
-                ordering.add(builder.asc(root.get(attributeOrdering)));
-            } else {
-                ordering.add(builder.desc(root.get(attributeOrdering)));
+    /**
+     * Lista a página seguinte à última pk vista (paginação por keyset), em
+     * ordem crescente de pk. O banco parte direto do índice da pk, então o
+     * custo não cresce com a profundidade da página.
+     *
+     * @param lastPk pk do último registro da página anterior, ou null para a primeira página
+     * @param limit  tamanho da página
+     * @return
+     * @throws Exception
+     */
+    public List<E> findAllAfter(P lastPk, int limit) throws Exception {
+        long start = System.nanoTime();
+        try {
+            EntityManager reader = getReadEntityManager();
+            CriteriaBuilder builder = reader.getCriteriaBuilder();
+            CriteriaQuery<E> criteria = builder.createQuery(clazz);
+            Root<E> root = criteria.from(clazz);
+            Path<Comparable<Object>> id = root.get(getIdAttribute());
+            criteria.select(root);
+            if (lastPk != null) {
+                criteria.where(builder.greaterThan(id, (Comparable<Object>) lastPk));
             }
+            criteria.orderBy(builder.asc(id));
+            TypedQuery<E> query = reader.createQuery(criteria);
+            query.setMaxResults(limit);
+            return recordSize(Operation.FIND_ALL_AFTER, query.getResultList());
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, getStackTrace(e));
+            throw new Exception(e.getMessage(), e);
+        } finally {
+            metrics().record(Operation.FIND_ALL_AFTER, start);
         }
-        criteria.orderBy(ordering);
     }
 
     /**
-     * Lista pelos atributos preenchidos.
+     * Lista a página seguinte ao último registro visto (paginação por keyset),
+     * ordenada por (atributo, pk) crescentes, com os registros de atributo
+     * nulo por último, em ordem de pk, em qualquer banco. Deve haver índice
+     * sobre (atributo, pk) para o custo ser constante.
      *
-     * @param example Objeto exemplo
-     * @param useLike Usar like
+     * @param attributeOrdering Atributo de ordenação
+     * @param lastValue         valor do atributo no último registro visto (null se era nulo)
+     * @param lastPk            pk do último registro visto, ou null para a primeira página
+     * @param limit             tamanho da página
      * @return
+     * @throws Exception
      */
-    public void makeEntity() {
-        entityManager = entityManagerFactory.createEntityManager();
-        this.tx = entityManager.getTransaction();
-        session = (Session) entityManager.getDelegate();
-    }
-
-    public List<E> findByExample(E entity, boolean ignoreCase) throws RuntimeException {
-        makeEntity();
-        List<E> lista = null;
-        Example example = null;
+    public List<E> findAllAfter(String attributeOrdering, Object lastValue, P lastPk, int limit) throws Exception {
+        long start = System.nanoTime();
         try {
-
-            example = Example.create(entity).enableLike(MatchMode.ANYWHERE);
-            if (ignoreCase) {
-                example = example.ignoreCase();
+            List<E> result = new ArrayList<>(limit);
+            boolean inNulls = lastPk != null && lastValue == null;
+            if (!inNulls) {
+                result.addAll(findAllAfterValue(attributeOrdering, lastValue, lastPk, limit));
             }
-            Criteria crit = session.createCriteria(entity.getClass());
-            crit.add(example);
-
-            lista = crit.list();
-
-            return lista;
-
+            if (result.size() < limit) {
+                result.addAll(findAllAfterNull(attributeOrdering, inNulls ? lastPk : null, limit - result.size()));
+            }
+            return recordSize(Operation.FIND_ALL_AFTER, result);
         } catch (Exception e) {
-            e.printStackTrace();
-            throw new RuntimeException("Erro ao realizar consulta!" + e.getMessage());
+            logger.log(Level.SEVERE, getStackTrace(e));
+            throw new Exception(e.getMessage(), e);
+        } finally {
+            metrics().record(Operation.FIND_ALL_AFTER, start);
         }
     }
 
-    public List<E> findByExample(E filtro, MatchMode matchMode, boolean ignoreCase) {
-        makeEntity();
-        org.hibernate.criterion.Example example = org.hibernate.criterion.Example.create(filtro);
-
-        if (matchMode != null) {
-            example = example.enableLike(matchMode);
+    private List<E> findAllAfterValue(String attributeOrdering, Object lastValue, P lastPk, int limit) {
+        EntityManager reader = getReadEntityManager();
+        CriteriaBuilder builder = reader.getCriteriaBuilder();
+        CriteriaQuery<E> criteria = builder.createQuery(clazz);
+        Root<E> root = criteria.from(clazz);
+        Path<Comparable<Object>> attribute = root.get(attributeOrdering);
+        Path<Comparable<Object>> id = root.get(getIdAttribute());
+        criteria.select(root);
+        if (lastPk != null) {
+            Predicate after = builder.greaterThan(attribute, (Comparable<Object>) lastValue);
+            Predicate tie = builder.and(builder.equal(attribute, lastValue),
+                    builder.greaterThan(id, (Comparable<Object>) lastPk));
+            criteria.where(builder.or(after, tie));
+        } else {
+            criteria.where(builder.isNotNull(attribute));
         }
+        criteria.orderBy(builder.asc(attribute), builder.asc(id));
+        return reader.createQuery(criteria).setMaxResults(limit).getResultList();
+    }
 
-        if (ignoreCase) {
-            example = example.ignoreCase();
+    private List<E> findAllAfterNull(String attributeOrdering, P lastPk, int limit) {
+        EntityManager reader = getReadEntityManager();
+        CriteriaBuilder builder = reader.getCriteriaBuilder();
+        CriteriaQuery<E> criteria = builder.createQuery(clazz);
+        Root<E> root = criteria.from(clazz);
+        Path<Comparable<Object>> id = root.get(getIdAttribute());
+        criteria.select(root);
+        Predicate isNull = builder.isNull(root.get(attributeOrdering));
+        criteria.where(lastPk == null ? isNull : builder.and(isNull, builder.greaterThan(id, (Comparable<Object>) lastPk)));
+        criteria.orderBy(builder.asc(id));
+        return reader.createQuery(criteria).setMaxResults(limit).getResultList();
+    }
+
+    private String getIdAttribute() {
+        if (idAttribute == null) {
+            for (SingularAttribute<? super E, ?> attribute : entityManager.getMetamodel().entity(clazz)
+                    .getSingularAttributes()) {
+                if (attribute.isId()) {
+                    idAttribute = attribute.getName();
+                }
+            }
         }
+        return idAttribute;
+    }
+
+    /**
+     * Lista pelos atributos preenchidos, com like em qualquer posição.
+     *
+     * @param entity     Objeto exemplo
+     * @param ignoreCase Ignorar maiúsculas/minúsculas
+     * @return
+     */
+    public List<E> findByExample(E entity, boolean ignoreCase) throws RuntimeException {
+        return findByExample(entity, MatchMode.ANYWHERE, ignoreCase, Collections.emptyList(), true);
+    }
 
-        return session.createCriteria(this.clazz).add(example).list();
+    /**
+     * Lista pelos atributos preenchidos.
+     *
+     * @param filtro     Objeto exemplo
+     * @param matchMode  Modo do like para Strings, ou null para igualdade
+     * @param ignoreCase Ignorar maiúsculas/minúsculas
+     * @return
+     */
+    public List<E> findByExample(E filtro, MatchMode matchMode, boolean ignoreCase) {
+        return findByExample(filtro, matchMode, ignoreCase, Collections.emptyList(), true);
     }
 
     /**
      * Lista pelos atributos preenchidos.
      *
-     * @param example            Objeto exemplo
-     * @param useLike            Usar like
+     * @param entity             Objeto exemplo
+     * @param useLike            Usar like exato ao invés de like em qualquer posição
      * @param attributesOrdering Atributos para ordenação
      * @param ascendingOrdering  Ordenação ASC
      * @return
      */
-
     public List<E> findByExample(final E entity, boolean useLike, Collection<String> attributesOrdering,
             boolean ascendingOrdering) {
-        makeEntity();
-        List<E> lista = null;
-        Example example = null;
-        try {
-            example = Example.create(entity).enableLike(MatchMode.ANYWHERE);
-            if (useLike) {
-                example = example.enableLike();
-            }
-
-            Criteria crit = session.createCriteria(entity.getClass());
-            crit.add(example);
-            orderAttributesExample(attributesOrdering, ascendingOrdering, crit);
-
-            lista = crit.list();
-
-            return lista;
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new RuntimeException("Erro ao realizar consulta!" + e.getMessage());
-        }
+        MatchMode matchMode = useLike ? MatchMode.EXACT : MatchMode.ANYWHERE;
+        return findByExample(entity, matchMode, false, attributesOrdering, ascendingOrdering);
     }
 
-    private void orderAttributesExample(Collection<String> attributesOrdering, boolean ascendingOrdering,
-            Criteria crit) {
-        for (String order : attributesOrdering) {
-            if (ascendingOrdering) {
-                crit.addOrder(org.hibernate.criterion.Order.asc(order));
-            } else {
-                crit.addOrder(org.hibernate.criterion.Order.desc(order));
-            }
+    private List<E> findByExample(E entity, MatchMode matchMode, boolean ignoreCase,
+            Collection<String> attributesOrdering, boolean ascendingOrdering) {
+        long start = System.nanoTime();
+        try {
+            return recordSize(Operation.FIND_BY_EXAMPLE, EXAMPLE_QUERIES.create(getReadEntityManager(), clazz, entity,
+                    matchMode, ignoreCase, attributesOrdering, ascendingOrdering).getResultList());
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, getStackTrace(e));
+            throw new RuntimeException("Erro ao realizar consulta!" + e.getMessage(), e);
+        } finally {
+            metrics().record(Operation.FIND_BY_EXAMPLE, start);
         }
     }
 
@@ -333,6 +509,84 @@ public abstract class BaseDao<E, P> {
         return (Class<E>) parametrizedType.getActualTypeArguments()[0];
     }
 
+    /**
+     * Remove a entidade da pk do cache de segundo nível. Necessário apenas
+     * após escritas que não passam pelo Hibernate (SQL nativo, outro sistema).
+     *
+     * @param pk pk
+     */
+    public void evictCache(P pk) {
+        entityManager.getEntityManagerFactory().getCache().evict(clazz, pk);
+    }
+
+    /**
+     * Remove do cache de segundo nível as entidades das pks e as consultas em
+     * cache quando a transação corrente confirmar; sem transação, na hora.
+     * Para escritas por SQL nativo: removidas antes do commit, outra
+     * transação poderia recolocar no cache as linhas antigas.
+     *
+     * @param pks pks gravadas
+     */
+    protected void evictCacheAfterCommit(Collection<P> pks) {
+        EntityManagerFactory factory = entityManager.getEntityManagerFactory();
+        if (transactions == null || transactions.getTransactionStatus() == Status.STATUS_NO_TRANSACTION) {
+            evictEntries(factory, pks);
+            return;
+        }
+        transactions.registerInterposedSynchronization(new Synchronization() {
+
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    evictEntries(factory, pks);
+                }
+            }
+        });
+    }
+
+    private void evictEntries(EntityManagerFactory factory, Collection<P> pks) {
+        Cache cache = factory.getCache();
+        for (P pk : pks) {
+            cache.evict(clazz, pk);
+        }
+        factory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+    }
+
+    /**
+     * Remove todas as entidades do tipo e as consultas em cache.
+     */
+    public void evictCache() {
+        entityManager.getEntityManagerFactory().getCache().evict(clazz);
+        entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache().evictQueryRegions();
+    }
+
+    /**
+     * Contadores do cache de segundo nível da entidade e do cache de
+     * consultas. Requer {@code quarkus.hibernate-orm.statistics=true}.
+     *
+     * @return
+     */
+    public CacheStatistics getCacheStatistics() {
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        CacheStatistics cacheStatistics = new CacheStatistics();
+        cacheStatistics.setRegion(clazz.getName());
+        CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(clazz.getName());
+        if (region != null) {
+            cacheStatistics.setHits(region.getHitCount());
+            cacheStatistics.setMisses(region.getMissCount());
+            cacheStatistics.setPuts(region.getPutCount());
+            cacheStatistics.setElementsInMemory(region.getElementCountInMemory());
+        }
+        cacheStatistics.setQueryHits(statistics.getQueryCacheHitCount());
+        cacheStatistics.setQueryMisses(statistics.getQueryCacheMissCount());
+        cacheStatistics.setQueryPuts(statistics.getQueryCachePutCount());
+        return cacheStatistics;
+    }
+
     public void refresh(E object) {
         this.entityManager.refresh(object);
     }
@@ -346,6 +600,93 @@ public abstract class BaseDao<E, P> {
         this.entityManager.clear();
     }
 
+    /**
+     * Desanexa as entidades lidas do contexto de persistência em que foram
+     * carregadas (réplica ou primária), para que possam ser entregues a
+     * outras requisições como valores. Cada leitura pode ter ido a uma réplica
+     * diferente do rodízio, então todas são verificadas.
+     *
+     * @param entities Entidades lidas
+     */
+    public void detach(Collection<E> entities) {
+        List<EntityManager> replicas = readRouter != null ? readRouter.getReplicas() : Collections.emptyList();
+        for (E entity : entities) {
+            for (EntityManager replica : replicas) {
+                if (replica.contains(entity)) {
+                    replica.detach(entity);
+                }
+            }
+            if (this.entityManager.contains(entity)) {
+                this.entityManager.detach(entity);
+            }
+        }
+    }
+
+    /**
+     * Flush após uma escrita quando a unidade de trabalho da transação pede;
+     * sem {@link UnitOfWork} (DAO fora do CDI), a cada escrita.
+     */
+    private void flushIfRequired() {
+        if (unitOfWork == null || unitOfWork.afterWrite()) {
+            flush();
+        }
+    }
+
+    /**
+     * Notifica uma escrita da entidade aos observadores de
+     * {@link EntityChange}. Escritas que não passam pelos métodos do DAO
+     * (SQL nativo) devem chamá-lo para manter versões e caches derivados.
+     *
+     * @param type   Tipo da escrita
+     * @param entity Entity
+     */
+    protected void fireChange(EntityChange.Type type, E entity) {
+        fireChange(type, entity, null);
+    }
+
+    /**
+     * Notifica uma escrita com o estado anterior da entidade (ver
+     * {@link EntityChange#getPrevious()}).
+     *
+     * @param type     Tipo da escrita
+     * @param entity   Entity
+     * @param previous Estado confirmado antes da escrita, ou null se desconhecido
+     */
+    protected void fireChange(EntityChange.Type type, E entity, E previous) {
+        if (entityChanges != null) {
+            entityChanges.fire(new EntityChange(clazz, type, entity, previous));
+        }
+    }
+
+    /**
+     * EntityManager das consultas: uma réplica de leitura quando configuradas
+     * (ver {@link ReadRouter}), senão o da primária. Escritas e leituras
+     * dentro de transação usam sempre a primária.
+     *
+     * @return
+     */
+    protected EntityManager getReadEntityManager() {
+        return readRouter != null ? readRouter.select(entityManager) : entityManager;
+    }
+
+    private DaoMetrics metrics() {
+        if (metrics == null) {
+            MeterRegistry registry = meterRegistry != null && meterRegistry.isResolvable() ? meterRegistry.get()
+                    : Metrics.globalRegistry;
+            metrics = DaoMetrics.of(registry, clazz);
+        }
+        return metrics;
+    }
+
+    private <T> List<T> recordSize(Operation operation, List<T> result) {
+        metrics().recordSize(operation, result.size());
+        return result;
+    }
+
+    protected int getBatchSize() {
+        return batchSize > 0 ? batchSize : DEFAULT_BATCH_SIZE;
+    }
+
     private String getStackTrace(Exception e) {
         StringWriter errorStackTrace = new StringWriter();
         e.printStackTrace(new PrintWriter(errorStackTrace));
@@ -0,0 +1,30 @@
+package com.fcr.dao;
+
+import lombok.Data;
+
+/**
+ * Contadores do cache de segundo nível de uma entidade e do cache de
+ * consultas, para dimensionamento. As estatísticas de região do Hibernate
+ * não contam remoções; a pressão sobre a região aparece como
+ * {@code elementsInMemory} no limite configurado e misses crescentes.
+ */
+@Data
+public class CacheStatistics {
+
+    private String region;
+
+    private long hits;
+
+    private long misses;
+
+    private long puts;
+
+    private long elementsInMemory;
+
+    private long queryHits;
+
+    private long queryMisses;
+
+    private long queryPuts;
+
+}
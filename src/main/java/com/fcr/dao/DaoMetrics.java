@@ -0,0 +1,69 @@
+package com.fcr.dao;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Timers e distribuição de tamanho de resultado das operações do
+ * {@link BaseDao}, por entidade. Os meters são registrados uma vez por
+ * entidade e reaproveitados, então registrar uma chamada não aloca.
+ */
+final class DaoMetrics {
+
+    enum Operation {
+        PERSIST, MERGE, REMOVE, PERSIST_ALL, MERGE_ALL, FIND, FIND_ALL, FIND_ALL_AFTER, FIND_BY_EXAMPLE
+    }
+
+    static final String TIMER = "dao.operation";
+    static final String RESULT_SIZE = "dao.result.size";
+
+    private static final ConcurrentMap<Class<?>, DaoMetrics> METRICS = new ConcurrentHashMap<>();
+
+    private final MeterRegistry registry;
+    private final Timer[] timers;
+    private final DistributionSummary[] resultSizes;
+
+    private DaoMetrics(MeterRegistry registry, Class<?> clazz) {
+        this.registry = registry;
+        Operation[] operations = Operation.values();
+        timers = new Timer[operations.length];
+        resultSizes = new DistributionSummary[operations.length];
+        for (Operation operation : operations) {
+            String name = operation.name().toLowerCase(Locale.ROOT);
+            timers[operation.ordinal()] = Timer.builder(TIMER)
+                    .tag("entity", clazz.getSimpleName())
+                    .tag("operation", name)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            resultSizes[operation.ordinal()] = DistributionSummary.builder(RESULT_SIZE)
+                    .tag("entity", clazz.getSimpleName())
+                    .tag("operation", name)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+    }
+
+    static DaoMetrics of(MeterRegistry registry, Class<?> clazz) {
+        DaoMetrics metrics = METRICS.get(clazz);
+        if (metrics == null || metrics.registry != registry) {
+            metrics = new DaoMetrics(registry, clazz);
+            METRICS.put(clazz, metrics);
+        }
+        return metrics;
+    }
+
+    void record(Operation operation, long startNanos) {
+        timers[operation.ordinal()].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void recordSize(Operation operation, int size) {
+        resultSizes[operation.ordinal()].record(size);
+    }
+
+}
@@ -0,0 +1,38 @@
+package com.fcr.dao;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Evento CDI disparado pelo {@link BaseDao} a cada escrita. Observadores
+ * transacionais ({@code @Observes(during = ...)}) são notificados conforme o
+ * desfecho da transação.
+ *
+ * Em um {@link Type#MERGE}, {@link #getPrevious()} traz o estado confirmado
+ * antes da escrita quando o DAO o conhece, para que os observadores possam
+ * desfazer o valor antigo em vez de recalcular tudo.
+ */
+@Getter
+@AllArgsConstructor
+@ToString(of = { "entityClass", "type" })
+public class EntityChange {
+
+    public enum Type {
+        PERSIST, MERGE, REMOVE
+    }
+
+    private final Class<?> entityClass;
+
+    private final Type type;
+
+    private final Object entity;
+
+    /** Estado anterior em um merge, ou null se desconhecido */
+    private final Object previous;
+
+    public EntityChange(Class<?> entityClass, Type type, Object entity) {
+        this(entityClass, type, entity, null);
+    }
+
+}
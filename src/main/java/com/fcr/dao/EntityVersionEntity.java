@@ -0,0 +1,32 @@
+package com.fcr.dao;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Versão de uma entidade, compartilhada pelas instâncias da aplicação. Uma
+ * linha por entidade, incrementada por {@link EntityVersions} na mesma
+ * transação da escrita.
+ */
+@Entity
+@Table(name = "entity_version")
+@Data
+@EqualsAndHashCode(of = "entidade")
+public class EntityVersionEntity {
+
+    /** Nome da classe da entidade */
+    @Id
+    private String entidade;
+
+    @Column(nullable = false)
+    private Long versao;
+
+    @Column(nullable = false)
+    private Long alteradaEm;
+
+}
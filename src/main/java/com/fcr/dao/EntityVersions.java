@@ -0,0 +1,288 @@
+package com.fcr.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.EntityType;
+import javax.sql.DataSource;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.quarkus.runtime.StartupEvent;
+
+/**
+ * Versão por entidade, incrementada uma vez por transação que escreveu pelo
+ * {@link BaseDao}. Permite responder se uma tabela mudou sem consultá-la.
+ *
+ * A versão fica na tabela entity_version ({@link EntityVersionEntity}) e é
+ * incrementada dentro da própria transação, logo antes do commit: todas as
+ * instâncias da aplicação veem a mesma versão, e ela nunca é confirmada sem a
+ * escrita que a gerou. A leitura é guardada localmente por até
+ * {@code dao.version.cache-ms}; a instância que escreveu descarta a sua cópia
+ * no fim da transação, as demais percebem a escrita em até esse intervalo.
+ */
+@ApplicationScoped
+public class EntityVersions {
+
+    private static final String UPDATE = "UPDATE EntityVersionEntity v SET v.versao = v.versao + 1, "
+            + "v.alteradaEm = :agora WHERE v.entidade = :entidade";
+
+    @Inject
+    Logger logger;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    EntityManagerFactory entityManagerFactory;
+
+    @Inject
+    DataSource dataSource;
+
+    @Inject
+    TransactionSynchronizationRegistry transactions;
+
+    @ConfigProperty(name = "dao.version.cache-ms", defaultValue = "250")
+    long cacheMs;
+
+    private final long startTime = System.currentTimeMillis();
+    private final ConcurrentMap<Class<?>, Version> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Cria as linhas das entidades do modelo que ainda não existem, para que as
+     * escritas só precisem incrementá-las.
+     */
+    void onStart(@Observes StartupEvent event) {
+        for (EntityType<?> entityType : entityManagerFactory.getMetamodel().getEntities()) {
+            if (entityType.getJavaType() == EntityVersionEntity.class) {
+                continue;
+            }
+            try (Connection connection = dataSource.getConnection()) {
+                criar(connection, entityType.getJavaType().getName());
+            } catch (SQLException e) {
+                // outra instância criou a linha ao mesmo tempo
+                logger.log(Level.FINE, "Versão de " + entityType.getName() + " não criada", e);
+            }
+        }
+    }
+
+    void onChange(@Observes EntityChange change) {
+        touch(change.getEntityClass());
+    }
+
+    void onCompletion(@Observes(during = TransactionPhase.AFTER_COMPLETION) EntityChange change) {
+        versions.remove(change.getEntityClass());
+    }
+
+    /**
+     * Marca a entidade como alterada. Dentro de uma transação, o incremento é
+     * feito uma vez só, antes do commit; fora, é feito na hora.
+     *
+     * @param entityClass Entidade
+     */
+    public void touch(Class<?> entityClass) {
+        if (transactions.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            try (Connection connection = dataSource.getConnection()) {
+                incrementar(connection, entityClass.getName());
+            } catch (SQLException e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            } finally {
+                versions.remove(entityClass);
+            }
+            return;
+        }
+        alteradas().add(entityClass);
+    }
+
+    /**
+     * Versão atual da entidade; deve ser lida antes da consulta cujo
+     * resultado ela identifica.
+     *
+     * @param entityClass Entidade
+     * @return
+     */
+    public long getVersion(Class<?> entityClass) {
+        return version(entityClass).versao;
+    }
+
+    /**
+     * Momento da última alteração, ou da inicialização se não houve escrita.
+     *
+     * @param entityClass Entidade
+     * @return
+     */
+    public long getLastModified(Class<?> entityClass) {
+        return version(entityClass).alteradaEm;
+    }
+
+    /**
+     * Valor para ETag da versão informada.
+     *
+     * @param version versão obtida em {@link #getVersion(Class)}
+     * @return
+     */
+    public String getTag(long version) {
+        return Long.toString(version);
+    }
+
+    private Version version(Class<?> entityClass) {
+        long agora = System.currentTimeMillis();
+        Version version = versions.get(entityClass);
+        if (version == null || agora - version.lidaEm >= cacheMs) {
+            version = ler(entityClass, agora);
+            versions.put(entityClass, version);
+        }
+        return version;
+    }
+
+    private Version ler(Class<?> entityClass, long agora) {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection
+                        .prepareStatement("SELECT versao, alteradaEm FROM entity_version WHERE entidade = ?")) {
+            statement.setString(1, entityClass.getName());
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    return new Version(resultSet.getLong(1), resultSet.getLong(2), agora);
+                }
+                return new Version(0, startTime, agora);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Versão confirmada pela transação corrente para a entidade, ou null se a
+     * transação não a alterou. Válida em observadores
+     * {@code AFTER_SUCCESS}: identifica o estado que a escrita produziu.
+     *
+     * @param entityClass Entidade
+     * @return
+     */
+    public Long getCommittedVersion(Class<?> entityClass) {
+        if (transactions.getTransactionKey() == null) {
+            return null;
+        }
+        Transacao transacao = (Transacao) transactions.getResource(EntityVersions.class);
+        return transacao == null ? null : transacao.versoes.get(entityClass);
+    }
+
+    /**
+     * Entidades alteradas na transação corrente. Na primeira chamada da
+     * transação, registra o incremento das versões antes do commit.
+     */
+    private Set<Class<?>> alteradas() {
+        Transacao atual = (Transacao) transactions.getResource(EntityVersions.class);
+        if (atual == null) {
+            Transacao transacao = new Transacao();
+            transactions.putResource(EntityVersions.class, transacao);
+            transactions.registerInterposedSynchronization(new Synchronization() {
+
+                @Override
+                public void beforeCompletion() {
+                    long agora = System.currentTimeMillis();
+                    for (Class<?> entityClass : transacao.alteradas) {
+                        transacao.versoes.put(entityClass, incrementar(entityClass, agora));
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    // a cópia local é descartada pelo observador AFTER_COMPLETION
+                }
+            });
+            atual = transacao;
+        }
+        return atual.alteradas;
+    }
+
+    /**
+     * Incrementa a versão na transação corrente; a linha fica bloqueada até o
+     * commit, então a versão lida em seguida é a que será confirmada.
+     */
+    private long incrementar(Class<?> entityClass, long agora) {
+        int linhas = entityManager.createQuery(UPDATE).setParameter("agora", agora)
+                .setParameter("entidade", entityClass.getName()).executeUpdate();
+        if (linhas == 0) {
+            EntityVersionEntity version = new EntityVersionEntity();
+            version.setEntidade(entityClass.getName());
+            version.setVersao(1L);
+            version.setAlteradaEm(agora);
+            entityManager.persist(version);
+            entityManager.flush();
+            return 1L;
+        }
+        return entityManager.createQuery("SELECT v.versao FROM EntityVersionEntity v WHERE v.entidade = :entidade",
+                Long.class).setParameter("entidade", entityClass.getName()).getSingleResult();
+    }
+
+    private void criar(Connection connection, String entidade) throws SQLException {
+        try (PreparedStatement statement = connection
+                .prepareStatement("SELECT 1 FROM entity_version WHERE entidade = ?")) {
+            statement.setString(1, entidade);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    return;
+                }
+            }
+        }
+        try (PreparedStatement statement = connection
+                .prepareStatement("INSERT INTO entity_version (entidade, versao, alteradaEm) VALUES (?, 0, ?)")) {
+            statement.setString(1, entidade);
+            statement.setLong(2, startTime);
+            statement.executeUpdate();
+        }
+    }
+
+    private void incrementar(Connection connection, String entidade) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "UPDATE entity_version SET versao = versao + 1, alteradaEm = ? WHERE entidade = ?")) {
+            statement.setLong(1, System.currentTimeMillis());
+            statement.setString(2, entidade);
+            if (statement.executeUpdate() > 0) {
+                return;
+            }
+        }
+        criar(connection, entidade);
+        incrementar(connection, entidade);
+    }
+
+    private static final class Transacao {
+
+        private final Set<Class<?>> alteradas = new LinkedHashSet<>();
+        private final Map<Class<?>, Long> versoes = new HashMap<>();
+    }
+
+    private static final class Version {
+
+        private final long versao;
+        private final long alteradaEm;
+        private final long lidaEm;
+
+        Version(long versao, long alteradaEm, long lidaEm) {
+            this.versao = versao;
+            this.alteradaEm = alteradaEm;
+            this.lidaEm = lidaEm;
+        }
+    }
+
+}
@@ -0,0 +1,191 @@
+package com.fcr.dao;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.metamodel.Attribute.PersistentAttributeType;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+
+import org.hibernate.criterion.MatchMode;
+
+/**
+ * Consulta por exemplo sobre JPQL, com a mesma semântica do
+ * {@code org.hibernate.criterion.Example}: considera apenas os atributos
+ * básicos preenchidos, ignora a pk e aplica like somente a Strings.
+ *
+ * O JPQL gerado é guardado por formato de consulta (entidade, atributos
+ * preenchidos, match mode, ignoreCase e ordenação), de modo que buscas
+ * repetidas reaproveitam a mesma string e o plano já compilado pelo Hibernate.
+ */
+final class ExampleQueries {
+
+    private final ConcurrentMap<Class<?>, ExampleMetadata> metadata = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Shape, String> jpql = new ConcurrentHashMap<>();
+
+    <E> TypedQuery<E> create(EntityManager entityManager, Class<E> clazz, E example, MatchMode matchMode,
+            boolean ignoreCase, Collection<String> attributesOrdering, boolean ascendingOrdering) {
+        ExampleMetadata meta = metadata.computeIfAbsent(clazz, c -> new ExampleMetadata(entityManager, c));
+        Object[] values = meta.values(example);
+        BitSet mask = new BitSet(values.length);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                mask.set(i);
+            }
+        }
+        Shape shape = new Shape(clazz, mask, matchMode, ignoreCase, List.copyOf(attributesOrdering), ascendingOrdering);
+        TypedQuery<E> query = entityManager.createQuery(jpql.computeIfAbsent(shape, s -> render(meta, s)), clazz);
+        for (int i = mask.nextSetBit(0); i >= 0; i = mask.nextSetBit(i + 1)) {
+            query.setParameter("p" + i, parameter(values[i], meta.strings[i], matchMode, ignoreCase));
+        }
+        return query;
+    }
+
+    private static String render(ExampleMetadata meta, Shape shape) {
+        StringBuilder query = new StringBuilder();
+        query.append("SELECT e FROM ").append(meta.entityName).append(" e");
+        String separator = " WHERE ";
+        for (int i = shape.mask.nextSetBit(0); i >= 0; i = shape.mask.nextSetBit(i + 1)) {
+            query.append(separator);
+            boolean string = meta.strings[i];
+            if (string && shape.ignoreCase) {
+                query.append("LOWER(e.").append(meta.names[i]).append(')');
+            } else {
+                query.append("e.").append(meta.names[i]);
+            }
+            query.append(string && shape.matchMode != null ? " LIKE :p" : " = :p").append(i);
+            separator = " AND ";
+        }
+        separator = " ORDER BY ";
+        for (String attribute : shape.attributesOrdering) {
+            meta.validate(attribute);
+            query.append(separator).append("e.").append(attribute).append(shape.ascendingOrdering ? " ASC" : " DESC");
+            separator = ", ";
+        }
+        return query.toString();
+    }
+
+    private static Object parameter(Object value, boolean string, MatchMode matchMode, boolean ignoreCase) {
+        if (!string) {
+            return value;
+        }
+        String text = ignoreCase ? ((String) value).toLowerCase(Locale.ROOT) : (String) value;
+        return matchMode != null ? matchMode.toMatchString(text) : text;
+    }
+
+    /**
+     * Atributos básicos de uma entidade, em ordem estável, com o acesso
+     * reflexivo já preparado.
+     */
+    private static final class ExampleMetadata {
+
+        private final String entityName;
+        private final String[] names;
+        private final Member[] members;
+        private final boolean[] strings;
+        private final Set<String> orderable = new HashSet<>();
+
+        ExampleMetadata(EntityManager entityManager, Class<?> clazz) {
+            EntityType<?> entity = entityManager.getMetamodel().entity(clazz);
+            List<SingularAttribute<?, ?>> attributes = new ArrayList<>();
+            for (SingularAttribute<?, ?> attribute : entity.getSingularAttributes()) {
+                orderable.add(attribute.getName());
+                if (!attribute.isId() && !attribute.isVersion()
+                        && attribute.getPersistentAttributeType() == PersistentAttributeType.BASIC) {
+                    attributes.add(attribute);
+                }
+            }
+            attributes.sort(Comparator.comparing(SingularAttribute::getName));
+            entityName = entity.getName();
+            names = new String[attributes.size()];
+            members = new Member[attributes.size()];
+            strings = new boolean[attributes.size()];
+            for (int i = 0; i < attributes.size(); i++) {
+                SingularAttribute<?, ?> attribute = attributes.get(i);
+                names[i] = attribute.getName();
+                members[i] = attribute.getJavaMember();
+                ((AccessibleObject) members[i]).setAccessible(true);
+                strings[i] = attribute.getJavaType() == String.class;
+            }
+        }
+
+        Object[] values(Object example) {
+            Object[] values = new Object[members.length];
+            try {
+                for (int i = 0; i < members.length; i++) {
+                    if (members[i] instanceof Field) {
+                        values[i] = ((Field) members[i]).get(example);
+                    } else {
+                        values[i] = ((Method) members[i]).invoke(example);
+                    }
+                }
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Não foi possível ler o exemplo " + example.getClass().getName(), e);
+            }
+            return values;
+        }
+
+        void validate(String attribute) {
+            if (!orderable.contains(attribute)) {
+                throw new IllegalArgumentException("Atributo de ordenação inválido para " + entityName + ": " + attribute);
+            }
+        }
+    }
+
+    private static final class Shape {
+
+        private final Class<?> clazz;
+        private final BitSet mask;
+        private final MatchMode matchMode;
+        private final boolean ignoreCase;
+        private final List<String> attributesOrdering;
+        private final boolean ascendingOrdering;
+        private final int hash;
+
+        Shape(Class<?> clazz, BitSet mask, MatchMode matchMode, boolean ignoreCase, List<String> attributesOrdering,
+                boolean ascendingOrdering) {
+            this.clazz = clazz;
+            this.mask = mask;
+            this.matchMode = matchMode;
+            this.ignoreCase = ignoreCase;
+            this.attributesOrdering = attributesOrdering;
+            this.ascendingOrdering = ascendingOrdering;
+            this.hash = Objects.hash(clazz, mask, matchMode, ignoreCase, attributesOrdering, ascendingOrdering);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Shape)) {
+                return false;
+            }
+            Shape other = (Shape) obj;
+            return clazz == other.clazz && mask.equals(other.mask) && matchMode == other.matchMode
+                    && ignoreCase == other.ignoreCase && ascendingOrdering == other.ascendingOrdering
+                    && attributesOrdering.equals(other.attributesOrdering);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+}
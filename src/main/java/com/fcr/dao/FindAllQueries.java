@@ -0,0 +1,108 @@
+package com.fcr.dao;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+
+/**
+ * JPQL das listagens do {@link BaseDao#findAll()} e sobrecargas, guardado por
+ * formato de consulta (entidade, atributos de ordenação e direção).
+ *
+ * Montar a criteria a cada chamada obriga o Hibernate a renderizá-la de novo
+ * para JPQL; com a string pronta, a consulta vai direto ao cache de planos.
+ * Os atributos de ordenação são validados contra o metamodelo antes de
+ * entrarem no JPQL.
+ */
+final class FindAllQueries {
+
+    private final ConcurrentMap<Class<?>, EntityMetadata> metadata = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Shape, String> jpql = new ConcurrentHashMap<>();
+
+    <E> TypedQuery<E> create(EntityManager entityManager, Class<E> clazz) {
+        return create(entityManager, clazz, List.of(), true);
+    }
+
+    <E> TypedQuery<E> create(EntityManager entityManager, Class<E> clazz, Collection<String> attributesOrdering,
+            boolean ascendingOrdering) {
+        Shape shape = new Shape(clazz, List.copyOf(attributesOrdering), ascendingOrdering);
+        String query = jpql.get(shape);
+        if (query == null) {
+            EntityMetadata meta = metadata.computeIfAbsent(clazz, c -> new EntityMetadata(entityManager, c));
+            query = jpql.computeIfAbsent(shape, s -> render(meta, s));
+        }
+        return entityManager.createQuery(query, clazz);
+    }
+
+    private static String render(EntityMetadata meta, Shape shape) {
+        StringBuilder query = new StringBuilder();
+        query.append("SELECT e FROM ").append(meta.entityName).append(" e");
+        String separator = " ORDER BY ";
+        for (String attribute : shape.attributesOrdering) {
+            meta.validate(attribute);
+            query.append(separator).append("e.").append(attribute).append(shape.ascendingOrdering ? " ASC" : " DESC");
+            separator = ", ";
+        }
+        return query.toString();
+    }
+
+    private static final class EntityMetadata {
+
+        private final String entityName;
+        private final Set<String> orderable;
+
+        EntityMetadata(EntityManager entityManager, Class<?> clazz) {
+            EntityType<?> entity = entityManager.getMetamodel().entity(clazz);
+            entityName = entity.getName();
+            orderable = entity.getSingularAttributes().stream().map(Attribute::getName).collect(Collectors.toSet());
+        }
+
+        void validate(String attribute) {
+            if (!orderable.contains(attribute)) {
+                throw new IllegalArgumentException("Atributo de ordenação inválido para " + entityName + ": " + attribute);
+            }
+        }
+    }
+
+    private static final class Shape {
+
+        private final Class<?> clazz;
+        private final List<String> attributesOrdering;
+        private final boolean ascendingOrdering;
+        private final int hash;
+
+        Shape(Class<?> clazz, List<String> attributesOrdering, boolean ascendingOrdering) {
+            this.clazz = clazz;
+            this.attributesOrdering = attributesOrdering;
+            this.ascendingOrdering = ascendingOrdering;
+            this.hash = Objects.hash(clazz, attributesOrdering, ascendingOrdering);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Shape)) {
+                return false;
+            }
+            Shape other = (Shape) obj;
+            return clazz == other.clazz && ascendingOrdering == other.ascendingOrdering
+                    && attributesOrdering.equals(other.attributesOrdering);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+}
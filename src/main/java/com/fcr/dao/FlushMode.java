@@ -0,0 +1,22 @@
+package com.fcr.dao;
+
+/**
+ * Quando as escritas de {@link BaseDao#persist}, {@link BaseDao#merge} e
+ * {@link BaseDao#remove} são enviadas ao banco.
+ */
+public enum FlushMode {
+
+    /**
+     * Flush ao final de cada operação: erros de banco aparecem na própria
+     * chamada, ao custo de uma ida ao banco por entidade e sem batch JDBC.
+     */
+    PER_OPERATION,
+
+    /**
+     * Flush no commit (ou a cada N operações da transação): as escritas da
+     * unidade de trabalho seguem juntas, em batch JDBC. Erros de banco
+     * aparecem no flush, normalmente no commit.
+     */
+    DEFERRED
+
+}
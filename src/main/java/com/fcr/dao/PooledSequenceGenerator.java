@@ -0,0 +1,97 @@
+package com.fcr.dao;
+
+import java.io.Serializable;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.hibernate.HibernateException;
+import org.hibernate.MappingException;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * Gerador de ids por sequence com otimizador pooled-lo: cada ida ao banco
+ * reserva um bloco de ids, e os inserts seguem em batch JDBC (o que
+ * {@code IDENTITY} impede). O tamanho do bloco vem de
+ * {@code dao.sequence.allocation-size}, e pode ser fixado por entidade com o
+ * parâmetro {@code increment_size}.
+ *
+ * Uso nas entities do {@link BaseDao}:
+ *
+ * <pre>
+ * &#64;Id
+ * &#64;GeneratedValue(generator = "pessoa_seq")
+ * &#64;GenericGenerator(name = "pessoa_seq", strategy = PooledSequenceGenerator.STRATEGY,
+ *         parameters = &#64;Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "pessoa_seq"))
+ * private Integer id;
+ * </pre>
+ *
+ * Quem grava ids escolhidos pelo chamador (upsert, SQL nativo) deve chamar
+ * {@link #reservar(String, long)} e avançar a sequence no banco para depois do
+ * maior id gravado: os ids do bloco já reservado nesta instância que não
+ * passam do valor informado são descartados. Blocos já reservados por outras
+ * instâncias não são afetados; nelas o risco de colisão se limita aos ids do
+ * bloco corrente ({@code dao.sequence.allocation-size}).
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    public static final String STRATEGY = "com.fcr.dao.PooledSequenceGenerator";
+
+    public static final String ALLOCATION_SIZE_PROPERTY = "dao.sequence.allocation-size";
+
+    private static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    /** Maior id gravado por fora do gerador, por sequence */
+    private static final ConcurrentMap<String, AtomicLong> RESERVADOS = new ConcurrentHashMap<>();
+
+    private AtomicLong reservado;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        if (!params.containsKey(INCREMENT_PARAM)) {
+            params.setProperty(INCREMENT_PARAM, String.valueOf(getAllocationSize()));
+        }
+        if (!params.containsKey(OPT_PARAM)) {
+            params.setProperty(OPT_PARAM, "pooled-lo");
+        }
+        super.configure(type, params, serviceRegistry);
+        reservado = RESERVADOS.computeIfAbsent(params.getProperty(SEQUENCE_PARAM, DEF_SEQUENCE_NAME),
+                sequence -> new AtomicLong(Long.MIN_VALUE));
+    }
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) throws HibernateException {
+        Serializable id = super.generate(session, object);
+        while (((Number) id).longValue() <= reservado.get()) {
+            id = super.generate(session, object);
+        }
+        return id;
+    }
+
+    /**
+     * Impede que a sequence gere, nesta instância, ids até o valor informado.
+     *
+     * @param sequence Nome da sequence
+     * @param ate      Maior id gravado por fora do gerador
+     */
+    public static void reservar(String sequence, long ate) {
+        RESERVADOS.computeIfAbsent(sequence, s -> new AtomicLong(Long.MIN_VALUE))
+                .accumulateAndGet(ate, Math::max);
+    }
+
+    private static int getAllocationSize() {
+        try {
+            return ConfigProvider.getConfig().getOptionalValue(ALLOCATION_SIZE_PROPERTY, Integer.class)
+                    .orElse(DEFAULT_ALLOCATION_SIZE);
+        } catch (IllegalStateException e) {
+            // sem MicroProfile Config (Hibernate fora do Quarkus)
+            return DEFAULT_ALLOCATION_SIZE;
+        }
+    }
+
+}
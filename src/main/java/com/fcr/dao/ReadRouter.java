@@ -0,0 +1,129 @@
+package com.fcr.dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.enterprise.inject.Any;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.transaction.Status;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.hibernate.orm.PersistenceUnit;
+
+/**
+ * Escolhe o EntityManager das leituras do {@link BaseDao} entre a primária e
+ * as réplicas de {@code dao.read.replicas} (nomes de persistence units sobre
+ * os datasources das réplicas), em rodízio.
+ *
+ * A leitura fica na primária quando há transação ativa (o que ela lê pode
+ * ser escrito em seguida) e, para o chamador ler o que acabou de escrever,
+ * até {@code dao.read.sticky-ms} depois da última escrita dele
+ * ({@link ReadSession}), cobrindo o atraso da replicação. Os demais
+ * chamadores seguem nas réplicas. Entre instâncias a janela é medida pelo
+ * relógio de cada uma, então a diferença entre eles deve ficar bem abaixo de
+ * {@code dao.read.sticky-ms}.
+ */
+@ApplicationScoped
+public class ReadRouter {
+
+    @Inject
+    Logger logger;
+
+    @Inject
+    @Any
+    Instance<EntityManager> entityManagers;
+
+    @Inject
+    ReadSession session;
+
+    @Inject
+    TransactionSynchronizationRegistry transactions;
+
+    @ConfigProperty(name = "dao.read.replicas")
+    Optional<List<String>> replicaNames;
+
+    @ConfigProperty(name = "dao.read.sticky-ms", defaultValue = "2000")
+    long stickyMs;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private List<EntityManager> replicas = Collections.emptyList();
+
+    @PostConstruct
+    void init() {
+        List<EntityManager> resolved = new ArrayList<>();
+        for (String name : replicaNames.orElse(Collections.emptyList())) {
+            Instance<EntityManager> replica = entityManagers.select(new PersistenceUnit.PersistenceUnitLiteral(name));
+            if (replica.isResolvable()) {
+                resolved.add(replica.get());
+            } else {
+                logger.log(Level.WARNING, "Persistence unit de réplica não configurada: " + name);
+            }
+        }
+        replicas = Collections.unmodifiableList(resolved);
+    }
+
+    void onWrite(@Observes(during = TransactionPhase.AFTER_SUCCESS) EntityChange change) {
+        if (requestActive()) {
+            session.written(System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * EntityManager para uma leitura.
+     *
+     * @param primary EntityManager da primária
+     * @return
+     */
+    public EntityManager select(EntityManager primary) {
+        if (replicas.isEmpty() || inTransaction() || isSticky()) {
+            return primary;
+        }
+        return replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+    }
+
+    /**
+     * EntityManagers das réplicas em uso, na ordem de {@code dao.read.replicas}.
+     */
+    public List<EntityManager> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Quantidade de réplicas em uso.
+     */
+    public int getReplicaCount() {
+        return replicas.size();
+    }
+
+    private boolean inTransaction() {
+        return transactions.getTransactionStatus() != Status.STATUS_NO_TRANSACTION;
+    }
+
+    /**
+     * Indica se o chamador escreveu há menos de {@code dao.read.sticky-ms} e
+     * por isso lê da primária.
+     */
+    public boolean isSticky() {
+        return !replicas.isEmpty() && requestActive() && System.currentTimeMillis() - session.getLastWrite() < stickyMs;
+    }
+
+    private static boolean requestActive() {
+        return Arc.container().requestContext().isActive();
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.fcr.dao;
+
+import javax.enterprise.context.RequestScoped;
+
+/**
+ * Última escrita confirmada do chamador, usada pelo {@link ReadRouter} para
+ * mandar à primária as leituras de quem acabou de escrever.
+ *
+ * Em HTTP, o momento da escrita vai para o cookie {@value #COOKIE}
+ * ({@link ReadSessionFilter}) e volta nas requisições seguintes do mesmo
+ * cliente, em qualquer instância; fora de HTTP, vale só para a requisição
+ * (contexto de request) corrente.
+ */
+@RequestScoped
+public class ReadSession {
+
+    public static final String COOKIE = "dao-last-write";
+
+    private long lastWrite;
+
+    private boolean written;
+
+    /**
+     * Validade do cookie, em segundos, para a janela informada.
+     *
+     * @param stickyMs {@code dao.read.sticky-ms}
+     */
+    public static int maxAge(long stickyMs) {
+        return (int) Math.max(1, (stickyMs + 999) / 1000);
+    }
+
+    /**
+     * Momento (epoch ms) da última escrita conhecida do chamador, ou 0.
+     */
+    public long getLastWrite() {
+        return lastWrite;
+    }
+
+    /**
+     * Indica se houve escrita confirmada nesta requisição.
+     */
+    public boolean isWritten() {
+        return written;
+    }
+
+    /**
+     * Registra a escrita informada pelo chamador (cookie). Um momento no
+     * futuro é tratado como agora, para que a janela sempre termine.
+     *
+     * @param when Momento da escrita, em epoch ms
+     */
+    public void received(long when) {
+        lastWrite = Math.max(lastWrite, Math.min(when, System.currentTimeMillis()));
+    }
+
+    /**
+     * Registra uma escrita confirmada nesta requisição.
+     *
+     * @param when Momento do commit, em epoch ms
+     */
+    public void written(long when) {
+        lastWrite = Math.max(lastWrite, when);
+        written = true;
+    }
+
+}
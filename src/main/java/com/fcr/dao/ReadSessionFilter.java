@@ -0,0 +1,50 @@
+package com.fcr.dao;
+
+import javax.inject.Inject;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.core.Cookie;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.NewCookie;
+import javax.ws.rs.ext.Provider;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Leva a {@link ReadSession} entre as requisições de um cliente: lê o cookie
+ * {@value ReadSession#COOKIE} na entrada e, se a requisição escreveu, o
+ * devolve com o momento da escrita e validade de {@code dao.read.sticky-ms}.
+ */
+@Provider
+public class ReadSessionFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    @Inject
+    ReadSession session;
+
+    @ConfigProperty(name = "dao.read.sticky-ms", defaultValue = "2000")
+    long stickyMs;
+
+    @Override
+    public void filter(ContainerRequestContext request) {
+        Cookie cookie = request.getCookies().get(ReadSession.COOKIE);
+        if (cookie == null) {
+            return;
+        }
+        try {
+            session.received(Long.parseLong(cookie.getValue()));
+        } catch (NumberFormatException e) {
+            // cookie inválido: leituras seguem o rodízio
+        }
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+        if (session.isWritten()) {
+            response.getHeaders().add(HttpHeaders.SET_COOKIE, new NewCookie(ReadSession.COOKIE,
+                    Long.toString(session.getLastWrite()), "/", null, null, ReadSession.maxAge(stickyMs), false, true));
+        }
+    }
+
+}
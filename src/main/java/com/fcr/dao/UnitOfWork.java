@@ -0,0 +1,118 @@
+package com.fcr.dao;
+
+import java.util.concurrent.Callable;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.transaction.Status;
+import javax.transaction.TransactionSynchronizationRegistry;
+import javax.transaction.Transactional;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Unidade de trabalho das escritas do {@link BaseDao}: decide, por
+ * transação, quando {@code persist}, {@code merge} e {@code remove} executam
+ * flush.
+ *
+ * Por padrão ({@code dao.flush-mode=DEFERRED}) as escritas de uma transação
+ * ficam no contexto de persistência e vão ao banco juntas no commit, ou a
+ * cada {@code dao.flush-interval} operações quando maior que zero, e o
+ * Hibernate as agrupa em batch JDBC. {@code PER_OPERATION} mantém o flush a
+ * cada chamada. Consultas na mesma transação continuam vendo as escritas
+ * pendentes, pois o Hibernate executa flush antes delas.
+ *
+ * {@link #execute(FlushMode, int, Callable)} agrupa operações em uma
+ * transação com modo e intervalo próprios, independentes da configuração.
+ */
+@ApplicationScoped
+public class UnitOfWork {
+
+    private static final Object KEY = UnitOfWork.class;
+
+    @Inject
+    TransactionSynchronizationRegistry transactions;
+
+    @ConfigProperty(name = "dao.flush-mode", defaultValue = "DEFERRED")
+    FlushMode flushMode;
+
+    @ConfigProperty(name = "dao.flush-interval", defaultValue = "0")
+    int flushInterval;
+
+    /**
+     * Executa o trabalho em uma transação, com flush apenas no commit.
+     *
+     * @param work Operações da unidade de trabalho
+     * @return Resultado do trabalho
+     * @throws Exception
+     */
+    @Transactional
+    public <T> T execute(Callable<T> work) throws Exception {
+        return call(FlushMode.DEFERRED, 0, work);
+    }
+
+    /**
+     * Executa o trabalho em uma transação (ou na transação corrente) com o
+     * modo de flush informado; ao final, volta o modo anterior da transação.
+     *
+     * @param mode          Modo de flush
+     * @param flushInterval Com {@link FlushMode#DEFERRED}, flush a cada N
+     *                      operações; 0 para flush apenas no commit
+     * @param work          Operações da unidade de trabalho
+     * @return Resultado do trabalho
+     * @throws Exception
+     */
+    @Transactional
+    public <T> T execute(FlushMode mode, int flushInterval, Callable<T> work) throws Exception {
+        return call(mode, flushInterval, work);
+    }
+
+    /**
+     * Registra uma escrita na transação corrente.
+     *
+     * @return true se o DAO deve executar flush agora
+     */
+    boolean afterWrite() {
+        if (transactions.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            return true;
+        }
+        Work work = (Work) transactions.getResource(KEY);
+        if (work == null) {
+            work = new Work(flushMode, flushInterval);
+            transactions.putResource(KEY, work);
+        }
+        return work.afterWrite();
+    }
+
+    private <T> T call(FlushMode mode, int interval, Callable<T> work) throws Exception {
+        Object previous = transactions.getResource(KEY);
+        transactions.putResource(KEY, new Work(mode, interval));
+        try {
+            return work.call();
+        } finally {
+            transactions.putResource(KEY, previous != null ? previous : new Work(flushMode, flushInterval));
+        }
+    }
+
+    private static final class Work {
+
+        private final FlushMode mode;
+
+        private final int interval;
+
+        private int operations;
+
+        Work(FlushMode mode, int interval) {
+            this.mode = mode;
+            this.interval = interval;
+        }
+
+        boolean afterWrite() {
+            if (mode == FlushMode.PER_OPERATION) {
+                return true;
+            }
+            return interval > 0 && ++operations % interval == 0;
+        }
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.fcr.outbox;
+
+import java.util.Collection;
+import java.util.List;
+
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.TypedQuery;
+
+import org.hibernate.LockOptions;
+
+import com.fcr.dao.BaseDao;
+
+@RequestScoped
+public class OutboxDao extends BaseDao<OutboxEntity, Long> {
+
+    @Inject
+    EntityManager em;
+
+    /**
+     * Eventos mais antigos ainda não publicados, bloqueados para escrita. No
+     * Postgres usa {@code SKIP LOCKED}, para que mais de uma instância drene
+     * a tabela sem publicar o mesmo evento.
+     *
+     * @param limite Quantidade máxima de eventos
+     * @return
+     */
+    public List<OutboxEntity> obterPendentes(int limite){
+        StringBuilder query = new StringBuilder();
+        query.append(" SELECT a FROM ");
+        query.append(" OutboxEntity a ");
+        query.append(" ORDER BY a.id ");
+        TypedQuery<OutboxEntity> result = em.createQuery(query.toString(), OutboxEntity.class);
+        result.setLockMode(LockModeType.PESSIMISTIC_WRITE);
+        result.setHint("javax.persistence.lock.timeout", LockOptions.SKIP_LOCKED);
+        result.setMaxResults(limite);
+        return result.getResultList();
+    }
+
+    /**
+     * Remove os eventos já publicados, sem carregá-los.
+     *
+     * @param ids Ids dos eventos
+     * @return Quantidade removida
+     */
+    public int removerTodos(Collection<Long> ids){
+        return em.createQuery("DELETE FROM OutboxEntity a WHERE a.id IN :ids")
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+
+    /**
+     * Quantidade de eventos ainda não publicados.
+     */
+    public long contarPendentes(){
+        return em.createQuery("SELECT count(a) FROM OutboxEntity a", Long.class).getSingleResult();
+    }
+
+}
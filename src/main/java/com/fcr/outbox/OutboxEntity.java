@@ -0,0 +1,52 @@
+package com.fcr.outbox;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import com.fcr.dao.PooledSequenceGenerator;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Evento de alteração ainda não publicado. É gravado na mesma transação da
+ * escrita que o originou e removido pelo {@link OutboxRelay} depois que o
+ * broker confirma o envio.
+ */
+@Entity
+@Table(name = "outbox")
+@Data
+@EqualsAndHashCode(of = "id")
+@ToString(of = { "id", "entidade", "chave", "tipo" })
+public class OutboxEntity {
+
+    @Id
+    @GeneratedValue(generator = "outbox_seq")
+    @GenericGenerator(name = "outbox_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "outbox_seq"))
+    private Long id;
+
+    @Column(nullable = false)
+    private String entidade;
+
+    /** Pk da entidade alterada; usada como chave da mensagem */
+    private String chave;
+
+    @Column(nullable = false, length = 16)
+    private String tipo;
+
+    @Column(nullable = false, length = 8000)
+    private String payload;
+
+    @Column(nullable = false)
+    private Long criadoEm;
+
+}
@@ -0,0 +1,124 @@
+package com.fcr.outbox;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fcr.dao.EntityChange;
+
+/**
+ * Grava na tabela outbox cada escrita feita pelo {@link com.fcr.dao.BaseDao}
+ * nas entidades de {@code outbox.entities}. O observador é síncrono e roda
+ * dentro da transação da escrita: o evento é confirmado ou desfeito junto
+ * com ela, e nunca é publicado para uma escrita que não aconteceu.
+ *
+ * Os registros da transação são persistidos juntos, a cada
+ * {@code dao.batch-size} eventos e no fim da transação (antes do commit), e
+ * não um após cada escrita: intercalados com os da entidade, cada troca de
+ * tabela encerraria o batch JDBC dos inserts.
+ */
+@ApplicationScoped
+public class OutboxRecorder {
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    TransactionSynchronizationRegistry transactions;
+
+    @ConfigProperty(name = "outbox.entities", defaultValue = "com.fcr.pessoa.PessoaEntity")
+    List<String> entidades;
+
+    @ConfigProperty(name = "dao.batch-size", defaultValue = "50")
+    int tamanhoLote;
+
+    void onChange(@Observes EntityChange change) throws JsonProcessingException {
+        if (!entidades.contains(change.getEntityClass().getName())) {
+            return;
+        }
+        OutboxEntity outbox = criar(change);
+        if (transactions.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            entityManager.persist(outbox);
+            return;
+        }
+        List<OutboxEntity> pendentes = pendentes();
+        pendentes.add(outbox);
+        if (pendentes.size() >= tamanhoLote) {
+            persistir(pendentes);
+        }
+    }
+
+    private OutboxEntity criar(EntityChange change) throws JsonProcessingException {
+        Object id = entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(change.getEntity());
+        long agora = System.currentTimeMillis();
+
+        Map<String, Object> evento = new LinkedHashMap<>();
+        evento.put("entidade", change.getEntityClass().getSimpleName());
+        evento.put("tipo", change.getType().name());
+        evento.put("id", id);
+        evento.put("dados", change.getType() == EntityChange.Type.REMOVE ? null : change.getEntity());
+        evento.put("timestamp", agora);
+
+        OutboxEntity outbox = new OutboxEntity();
+        outbox.setEntidade(change.getEntityClass().getName());
+        outbox.setChave(id == null ? null : id.toString());
+        outbox.setTipo(change.getType().name());
+        outbox.setPayload(objectMapper.writeValueAsString(evento));
+        outbox.setCriadoEm(agora);
+        return outbox;
+    }
+
+    /**
+     * Registros ainda não persistidos da transação corrente. Na primeira
+     * chamada da transação, registra a gravação dos restantes antes do commit.
+     */
+    @SuppressWarnings("unchecked")
+    private List<OutboxEntity> pendentes() {
+        List<OutboxEntity> pendentes = (List<OutboxEntity>) transactions.getResource(OutboxRecorder.class);
+        if (pendentes == null) {
+            List<OutboxEntity> transacao = new ArrayList<>();
+            transactions.putResource(OutboxRecorder.class, transacao);
+            transactions.registerInterposedSynchronization(new Synchronization() {
+
+                @Override
+                public void beforeCompletion() {
+                    if (!transacao.isEmpty()) {
+                        persistir(transacao);
+                        entityManager.flush();
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    // nada a fazer: os registros foram confirmados ou desfeitos com a transação
+                }
+            });
+            pendentes = transacao;
+        }
+        return pendentes;
+    }
+
+    private void persistir(List<OutboxEntity> pendentes) {
+        for (OutboxEntity outbox : pendentes) {
+            entityManager.persist(outbox);
+        }
+        pendentes.clear();
+    }
+
+}
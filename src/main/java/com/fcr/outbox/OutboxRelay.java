@@ -0,0 +1,137 @@
+package com.fcr.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.control.ActivateRequestContext;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.transaction.Transactional;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.reactive.messaging.Channel;
+import org.eclipse.microprofile.reactive.messaging.Emitter;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.eclipse.microprofile.reactive.messaging.OnOverflow;
+
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.reactive.messaging.kafka.api.OutgoingKafkaRecordMetadata;
+
+/**
+ * Publica os eventos da tabela outbox no canal {@value #CANAL}. A cada
+ * {@code outbox.relay.interval-ms} lê lotes de até
+ * {@code outbox.relay.batch-size} eventos, envia todos e só os remove depois
+ * da confirmação do broker; se algum envio falhar a transação é desfeita e o
+ * lote inteiro é reenviado na próxima execução (entrega ao menos uma vez).
+ *
+ * Linger, tamanho de batch e compressão do produtor Kafka são configurados
+ * em {@code mp.messaging.outgoing.entity-changes.*}.
+ */
+@ApplicationScoped
+public class OutboxRelay {
+
+    public static final String CANAL = "entity-changes";
+
+    @Inject
+    Logger logger;
+
+    @Inject
+    OutboxDao outboxDao;
+
+    @Inject
+    @Channel(CANAL)
+    @OnOverflow(OnOverflow.Strategy.UNBOUNDED_BUFFER)
+    Emitter<String> emitter;
+
+    @ConfigProperty(name = "outbox.relay.enabled", defaultValue = "true")
+    boolean habilitado;
+
+    @ConfigProperty(name = "outbox.relay.interval-ms", defaultValue = "500")
+    long intervalo;
+
+    @ConfigProperty(name = "outbox.relay.batch-size", defaultValue = "500")
+    int tamanhoLote;
+
+    @ConfigProperty(name = "outbox.relay.ack-timeout-ms", defaultValue = "30000")
+    long timeoutConfirmacao;
+
+    private ScheduledExecutorService executor;
+
+    void onStart(@Observes StartupEvent event) {
+        if (!habilitado) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "outbox-relay"));
+        executor.scheduleWithFixedDelay(this::drenar, intervalo, intervalo, TimeUnit.MILLISECONDS);
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Publica lotes até esvaziar a tabela. Erros são registrados e a
+     * próxima execução tenta de novo.
+     */
+    void drenar() {
+        try {
+            while (publicarLote() == tamanhoLote) {
+                // lote cheio: ainda pode haver eventos pendentes
+            }
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Falha ao publicar eventos da outbox", e);
+        }
+    }
+
+    /**
+     * Publica um lote e remove da tabela os eventos confirmados.
+     *
+     * @return Quantidade de eventos publicados
+     * @throws Exception
+     */
+    @ActivateRequestContext
+    @Transactional
+    int publicarLote() throws Exception {
+        List<OutboxEntity> pendentes = outboxDao.obterPendentes(tamanhoLote);
+        if (pendentes.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>(pendentes.size());
+        CompletableFuture<?>[] confirmacoes = new CompletableFuture<?>[pendentes.size()];
+        for (int i = 0; i < pendentes.size(); i++) {
+            OutboxEntity evento = pendentes.get(i);
+            ids.add(evento.getId());
+            confirmacoes[i] = enviar(evento);
+        }
+        CompletableFuture.allOf(confirmacoes).get(timeoutConfirmacao, TimeUnit.MILLISECONDS);
+        outboxDao.removerTodos(ids);
+        return pendentes.size();
+    }
+
+    private CompletableFuture<Void> enviar(OutboxEntity evento) {
+        CompletableFuture<Void> confirmacao = new CompletableFuture<>();
+        Message<String> mensagem = Message.of(evento.getPayload())
+                .addMetadata(OutgoingKafkaRecordMetadata.<String>builder().withKey(evento.getChave()).build())
+                .withAck(() -> {
+                    confirmacao.complete(null);
+                    return CompletableFuture.completedFuture(null);
+                })
+                .withNack(erro -> {
+                    confirmacao.completeExceptionally(erro);
+                    return CompletableFuture.completedFuture(null);
+                });
+        emitter.send(mensagem);
+        return confirmacao;
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.fcr.pessoa;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.transaction.Status;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.fcr.dao.EntityVersions;
+import com.fcr.dao.ReadRouter;
+import com.fcr.utils.SingleFlight;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Coalesce as consultas de leitura do {@link PessoaRn}: requisições
+ * idênticas que chegam enquanto a mesma consulta está no banco recebem o
+ * resultado dela em vez de executá-la de novo (ver {@link SingleFlight}).
+ *
+ * A chave inclui a versão da tabela lida antes da consulta, então uma
+ * requisição nunca recebe o resultado de uma consulta iniciada antes de uma
+ * escrita que ela já enxerga. Dentro de transação não há coalescimento, pois
+ * a transação pode ter escritas que só ela vê, nem para quem acabou de
+ * escrever e lê da primária ({@link ReadRouter#isSticky()}). A espera pela
+ * consulta em andamento dura até {@code pessoa.coalescer.espera-ms}; depois
+ * disso a requisição consulta o banco por conta própria.
+ *
+ * O mesmo resultado é entregue a várias requisições, cada uma com o seu
+ * contexto de persistência. Por isso as consultas de entidades devem
+ * devolvê-las desanexadas ({@link PessoaDao#detach(java.util.Collection)}),
+ * e quem as recebe não deve alterá-las: são valores compartilhados, não
+ * entidades gerenciadas da requisição.
+ */
+@ApplicationScoped
+public class PessoaConsultasCompartilhadas {
+
+    static final String NOME = "pessoa.";
+
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    EntityVersions entityVersions;
+
+    @Inject
+    ReadRouter readRouter;
+
+    @Inject
+    TransactionSynchronizationRegistry transactions;
+
+    @ConfigProperty(name = "pessoa.coalescer.enabled", defaultValue = "true")
+    boolean habilitado;
+
+    @ConfigProperty(name = "pessoa.coalescer.espera-ms", defaultValue = "5000")
+    long espera;
+
+    private final ConcurrentMap<String, SingleFlight<List<Object>, Object>> porConsulta = new ConcurrentHashMap<>();
+
+    /**
+     * Executa a consulta ou aguarda a execução idêntica em andamento.
+     *
+     * @param consulta   Nome da consulta, também usado nas métricas
+     * @param parametros Parâmetros que identificam a consulta
+     * @param execucao   Consulta ao banco
+     * @return
+     * @throws Exception
+     */
+    @SuppressWarnings("unchecked")
+    <V> V executar(String consulta, List<?> parametros, Callable<V> execucao) throws Exception {
+        if (!habilitado || transactions.getTransactionStatus() == Status.STATUS_ACTIVE || readRouter.isSticky()) {
+            return execucao.call();
+        }
+        return (V) singleFlight(consulta).executar(chave(parametros), execucao::call);
+    }
+
+    /**
+     * Chave da consulta na versão atual da tabela.
+     */
+    List<Object> chave(List<?> parametros) {
+        return List.of(entityVersions.getVersion(PessoaEntity.class), parametros);
+    }
+
+    SingleFlight<List<Object>, Object> singleFlight(String consulta) {
+        return porConsulta.computeIfAbsent(consulta,
+                c -> new SingleFlight<>(NOME + c, registry, Duration.ofMillis(espera)));
+    }
+
+}
@@ -0,0 +1,109 @@
+package com.fcr.pessoa;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Leitor incremental de CSV (RFC 4180): um registro por chamada, lido do
+ * {@link Reader} por um buffer fixo, sem carregar o conteúdo inteiro. Campos
+ * entre aspas podem conter vírgulas, quebras de linha e aspas duplicadas.
+ */
+class PessoaCsvLeitor {
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int posicao;
+    private int limite;
+
+    private final StringBuilder campo = new StringBuilder();
+    private final List<String> campos = new ArrayList<>();
+    private long linha = 1;
+    private long linhaRegistro;
+
+    PessoaCsvLeitor(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Próximo registro, ou nulo no fim do conteúdo.
+     *
+     * @throws IllegalStateException se um campo entre aspas não for fechado
+     */
+    String[] ler() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        linhaRegistro = linha;
+        campos.clear();
+        campo.setLength(0);
+        boolean citado = false;
+        while (true) {
+            if (citado) {
+                if (c == -1) {
+                    throw new IllegalStateException("Aspas não fechadas no registro da linha " + linhaRegistro);
+                }
+                if (c == '"') {
+                    if (peek() == '"') {
+                        read();
+                        campo.append('"');
+                    } else {
+                        citado = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        linha++;
+                    }
+                    campo.append((char) c);
+                }
+            } else if (c == '"' && campo.length() == 0) {
+                citado = true;
+            } else if (c == ',') {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else if (c == '\n' || c == '\r' || c == -1) {
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                if (c != -1) {
+                    linha++;
+                }
+                campos.add(campo.toString());
+                return campos.toArray(new String[0]);
+            } else {
+                campo.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    /**
+     * Linha do arquivo em que começa o último registro lido.
+     */
+    long getLinhaRegistro() {
+        return linhaRegistro;
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        if (c != -1) {
+            posicao++;
+        }
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (posicao == limite) {
+            limite = reader.read(buffer, 0, buffer.length);
+            posicao = 0;
+            if (limite <= 0) {
+                limite = 0;
+                return -1;
+            }
+        }
+        return buffer[posicao];
+    }
+
+}
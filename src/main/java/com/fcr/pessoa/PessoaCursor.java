@@ -0,0 +1,82 @@
+package com.fcr.pessoa;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import javax.ws.rs.BadRequestException;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Cursor opaco da paginação por keyset: guarda a ordenação e as chaves do
+ * último registro visto, codificados em base64 url-safe. Na ordem por nome,
+ * o nome leva um marcador que distingue o nome nulo de qualquer texto.
+ */
+@Getter
+@AllArgsConstructor
+class PessoaCursor {
+
+    static final String ORDEM_ID = "id";
+    static final String ORDEM_NOME = "nome";
+
+    private static final char SEPARADOR = '|';
+    private static final char NULO = '-';
+    private static final char VALOR = '=';
+
+    private final String ordem;
+    private final Integer id;
+    private final String nome;
+
+    static PessoaCursor inicio(String ordem) {
+        if (!ORDEM_ID.equals(ordem) && !ORDEM_NOME.equals(ordem)) {
+            throw new BadRequestException("Ordem inválida: " + ordem);
+        }
+        return new PessoaCursor(ordem, null, null);
+    }
+
+    static PessoaCursor apos(PessoaEntity ultima, String ordem) {
+        return new PessoaCursor(ordem, ultima.getId(), ultima.getNome());
+    }
+
+    boolean isPorNome() {
+        return ORDEM_NOME.equals(ordem);
+    }
+
+    String codificar() {
+        StringBuilder valor = new StringBuilder();
+        valor.append(ordem).append(SEPARADOR).append(id);
+        if (isPorNome()) {
+            valor.append(SEPARADOR);
+            if (nome == null) {
+                valor.append(NULO);
+            } else {
+                valor.append(VALOR).append(nome);
+            }
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    static PessoaCursor decodificar(String cursor) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = valor.split("\\|", 3);
+            PessoaCursor inicio = inicio(partes[0]);
+            String nome = inicio.isPorNome() ? decodificarNome(partes[2]) : null;
+            return new PessoaCursor(inicio.getOrdem(), Integer.valueOf(partes[1]), nome);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new BadRequestException("Cursor inválido", e);
+        }
+    }
+
+    private static String decodificarNome(String parte) {
+        if (parte.length() == 1 && parte.charAt(0) == NULO) {
+            return null;
+        }
+        if (parte.charAt(0) != VALOR) {
+            throw new IllegalArgumentException("Nome sem marcador: " + parte);
+        }
+        return parte.substring(1);
+    }
+
+}
@@ -1,24 +1,451 @@
 package com.fcr.pessoa;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Stream;
 
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
-import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.annotations.QueryHints;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import com.fcr.dao.BaseDao;
+import com.fcr.dao.EntityChange;
+import com.fcr.dao.PooledSequenceGenerator;
+
 @RequestScoped
-public class PessoaDao {
+public class PessoaDao extends BaseDao<PessoaEntity, Integer> {
+
+    static final List<String> CAMPOS = List.of("id", "nome", "idade", "sexo");
+
+    private static final String UPSERT_POSTGRESQL = "INSERT INTO PessoaEntity (id, nome, idade, sexo) VALUES (?, ?, ?, ?)"
+            + " ON CONFLICT (id) DO UPDATE SET nome = EXCLUDED.nome, idade = EXCLUDED.idade, sexo = EXCLUDED.sexo";
+    private static final String BUSCA_POSTGRESQL = "SELECT * FROM PessoaEntity WHERE nome ILIKE :padrao"
+            + " ORDER BY similarity(nome, :termo) DESC, id LIMIT :limite";
+    private static final String INDICE_POSTGRESQL = "CREATE INDEX IF NOT EXISTS idx_pessoa_nome_trgm"
+            + " ON PessoaEntity USING gin (nome gin_trgm_ops)";
+    private static final String INSERT = "INSERT INTO PessoaEntity (id, nome, idade, sexo) VALUES (?, ?, ?, ?)";
+    private static final String UPSERT_H2 = "MERGE INTO PessoaEntity (id, nome, idade, sexo) KEY (id) VALUES (?, ?, ?, ?)";
+    private static final String ANTERIORES = "SELECT id, nome, idade, sexo FROM PessoaEntity WHERE id IN (:ids) FOR UPDATE";
+    /** Ids por consulta de {@link #ANTERIORES} */
+    private static final int LOTE_ANTERIORES = 1000;
+
+    /** Serializa o avanço da sequence fora do Postgres, onde ele não é atômico */
+    private static final Object RESERVA = new Object();
 
     @Inject
-    EntityManager em;
+    PessoaIndiceNome indiceNome;
+
+    @ConfigProperty(name = "quarkus.datasource.db-kind")
+    Optional<String> dbKind;
 
+    /**
+     * Lista todas as pessoas. Sem cache de consultas: ele guarda só os ids e,
+     * com a tabela maior que a região de entidades, cada acerto viraria uma
+     * carga por linha.
+     *
+     * Lida sempre da primária: a lista é identificada pela versão da tabela
+     * (ETag, snapshot), que é a da primária, e uma réplica atrasada devolveria
+     * um conteúdo anterior a ela.
+     *
+     * @return
+     */
     public List<PessoaEntity> obterTodos(){
         StringBuilder query = new StringBuilder();
         query.append(" SELECT a FROM ");
         query.append(" PessoaEntity a ");
-        TypedQuery<PessoaEntity> result = em.createQuery(query.toString(), PessoaEntity.class);
+        TypedQuery<PessoaEntity> result = entityManager.createQuery(query.toString(), PessoaEntity.class);
         return result.getResultList();
     }
-    
+
+    /**
+     * Lista apenas os campos informados de todas as pessoas, por projeção
+     * JPQL: as linhas não viram entidades gerenciadas nem entram no contexto
+     * de persistência. Os campos devem estar em {@link #CAMPOS}. Lida da
+     * primária, como {@link #obterTodos()}.
+     *
+     * @param campos Campos da projeção, na ordem desejada
+     * @return Valores de cada linha na ordem dos campos
+     */
+    public List<Object[]> obterCampos(List<String> campos){
+        StringBuilder query = new StringBuilder();
+        query.append(" SELECT ");
+        for (int i = 0; i < campos.size(); i++) {
+            if (!CAMPOS.contains(campos.get(i))) {
+                throw new IllegalArgumentException("Campo inválido: " + campos.get(i));
+            }
+            query.append(i == 0 ? "" : ", ").append("a.").append(campos.get(i));
+        }
+        query.append(" FROM ");
+        query.append(" PessoaEntity a ");
+        if (campos.size() > 1) {
+            TypedQuery<Object[]> result = entityManager.createQuery(query.toString(), Object[].class);
+            return result.getResultList();
+        }
+        // com um só campo o Hibernate devolve o próprio valor, e não um array
+        List<Object> valores = entityManager.createQuery(query.toString(), Object.class).getResultList();
+        List<Object[]> linhas = new ArrayList<>(valores.size());
+        for (Object valor : valores) {
+            linhas.add(new Object[] { valor });
+        }
+        return linhas;
+    }
+
+    /**
+     * Total, mínimo, máximo e média de idade, quantidade por sexo e por faixa
+     * de idade, calculados no banco com {@code GROUP BY}.
+     *
+     * @param faixa Largura das faixas de idade
+     * @return
+     */
+    public PessoaEstatisticas obterEstatisticas(int faixa){
+        Object[] totais = entityManager.createQuery("SELECT count(a), min(a.idade), max(a.idade), avg(a.idade) FROM PessoaEntity a", Object[].class)
+                .getSingleResult();
+
+        Map<String, Long> porSexo = new TreeMap<>();
+        for (Object[] linha : entityManager.createQuery("SELECT a.sexo, count(a) FROM PessoaEntity a GROUP BY a.sexo", Object[].class)
+                .getResultList()) {
+            porSexo.put(linha[0] == null ? PessoaEstatisticas.INDEFINIDO : linha[0].toString(), (Long) linha[1]);
+        }
+
+        StringBuilder query = new StringBuilder();
+        query.append(" SELECT a.idade / ").append(faixa).append(", count(a) FROM ");
+        query.append(" PessoaEntity a ");
+        query.append(" GROUP BY a.idade / ").append(faixa);
+        TreeMap<Integer, Long> porFaixa = new TreeMap<>();
+        long semIdade = 0;
+        for (Object[] linha : entityManager.createQuery(query.toString(), Object[].class).getResultList()) {
+            if (linha[0] == null) {
+                semIdade = (Long) linha[1];
+            } else {
+                porFaixa.put(((Number) linha[0]).intValue(), (Long) linha[1]);
+            }
+        }
+        Double media = totais[3] == null ? null : ((Number) totais[3]).doubleValue();
+        return new PessoaEstatisticas((Long) totais[0], porSexo, (Integer) totais[1], (Integer) totais[2], media,
+                PessoaEstatisticasMaterializadas.faixas(porFaixa, semIdade, faixa));
+    }
+
+    /**
+     * Quantidade de pessoas por (idade, sexo), para carregar o
+     * {@link PessoaEstatisticasMaterializadas}, junto com a versão da tabela
+     * em {@link com.fcr.dao.EntityVersions}. Contagem e versão saem da mesma
+     * consulta, e portanto do mesmo estado confirmado do banco. A versão vem
+     * em todas as linhas; com a tabela vazia há uma só linha, de quantidade 0.
+     *
+     * @return Linhas (versão, idade, sexo, quantidade)
+     */
+    public List<Object[]> contarPorIdadeESexo(){
+        StringBuilder query = new StringBuilder();
+        query.append(" SELECT v.versao, a.idade, a.sexo, count(a) FROM ");
+        query.append(" EntityVersionEntity v LEFT JOIN PessoaEntity a ON v.entidade = :entidade ");
+        query.append(" WHERE v.entidade = :entidade ");
+        query.append(" GROUP BY v.versao, a.idade, a.sexo ");
+        return entityManager.createQuery(query.toString(), Object[].class)
+                .setParameter("entidade", PessoaEntity.class.getName())
+                .getResultList();
+    }
+
+    /**
+     * Percorre todas as pessoas com um cursor, sem materializar a tabela.
+     * Cada entidade é desanexada após lida para manter o contexto de
+     * persistência vazio, e o cache de segundo nível é ignorado para não ser
+     * varrido pela tabela inteira. O stream deve ser fechado pelo chamador.
+     *
+     * @param fetchSize Quantidade de linhas buscadas por ida ao banco
+     * @return
+     */
+    public Stream<PessoaEntity> obterTodosStream(int fetchSize){
+        StringBuilder query = new StringBuilder();
+        query.append(" SELECT a FROM ");
+        query.append(" PessoaEntity a ");
+        TypedQuery<PessoaEntity> result = entityManager.createQuery(query.toString(), PessoaEntity.class);
+        result.setHint(QueryHints.FETCH_SIZE, fetchSize);
+        result.setHint(QueryHints.READ_ONLY, true);
+        result.setHint(QueryHints.CACHE_MODE, CacheMode.IGNORE);
+        return result.getResultStream().peek(entityManager::detach);
+    }
+
+    /**
+     * Percorre os {@link #CAMPOS} de todas as pessoas, em ordem de id, com um
+     * cursor. A projeção escalar não cria entidades nem ocupa o contexto de
+     * persistência, então a memória não depende da quantidade de linhas. O
+     * stream deve ser fechado pelo chamador.
+     *
+     * @param fetchSize Quantidade de linhas buscadas por ida ao banco
+     * @return Valores de cada linha na ordem de {@link #CAMPOS}
+     */
+    public Stream<Object[]> obterCamposStream(int fetchSize){
+        StringBuilder query = new StringBuilder();
+        query.append(" SELECT a.id, a.nome, a.idade, a.sexo FROM ");
+        query.append(" PessoaEntity a ");
+        query.append(" ORDER BY a.id ");
+        TypedQuery<Object[]> result = entityManager.createQuery(query.toString(), Object[].class);
+        result.setHint(QueryHints.FETCH_SIZE, fetchSize);
+        result.setHint(QueryHints.READ_ONLY, true);
+        return result.getResultStream();
+    }
+
+    /**
+     * Insere ou atualiza as pessoas pela pk com SQL nativo em batch JDBC
+     * ({@code ON CONFLICT} no Postgres, {@code MERGE} no H2), sem carregar as
+     * entidades no contexto de persistência. Em outros bancos usa mergeAll.
+     * A sequence é avançada para depois do maior id gravado.
+     *
+     * As linhas existentes são lidas (e bloqueadas) antes da gravação: cada
+     * pessoa é notificada como {@code PERSIST} se não existia, ou como
+     * {@code MERGE} com o estado anterior ({@link EntityChange#getPrevious()}).
+     *
+     * @param pessoas Pessoas com pk preenchida
+     * @throws Exception
+     */
+    public void upsertAll(Collection<PessoaEntity> pessoas) throws Exception {
+        String sql = getSqlUpsert();
+        if (sql == null) {
+            mergeAll(pessoas);
+            return;
+        }
+        gravarComId(sql, EntityChange.Type.MERGE, pessoas);
+    }
+
+    /**
+     * Insere as pessoas com a pk informada pelo chamador, por SQL nativo em
+     * batch JDBC, e avança a sequence para depois do maior id gravado. Uma pk
+     * já existente falha o lote.
+     *
+     * @param pessoas Pessoas com pk preenchida
+     * @throws Exception
+     */
+    public void insertAll(Collection<PessoaEntity> pessoas) throws Exception {
+        gravarComId(INSERT, EntityChange.Type.PERSIST, pessoas);
+    }
+
+    /**
+     * Insere as pessoas novas: as sem pk recebem id da sequence
+     * ({@link #persistAll}), as com pk informada são gravadas com ela
+     * ({@link #insertAll}). Os ids informados são reservados antes, para que
+     * a sequence não gere nenhum deles no mesmo lote.
+     *
+     * @param pessoas Pessoas novas
+     * @throws Exception
+     */
+    public void inserirTodas(Collection<PessoaEntity> pessoas) throws Exception {
+        List<PessoaEntity> semId = new ArrayList<>(pessoas.size());
+        List<PessoaEntity> comId = new ArrayList<>();
+        for (PessoaEntity pessoa : pessoas) {
+            (pessoa.getId() == null ? semId : comId).add(pessoa);
+        }
+        if (!semId.isEmpty()) {
+            if (!comId.isEmpty()) {
+                reservarIds(comId.stream().mapToLong(PessoaEntity::getId).max().getAsLong());
+            }
+            persistAll(semId);
+        }
+        insertAll(comId);
+    }
+
+    /**
+     * Maior id gravado, ou 0 com a tabela vazia.
+     */
+    public long obterMaiorId(){
+        Integer maior = entityManager.createQuery("SELECT max(a.id) FROM PessoaEntity a", Integer.class)
+                .getSingleResult();
+        return maior == null ? 0 : maior;
+    }
+
+    /**
+     * Garante que a sequence {@value PessoaEntity#SEQUENCE} não gere ids até o
+     * valor informado: descarta o que esta instância já reservou até ele e,
+     * só se a sequence ainda não passou dele, avança a sequence no banco para
+     * depois. O avanço nunca a faz voltar: no Postgres fica com o maior entre
+     * o próximo valor e o informado, nos demais bancos é feito sob um lock
+     * desta instância.
+     *
+     * @param ate Maior id gravado por fora do gerador
+     */
+    public void reservarIds(long ate){
+        PooledSequenceGenerator.reservar(PessoaEntity.SEQUENCE, ate);
+        if (isPostgres()) {
+            Number ultimo = (Number) entityManager.createNativeQuery("SELECT last_value FROM " + PessoaEntity.SEQUENCE)
+                    .getSingleResult();
+            if (ultimo.longValue() <= ate) {
+                entityManager.createNativeQuery("SELECT setval('" + PessoaEntity.SEQUENCE + "', GREATEST(nextval('"
+                        + PessoaEntity.SEQUENCE + "'), :proximo))")
+                        .setParameter("proximo", ate + 1)
+                        .getSingleResult();
+            }
+            return;
+        }
+        Dialect dialect = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect();
+        synchronized (RESERVA) {
+            entityManager.unwrap(Session.class).doWork(connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    long proximo;
+                    try (ResultSet resultSet = statement.executeQuery(dialect.getSequenceNextValString(PessoaEntity.SEQUENCE))) {
+                        resultSet.next();
+                        proximo = resultSet.getLong(1);
+                    }
+                    if (proximo <= ate) {
+                        statement.execute("ALTER SEQUENCE " + PessoaEntity.SEQUENCE + " RESTART WITH " + (ate + 1));
+                    }
+                }
+            });
+        }
+    }
+
+    private void gravarComId(String sql, EntityChange.Type tipo, Collection<PessoaEntity> pessoas) throws Exception {
+        if (pessoas.isEmpty()) {
+            return;
+        }
+        int tamanho = getBatchSize();
+        long maiorId = Long.MIN_VALUE;
+        List<Integer> ids = new ArrayList<>(pessoas.size());
+        for (PessoaEntity pessoa : pessoas) {
+            maiorId = Math.max(maiorId, pessoa.getId());
+            ids.add(pessoa.getId());
+        }
+        entityManager.flush();
+        Map<Integer, PessoaEntity> anteriores = tipo == EntityChange.Type.MERGE ? obterAnteriores(ids) : null;
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                int count = 0;
+                for (PessoaEntity pessoa : pessoas) {
+                    statement.setObject(1, pessoa.getId(), Types.INTEGER);
+                    statement.setString(2, pessoa.getNome());
+                    statement.setObject(3, pessoa.getIdade(), Types.INTEGER);
+                    statement.setString(4, pessoa.getSexo() == null ? null : pessoa.getSexo().toString());
+                    statement.addBatch();
+                    if (++count % tamanho == 0) {
+                        statement.executeBatch();
+                    }
+                }
+                if (count % tamanho != 0) {
+                    statement.executeBatch();
+                }
+            }
+        });
+        for (PessoaEntity pessoa : pessoas) {
+            if (anteriores == null) {
+                fireChange(tipo, pessoa);
+                continue;
+            }
+            // a mesma pk repetida no lote tem como anterior a gravação anterior do lote
+            PessoaEntity anterior = anteriores.put(pessoa.getId(), pessoa);
+            if (anterior == null) {
+                fireChange(EntityChange.Type.PERSIST, pessoa);
+            } else {
+                fireChange(EntityChange.Type.MERGE, pessoa, anterior);
+            }
+        }
+        reservarIds(maiorId);
+        evictCacheAfterCommit(ids);
+    }
+
+    /**
+     * Estado atual das pessoas das pks que existem, bloqueadas até o fim da
+     * transação para que nenhuma outra as altere antes da gravação. As
+     * pessoas devolvidas não são entidades gerenciadas.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<Integer, PessoaEntity> obterAnteriores(List<Integer> ids){
+        Map<Integer, PessoaEntity> anteriores = new HashMap<>();
+        for (int de = 0; de < ids.size(); de += LOTE_ANTERIORES) {
+            List<Object[]> linhas = entityManager.createNativeQuery(ANTERIORES)
+                    .setParameter("ids", ids.subList(de, Math.min(de + LOTE_ANTERIORES, ids.size())))
+                    .getResultList();
+            for (Object[] linha : linhas) {
+                PessoaEntity anterior = new PessoaEntity();
+                anterior.setId(((Number) linha[0]).intValue());
+                anterior.setNome((String) linha[1]);
+                anterior.setIdade(linha[2] == null ? null : ((Number) linha[2]).intValue());
+                String sexo = linha[3] == null ? "" : linha[3].toString();
+                anterior.setSexo(sexo.isEmpty() ? null : sexo.charAt(0));
+                anteriores.put(anterior.getId(), anterior);
+            }
+        }
+        return anteriores;
+    }
+
+    /**
+     * Busca as pessoas cujo nome contém o termo, por relevância. No Postgres
+     * usa {@code ILIKE} com o índice GIN do {@code pg_trgm} e ordena pela
+     * {@code similarity}; nos demais bancos usa o {@link PessoaIndiceNome}.
+     *
+     * @param termo  Trecho do nome
+     * @param limite Quantidade máxima de pessoas
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public List<PessoaEntity> buscarPorNome(String termo, int limite){
+        if (isPostgres()) {
+            return entityManager.createNativeQuery(BUSCA_POSTGRESQL, PessoaEntity.class)
+                    .setParameter("padrao", "%" + termo.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%")
+                    .setParameter("termo", termo)
+                    .setParameter("limite", limite)
+                    .getResultList();
+        }
+        List<Integer> ids = indiceNome.buscar(termo, limite, () -> obterCampos(List.of("id", "nome")));
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Integer, PessoaEntity> porId = new HashMap<>();
+        for (PessoaEntity pessoa : entityManager.createQuery("SELECT a FROM PessoaEntity a WHERE a.id IN :ids", PessoaEntity.class)
+                .setParameter("ids", ids)
+                .getResultList()) {
+            porId.put(pessoa.getId(), pessoa);
+        }
+        List<PessoaEntity> pessoas = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            PessoaEntity pessoa = porId.get(id);
+            if (pessoa != null) {
+                pessoas.add(pessoa);
+            }
+        }
+        return pessoas;
+    }
+
+    /**
+     * Cria no Postgres a extensão {@code pg_trgm} e o índice GIN de trigramas
+     * sobre o nome, se ainda não existirem. Nos demais bancos não faz nada.
+     */
+    public void criarIndiceNome(){
+        if (isPostgres()) {
+            entityManager.createNativeQuery("CREATE EXTENSION IF NOT EXISTS pg_trgm").executeUpdate();
+            entityManager.createNativeQuery(INDICE_POSTGRESQL).executeUpdate();
+        }
+    }
+
+    private boolean isPostgres(){
+        return UPSERT_POSTGRESQL.equals(getSqlUpsert());
+    }
+
+    private String getSqlUpsert(){
+        switch (dbKind.orElse("")) {
+            case "postgresql":
+            case "postgres":
+            case "pgsql":
+                return UPSERT_POSTGRESQL;
+            case "h2":
+                return UPSERT_H2;
+            default:
+                return null;
+        }
+    }
+
 }
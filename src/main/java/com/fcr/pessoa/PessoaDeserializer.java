@@ -0,0 +1,14 @@
+package com.fcr.pessoa;
+
+import io.quarkus.kafka.client.serialization.ObjectMapperDeserializer;
+
+/**
+ * Desserializa o JSON de uma pessoa recebida pelo Kafka.
+ */
+public class PessoaDeserializer extends ObjectMapperDeserializer<PessoaEntity> {
+
+    public PessoaDeserializer() {
+        super(PessoaEntity.class);
+    }
+
+}
@@ -1,23 +1,46 @@
 package com.fcr.pessoa;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import com.fcr.dao.PooledSequenceGenerator;
 
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 
 @Entity
+@Cacheable
+@Table(indexes = @Index(name = "idx_pessoa_nome_id", columnList = "nome, id"))
 @Data
 @EqualsAndHashCode(of = "id")
 @ToString(of = "id")
 public class PessoaEntity {
+
+    public static final String SEQUENCE = "pessoa_seq";
     
     @Id
+    @GeneratedValue(generator = SEQUENCE)
+    @GenericGenerator(name = SEQUENCE, strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = SEQUENCE))
     private Integer id;
 
+    @NotBlank
+    @Size(max = 255)
     private String nome;
 
+    @PositiveOrZero
     private Integer idade;
 
     private Character sexo;
@@ -0,0 +1,34 @@
+package com.fcr.pessoa;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Totais de pessoas por sexo e por faixa de idade. Pessoas sem sexo ou sem
+ * idade são contadas em {@value #INDEFINIDO}; mínimo, máximo e média
+ * consideram apenas as idades preenchidas e são nulos sem nenhuma.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PessoaEstatisticas {
+
+    public static final String INDEFINIDO = "indefinido";
+
+    private long total;
+
+    private Map<String, Long> porSexo;
+
+    private Integer idadeMinima;
+
+    private Integer idadeMaxima;
+
+    private Double idadeMedia;
+
+    /** Quantidade por faixa de idade ("0-9", "10-19", ...), em ordem */
+    private Map<String, Long> faixasIdade;
+
+}
@@ -0,0 +1,222 @@
+package com.fcr.pessoa;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.inject.Inject;
+
+import com.fcr.dao.EntityChange;
+import com.fcr.dao.EntityVersions;
+
+/**
+ * Estatísticas de pessoas mantidas em memória pelas escritas confirmadas do
+ * {@link com.fcr.dao.BaseDao}, para responder sem consultar a tabela.
+ *
+ * Guarda a quantidade por (idade, sexo), de onde saem total, mínimo, máximo,
+ * média e faixas, carimbada com a versão da tabela em {@link EntityVersions}
+ * lida na mesma consulta da carga. Cada escrita chega com a versão que a sua
+ * transação confirmou: as de versão até o carimbo já estão na contagem e são
+ * ignoradas, mesmo que a notificação chegue depois da carga; as demais
+ * ajustam os contadores, e as que chegam durante a carga são reaplicadas
+ * sobre ela.
+ *
+ * Persist e remove são aplicados como ajustes, e merge também: o valor
+ * anterior ({@link EntityChange#getPrevious()}, trazido pelos upserts do
+ * {@link PessoaDao}) sai da contagem e o novo entra. Um merge sem o estado
+ * anterior (o {@code merge} genérico do DAO) marca o estado como
+ * desatualizado, e o próximo {@link #obter} recarrega com uma única consulta
+ * agrupada. Escritas por fora do DAO exigem {@link #invalidar()}.
+ */
+@ApplicationScoped
+public class PessoaEstatisticasMaterializadas {
+
+    @Inject
+    EntityVersions entityVersions;
+
+    private final Map<Integer, Map<Character, Long>> contagem = new HashMap<>();
+    private boolean atualizado;
+    private long versao;
+    private int cargas;
+    private final List<Escrita> durante = new ArrayList<>();
+
+    void onChange(@Observes(during = TransactionPhase.AFTER_SUCCESS) EntityChange change) {
+        if (change.getEntityClass() != PessoaEntity.class) {
+            return;
+        }
+        Escrita escrita = new Escrita(change, entityVersions.getCommittedVersion(PessoaEntity.class));
+        synchronized (this) {
+            if (atualizado) {
+                aplicar(escrita);
+            } else if (cargas > 0) {
+                durante.add(escrita);
+            }
+        }
+    }
+
+    /**
+     * Estatísticas atuais, recarregadas se necessário.
+     *
+     * @param faixa      Largura das faixas de idade
+     * @param carregador Fornece (versão, idade, sexo, quantidade) agrupados por
+     *                   idade e sexo, como {@link PessoaDao#contarPorIdadeESexo()}
+     * @return
+     */
+    public PessoaEstatisticas obter(int faixa, Supplier<List<Object[]>> carregador) {
+        synchronized (this) {
+            if (atualizado) {
+                return montar(contagem, faixa);
+            }
+            cargas++;
+        }
+        List<Object[]> linhas;
+        try {
+            linhas = carregador.get();
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                if (--cargas == 0) {
+                    durante.clear();
+                }
+            }
+            throw e;
+        }
+        long carregadaEm = linhas.isEmpty() ? 0 : ((Number) linhas.get(0)[0]).longValue();
+        Map<Integer, Map<Character, Long>> carregada = new HashMap<>();
+        for (Object[] linha : linhas) {
+            long quantidade = ((Number) linha[3]).longValue();
+            if (quantidade > 0) {
+                carregada.computeIfAbsent((Integer) linha[1], i -> new HashMap<>())
+                        .merge((Character) linha[2], quantidade, Long::sum);
+            }
+        }
+        synchronized (this) {
+            if (!atualizado) {
+                contagem.clear();
+                contagem.putAll(carregada);
+                versao = carregadaEm;
+                atualizado = true;
+                for (Escrita escrita : durante) {
+                    aplicar(escrita);
+                }
+            }
+            if (--cargas == 0) {
+                durante.clear();
+            }
+            return montar(contagem, faixa);
+        }
+    }
+
+    /**
+     * Descarta o estado; o próximo {@link #obter} recarrega do banco.
+     */
+    public synchronized void invalidar() {
+        atualizado = false;
+    }
+
+    /**
+     * Ajusta os contadores pela escrita, se ela é posterior à carga.
+     */
+    private void aplicar(Escrita escrita) {
+        if (!atualizado || escrita.versao != null && escrita.versao <= versao) {
+            return;
+        }
+        PessoaEntity pessoa = (PessoaEntity) escrita.change.getEntity();
+        switch (escrita.change.getType()) {
+            case PERSIST:
+                somar(pessoa.getIdade(), pessoa.getSexo(), 1);
+                break;
+            case REMOVE:
+                somar(pessoa.getIdade(), pessoa.getSexo(), -1);
+                break;
+            default:
+                PessoaEntity anterior = (PessoaEntity) escrita.change.getPrevious();
+                if (anterior == null) {
+                    atualizado = false;
+                } else {
+                    somar(anterior.getIdade(), anterior.getSexo(), -1);
+                    somar(pessoa.getIdade(), pessoa.getSexo(), 1);
+                }
+        }
+    }
+
+    private void somar(Integer idade, Character sexo, long quantidade) {
+        Map<Character, Long> porSexo = contagem.computeIfAbsent(idade, i -> new HashMap<>());
+        if (porSexo.merge(sexo, quantidade, Long::sum) == 0L) {
+            porSexo.remove(sexo);
+            if (porSexo.isEmpty()) {
+                contagem.remove(idade);
+            }
+        }
+    }
+
+    private static PessoaEstatisticas montar(Map<Integer, Map<Character, Long>> contagem, int faixa) {
+        long total = 0;
+        long comIdade = 0;
+        long soma = 0;
+        Map<String, Long> porSexo = new TreeMap<>();
+        TreeMap<Integer, Long> porFaixa = new TreeMap<>();
+        long semIdade = 0;
+        for (Map.Entry<Integer, Map<Character, Long>> entrada : contagem.entrySet()) {
+            Integer idade = entrada.getKey();
+            for (Map.Entry<Character, Long> sexo : entrada.getValue().entrySet()) {
+                long quantidade = sexo.getValue();
+                total += quantidade;
+                porSexo.merge(sexo.getKey() == null ? PessoaEstatisticas.INDEFINIDO : sexo.getKey().toString(),
+                        quantidade, Long::sum);
+                if (idade == null) {
+                    semIdade += quantidade;
+                } else {
+                    comIdade += quantidade;
+                    soma += idade * quantidade;
+                    porFaixa.merge(Math.floorDiv(idade, faixa), quantidade, Long::sum);
+                }
+            }
+        }
+        Integer minima = null;
+        Integer maxima = null;
+        for (Integer idade : contagem.keySet()) {
+            if (idade != null) {
+                minima = minima == null ? idade : Math.min(minima, idade);
+                maxima = maxima == null ? idade : Math.max(maxima, idade);
+            }
+        }
+        return new PessoaEstatisticas(total, porSexo, minima, maxima,
+                comIdade == 0 ? null : (double) soma / comIdade, faixas(porFaixa, semIdade, faixa));
+    }
+
+    /**
+     * Rótulos das faixas ("0-9", ...) em ordem, com as idades não informadas
+     * ao final.
+     */
+    static Map<String, Long> faixas(TreeMap<Integer, Long> porFaixa, long semIdade, int faixa) {
+        Map<String, Long> faixas = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Long> entrada : porFaixa.entrySet()) {
+            int inicio = entrada.getKey() * faixa;
+            faixas.put(inicio + "-" + (inicio + faixa - 1), entrada.getValue());
+        }
+        if (semIdade > 0) {
+            faixas.put(PessoaEstatisticas.INDEFINIDO, semIdade);
+        }
+        return faixas;
+    }
+
+    private static final class Escrita {
+
+        private final EntityChange change;
+        /** Versão confirmada pela transação da escrita */
+        private final Long versao;
+
+        Escrita(EntityChange change, Long versao) {
+            this.change = change;
+            this.versao = versao;
+        }
+    }
+
+}
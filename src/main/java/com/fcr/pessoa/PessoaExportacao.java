@@ -0,0 +1,44 @@
+package com.fcr.pessoa;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.Future;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.Data;
+
+/**
+ * Situação de uma exportação de pessoas para arquivo. Os campos são
+ * atualizados pela thread da exportação enquanto ela executa.
+ */
+@Data
+public class PessoaExportacao {
+
+    public enum Status {
+        PENDENTE, EXECUTANDO, CONCLUIDA, FALHOU
+    }
+
+    private final String id;
+
+    private final String formato;
+
+    private final Instant criadaEm;
+
+    private volatile Status status = Status.PENDENTE;
+
+    private volatile long linhas;
+
+    private volatile long bytes;
+
+    private volatile Instant concluidaEm;
+
+    private volatile String erro;
+
+    @JsonIgnore
+    private volatile Path arquivo;
+
+    @JsonIgnore
+    private volatile Future<?> execucao;
+
+}
@@ -0,0 +1,293 @@
+package com.fcr.pessoa;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.control.ActivateRequestContext;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.transaction.Transactional;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.quarkus.narayana.jta.runtime.TransactionConfiguration;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+
+/**
+ * Exportações de pessoas para arquivo, executadas em segundo plano por um
+ * pool limitado ({@code pessoa.export.threads}, com até
+ * {@code pessoa.export.fila} exportações aguardando).
+ *
+ * As linhas vêm do banco por cursor e são escritas em um {@link FileChannel}
+ * através de um buffer fixo, então a memória não depende do tamanho da
+ * tabela. O arquivo é gravado como {@code .part} e renomeado ao final, e
+ * removido junto com a exportação após {@code pessoa.export.retencao-min}.
+ *
+ * A limpeza roda a cada {@code pessoa.export.limpeza-ms}. Exportações que não
+ * terminam em {@code pessoa.export.timeout-min} (presas na fila ou em
+ * execução) são canceladas e ficam como {@code FALHOU} pela mesma retenção.
+ * As exportações vivem só em memória, então na inicialização os arquivos que
+ * sobraram no diretório ({@code .csv} e {@code .part}) são apagados; o
+ * diretório não deve ser compartilhado entre instâncias.
+ */
+@ApplicationScoped
+public class PessoaExportacoes {
+
+    static final String CSV = "csv";
+
+    private static final int BUFFER = 64 * 1024;
+
+    @Inject
+    Logger logger;
+
+    @Inject
+    PessoaDao pessoaDao;
+
+    @ConfigProperty(name = "pessoa.export.diretorio")
+    Optional<String> diretorioConfigurado;
+
+    @ConfigProperty(name = "pessoa.export.threads", defaultValue = "2")
+    int threads;
+
+    @ConfigProperty(name = "pessoa.export.fila", defaultValue = "10")
+    int fila;
+
+    @ConfigProperty(name = "pessoa.export.retencao-min", defaultValue = "60")
+    long retencao;
+
+    @ConfigProperty(name = "pessoa.export.timeout-min", defaultValue = "60")
+    long timeout;
+
+    @ConfigProperty(name = "pessoa.export.limpeza-ms", defaultValue = "60000")
+    long intervaloLimpeza;
+
+    @ConfigProperty(name = "pessoa.stream.fetch-size", defaultValue = "500")
+    int fetchSize;
+
+    private final Map<String, PessoaExportacao> exportacoes = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor executor;
+    private ScheduledExecutorService limpeza;
+    private Path diretorio;
+
+    @PostConstruct
+    void iniciar() {
+        diretorio = Path.of(diretorioConfigurado.orElse(System.getProperty("java.io.tmpdir") + "/pessoa-exports"));
+        AtomicInteger contador = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(fila),
+                r -> {
+                    Thread thread = new Thread(r, "pessoa-export-" + contador.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        varrer();
+        limpeza = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "pessoa-export-limpeza");
+            thread.setDaemon(true);
+            return thread;
+        });
+        limpeza.scheduleWithFixedDelay(this::removerExpiradas, intervaloLimpeza, intervaloLimpeza,
+                TimeUnit.MILLISECONDS);
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        if (limpeza != null) {
+            limpeza.shutdownNow();
+        }
+        executor.shutdownNow();
+    }
+
+    /**
+     * Agenda uma exportação no formato informado.
+     *
+     * @param formato Formato do arquivo ({@value #CSV})
+     * @return Exportação pendente
+     * @throws RejectedExecutionException se a fila de exportações estiver cheia
+     */
+    public PessoaExportacao criar(String formato) {
+        PessoaExportacao exportacao = new PessoaExportacao(UUID.randomUUID().toString(), formato, Instant.now());
+        exportacoes.put(exportacao.getId(), exportacao);
+        try {
+            exportacao.setExecucao(executor.submit(() -> executar(exportacao)));
+        } catch (RejectedExecutionException e) {
+            exportacoes.remove(exportacao.getId());
+            throw e;
+        }
+        return exportacao;
+    }
+
+    /**
+     * Exportação pelo id, ou nulo se não existir ou já tiver expirado.
+     */
+    public PessoaExportacao obter(String id) {
+        return exportacoes.get(id);
+    }
+
+    @ActivateRequestContext
+    @Transactional
+    @TransactionConfiguration(timeout = 3600)
+    void executar(PessoaExportacao exportacao) {
+        exportacao.setStatus(PessoaExportacao.Status.EXECUTANDO);
+        Path parcial = diretorio.resolve(exportacao.getId() + "." + exportacao.getFormato() + ".part");
+        try {
+            Files.createDirectories(diretorio);
+            try (FileChannel channel = FileChannel.open(parcial, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                    Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), BUFFER);
+                    Stream<Object[]> linhas = pessoaDao.obterCamposStream(fetchSize)) {
+                escreverCsv(writer, linhas.iterator(), exportacao);
+                writer.flush();
+                channel.force(false);
+                exportacao.setBytes(channel.size());
+            }
+            Path arquivo = diretorio.resolve(exportacao.getId() + "." + exportacao.getFormato());
+            Files.move(parcial, arquivo, StandardCopyOption.ATOMIC_MOVE);
+            exportacao.setArquivo(arquivo);
+            exportacao.setStatus(PessoaExportacao.Status.CONCLUIDA);
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Falha na exportação de pessoas " + exportacao.getId(), e);
+            exportacao.setErro(e.getMessage());
+            exportacao.setStatus(PessoaExportacao.Status.FALHOU);
+            apagar(parcial);
+        } finally {
+            exportacao.setConcluidaEm(Instant.now());
+        }
+    }
+
+    private static void escreverCsv(Writer writer, Iterator<Object[]> linhas, PessoaExportacao exportacao)
+            throws IOException {
+        writer.write(String.join(",", PessoaDao.CAMPOS));
+        writer.write('\n');
+        long quantidade = 0;
+        while (linhas.hasNext()) {
+            Object[] linha = linhas.next();
+            for (int i = 0; i < linha.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                escreverValorCsv(writer, linha[i]);
+            }
+            writer.write('\n');
+            if (++quantidade % 10_000 == 0) {
+                exportacao.setLinhas(quantidade);
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedIOException("Exportação cancelada");
+                }
+            }
+        }
+        exportacao.setLinhas(quantidade);
+    }
+
+    private static void escreverValorCsv(Writer writer, Object valor) throws IOException {
+        if (valor == null) {
+            return;
+        }
+        String texto = valor.toString();
+        if (texto.indexOf(',') < 0 && texto.indexOf('"') < 0 && texto.indexOf('\n') < 0 && texto.indexOf('\r') < 0) {
+            writer.write(texto);
+            return;
+        }
+        writer.write('"');
+        writer.write(texto.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    /**
+     * Cancela as exportações que passaram de {@code pessoa.export.timeout-min}
+     * sem terminar e remove, com o arquivo, as terminadas há mais de
+     * {@code pessoa.export.retencao-min}.
+     */
+    void removerExpiradas() {
+        try {
+            Instant agora = Instant.now();
+            Instant limite = agora.minus(Duration.ofMinutes(retencao));
+            Instant limiteExecucao = agora.minus(Duration.ofMinutes(timeout));
+            for (Iterator<PessoaExportacao> iterator = exportacoes.values().iterator(); iterator.hasNext();) {
+                PessoaExportacao exportacao = iterator.next();
+                Instant concluidaEm = exportacao.getConcluidaEm();
+                if (concluidaEm == null) {
+                    if (exportacao.getCriadaEm().isBefore(limiteExecucao)) {
+                        expirar(exportacao, agora);
+                    }
+                } else if (concluidaEm.isBefore(limite)) {
+                    iterator.remove();
+                    if (exportacao.getArquivo() != null) {
+                        apagar(exportacao.getArquivo());
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Falha na limpeza das exportações de pessoas", e);
+        }
+    }
+
+    private void expirar(PessoaExportacao exportacao, Instant agora) {
+        logger.log(Level.WARNING, "Exportação de pessoas " + exportacao.getId() + " cancelada em "
+                + exportacao.getStatus() + " após " + timeout + " min");
+        Future<?> execucao = exportacao.getExecucao();
+        if (execucao != null) {
+            execucao.cancel(true);
+        }
+        exportacao.setErro("Exportação não terminou em " + timeout + " min");
+        exportacao.setStatus(PessoaExportacao.Status.FALHOU);
+        exportacao.setConcluidaEm(agora);
+    }
+
+    /**
+     * Apaga os arquivos de exportação do diretório, que após uma
+     * reinicialização não pertencem a nenhuma exportação conhecida.
+     */
+    void varrer() {
+        if (!Files.isDirectory(diretorio)) {
+            return;
+        }
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            arquivos.filter(arquivo -> {
+                String nome = arquivo.getFileName().toString();
+                return nome.endsWith("." + CSV) || nome.endsWith(".part");
+            }).forEach(this::apagar);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Não foi possível varrer " + diretorio, e);
+        }
+    }
+
+    private void apagar(Path arquivo) {
+        try {
+            Files.deleteIfExists(arquivo);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Não foi possível apagar " + arquivo, e);
+        }
+    }
+
+}
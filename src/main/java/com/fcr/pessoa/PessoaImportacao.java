@@ -0,0 +1,51 @@
+package com.fcr.pessoa;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Resumo da importação de um CSV de pessoas. Os erros são limitados a
+ * {@code pessoa.import.max-erros}; os demais só entram em
+ * {@code errosOmitidos}.
+ */
+@Data
+public class PessoaImportacao {
+
+    private long linhas;
+
+    private long importadas;
+
+    private long rejeitadas;
+
+    private int lotes;
+
+    private int lotesRejeitados;
+
+    private long duracaoMs;
+
+    private long linhasPorSegundo;
+
+    private List<Erro> erros = new ArrayList<>();
+
+    private long errosOmitidos;
+
+    /**
+     * Linha rejeitada na validação, ou lote inteiro rejeitado pelo banco
+     * (nesse caso {@code linha} é a primeira do lote).
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Erro {
+
+        private int lote;
+
+        private long linha;
+
+        private String mensagem;
+
+    }
+
+}
@@ -0,0 +1,217 @@
+package com.fcr.pessoa;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.validation.ConstraintViolationException;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fcr.dao.ReadSession;
+import com.fcr.utils.ConstraintViolationExceptionMapper;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ManagedContext;
+import io.quarkus.runtime.configuration.MemorySize;
+import io.vertx.core.http.Cookie;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.mutiny.core.buffer.Buffer;
+
+/**
+ * Importa um CSV de pessoas (cabeçalho com nome e, opcionalmente, id, idade e
+ * sexo) pelo {@link PessoaRn}, respondendo com as linhas importadas e
+ * rejeitadas, a taxa em linhas/s e os erros por linha e por lote.
+ *
+ * {@code POST /pessoa/import} é servido direto sobre o Vert.x, antes da rota do
+ * Quarkus que aplica {@code quarkus.http.limits.max-body-size} a todas as
+ * requisições. O limite global continua no padrão; só o CSV da importação
+ * pode chegar a {@code pessoa.import.max-body-size}.
+ *
+ * O corpo é lido sob demanda pela thread da importação, com backpressure: o
+ * Vert.x só entrega o próximo trecho quando o anterior foi consumido, então
+ * o arquivo nunca fica inteiro em memória.
+ *
+ * Por estar fora do JAX-RS, a rota faz o que os providers fariam: os erros
+ * saem em JSON como nos exception mappers, e o cookie da
+ * {@link ReadSession} é lido e, se a importação gravou, devolvido.
+ */
+@ApplicationScoped
+public class PessoaImportacaoRota {
+
+    static final String PATH = "/pessoa/import";
+
+    private static final MediaType CSV = MediaType.valueOf("text/csv");
+
+    /**
+     * Antes do limite de corpo do Quarkus, registrado com ordem -2.
+     */
+    private static final int ORDEM = -3;
+
+    @Inject
+    Logger logger;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    PessoaRn pessoaRn;
+
+    @ConfigProperty(name = "pessoa.import.max-body-size", defaultValue = "2048M")
+    MemorySize tamanhoMaximo;
+
+    @ConfigProperty(name = "dao.read.sticky-ms", defaultValue = "2000")
+    long stickyMs;
+
+    void registrar(@Observes Router router) {
+        router.post(PATH).order(ORDEM).handler(this::importar);
+    }
+
+    private void importar(RoutingContext contexto) {
+        HttpServerRequest request = contexto.request();
+        String tipo = request.getHeader(HttpHeaders.CONTENT_TYPE);
+        if (tipo == null || !CSV.isCompatible(MediaType.valueOf(tipo))) {
+            responder(contexto, Status.UNSUPPORTED_MEDIA_TYPE.getStatusCode(), erro("O corpo deve ser " + CSV));
+            return;
+        }
+        long limite = tamanhoMaximo.asLongValue();
+        String tamanho = request.getHeader(HttpHeaders.CONTENT_LENGTH);
+        if (tamanho != null && Long.parseLong(tamanho) > limite) {
+            responder(contexto, Status.REQUEST_ENTITY_TOO_LARGE.getStatusCode(), erro(excedido(limite)));
+            return;
+        }
+        boolean upsert = Boolean.parseBoolean(request.getParam("upsert"));
+        Cookie cookie = request.getCookie(ReadSession.COOKIE);
+        request.pause();
+        Iterable<Buffer> corpo = io.vertx.mutiny.core.http.HttpServerRequest.newInstance(request).toMulti()
+                .subscribe().asIterable();
+        // momento da escrita da importação, para o cookie da ReadSession
+        long[] escrita = new long[1];
+        contexto.vertx().<PessoaImportacao>executeBlocking(promessa -> {
+            ManagedContext requestContext = Arc.container().requestContext();
+            requestContext.activate();
+            try (InputStream csv = new SequenceInputStream(new Trechos(corpo.iterator(), limite))) {
+                ReadSession session = Arc.container().instance(ReadSession.class).get();
+                if (cookie != null) {
+                    receber(session, cookie.getValue());
+                }
+                try {
+                    promessa.complete(pessoaRn.importar(csv, upsert));
+                } finally {
+                    if (session.isWritten()) {
+                        escrita[0] = session.getLastWrite();
+                    }
+                }
+            } catch (Exception e) {
+                promessa.fail(e);
+            } finally {
+                requestContext.terminate();
+            }
+        }, false, resultado -> {
+            if (escrita[0] > 0) {
+                // a rota não passa pelo ReadSessionFilter do JAX-RS
+                contexto.response().addCookie(Cookie.cookie(ReadSession.COOKIE, Long.toString(escrita[0]))
+                        .setPath("/").setMaxAge(ReadSession.maxAge(stickyMs)).setHttpOnly(true));
+            }
+            if (resultado.succeeded()) {
+                responder(contexto, Status.OK.getStatusCode(), resultado.result());
+            } else if (resultado.cause() instanceof ConstraintViolationException) {
+                Response resposta = new ConstraintViolationExceptionMapper()
+                        .toResponse((ConstraintViolationException) resultado.cause());
+                responder(contexto, resposta.getStatus(), resposta.getEntity());
+            } else if (resultado.cause() instanceof WebApplicationException) {
+                responder(contexto, ((WebApplicationException) resultado.cause()).getResponse().getStatus(),
+                        erro(resultado.cause().getMessage()));
+            } else {
+                logger.log(Level.SEVERE, "Falha na importação de pessoas", resultado.cause());
+                responder(contexto, Status.INTERNAL_SERVER_ERROR.getStatusCode(),
+                        erro("Falha na importação de pessoas"));
+            }
+        });
+    }
+
+    /**
+     * Responde em JSON. Fora do 200, o restante do corpo pode não ter sido
+     * lido, então a conexão é fechada.
+     */
+    private void responder(RoutingContext contexto, int status, Object corpo) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(corpo);
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Falha ao serializar a resposta da importação", e);
+            contexto.response().setStatusCode(Status.INTERNAL_SERVER_ERROR.getStatusCode())
+                    .putHeader(HttpHeaders.CONNECTION, "close").end();
+            return;
+        }
+        contexto.response().setStatusCode(status).putHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON);
+        if (status != Status.OK.getStatusCode()) {
+            contexto.response().putHeader(HttpHeaders.CONNECTION, "close");
+        }
+        contexto.response().end(json);
+    }
+
+    private static Map<String, String> erro(String mensagem) {
+        return Map.of("mensagem", mensagem);
+    }
+
+    private static String excedido(long limite) {
+        return "O corpo passa do limite de " + limite + " bytes";
+    }
+
+    private static void receber(ReadSession session, String valor) {
+        try {
+            session.received(Long.parseLong(valor));
+        } catch (NumberFormatException e) {
+            // cookie inválido: leituras seguem o rodízio
+        }
+    }
+
+    /**
+     * Trechos do corpo como streams, contando os bytes para recusar com 413 o
+     * corpo sem Content-Length que passar do limite.
+     */
+    private static final class Trechos implements Enumeration<InputStream> {
+
+        private final Iterator<Buffer> buffers;
+        private final long limite;
+        private long lidos;
+
+        Trechos(Iterator<Buffer> buffers, long limite) {
+            this.buffers = buffers;
+            this.limite = limite;
+        }
+
+        @Override
+        public boolean hasMoreElements() {
+            return buffers.hasNext();
+        }
+
+        @Override
+        public InputStream nextElement() {
+            byte[] bytes = buffers.next().getBytes();
+            lidos += bytes.length;
+            if (lidos > limite) {
+                throw new WebApplicationException(excedido(limite), Status.REQUEST_ENTITY_TOO_LARGE);
+            }
+            return new ByteArrayInputStream(bytes);
+        }
+    }
+
+}
@@ -0,0 +1,227 @@
+package com.fcr.pessoa;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+import javax.transaction.Status;
+import javax.transaction.UserTransaction;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import javax.ws.rs.BadRequestException;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Importa pessoas de um CSV lido registro a registro. Cada linha é
+ * convertida e validada pelas constraints de {@link PessoaEntity}; as válidas
+ * são gravadas em lotes de {@code pessoa.import.lote}, cada lote na sua
+ * transação. Uma linha inválida é rejeitada sozinha; um lote que falha no
+ * banco é rejeitado inteiro e os demais seguem.
+ *
+ * Só o lote corrente fica em memória, então o consumo não depende do tamanho
+ * do arquivo.
+ */
+@RequestScoped
+public class PessoaImportador {
+
+    private static final int ID = PessoaDao.CAMPOS.indexOf("id");
+    private static final int NOME = PessoaDao.CAMPOS.indexOf("nome");
+    private static final int IDADE = PessoaDao.CAMPOS.indexOf("idade");
+    private static final int SEXO = PessoaDao.CAMPOS.indexOf("sexo");
+
+    @Inject
+    PessoaDao pessoaDao;
+
+    @Inject
+    Validator validator;
+
+    @Inject
+    UserTransaction tx;
+
+    @Inject
+    Logger logger;
+
+    @ConfigProperty(name = "pessoa.import.lote", defaultValue = "1000")
+    int tamanhoLote;
+
+    @ConfigProperty(name = "pessoa.import.max-erros", defaultValue = "1000")
+    int maxErros;
+
+    /**
+     * Importa o CSV. O cabeçalho deve ter {@code nome} e pode ter {@code id},
+     * {@code idade} e {@code sexo}, em qualquer ordem; com {@code upsert}, o
+     * id é obrigatório e as pessoas existentes são atualizadas. Sem upsert, o
+     * id informado é mantido e o ausente vem da sequence.
+     *
+     * @param reader Conteúdo do CSV
+     * @param upsert Atualiza pela pk em vez de inserir
+     * @return
+     * @throws Exception
+     */
+    PessoaImportacao importar(Reader reader, boolean upsert) throws Exception {
+        long inicio = System.nanoTime();
+        PessoaCsvLeitor leitor = new PessoaCsvLeitor(reader);
+        int[] colunas = lerCabecalho(leitor.ler(), upsert);
+        PessoaImportacao resultado = new PessoaImportacao();
+        List<PessoaEntity> lote = new ArrayList<>(tamanhoLote);
+        long primeiraLinha = 0;
+        while (true) {
+            String[] registro;
+            try {
+                registro = leitor.ler();
+            } catch (IllegalStateException e) {
+                resultado.setLinhas(resultado.getLinhas() + 1);
+                resultado.setRejeitadas(resultado.getRejeitadas() + 1);
+                erro(resultado, resultado.getLotes() + 1, leitor.getLinhaRegistro(), e.getMessage());
+                break;
+            }
+            if (registro == null) {
+                break;
+            }
+            if (registro.length == 1 && registro[0].isEmpty()) {
+                continue;
+            }
+            resultado.setLinhas(resultado.getLinhas() + 1);
+            List<String> problemas = new ArrayList<>();
+            PessoaEntity pessoa = converter(registro, colunas, upsert, problemas);
+            if (!problemas.isEmpty()) {
+                resultado.setRejeitadas(resultado.getRejeitadas() + 1);
+                erro(resultado, resultado.getLotes() + 1, leitor.getLinhaRegistro(), String.join("; ", problemas));
+                continue;
+            }
+            if (lote.isEmpty()) {
+                primeiraLinha = leitor.getLinhaRegistro();
+            }
+            lote.add(pessoa);
+            if (lote.size() == tamanhoLote) {
+                gravar(lote, upsert, resultado, primeiraLinha);
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            gravar(lote, upsert, resultado, primeiraLinha);
+        }
+        long duracao = Math.max(1, System.nanoTime() - inicio);
+        resultado.setDuracaoMs(duracao / 1_000_000);
+        resultado.setLinhasPorSegundo(resultado.getImportadas() * 1_000_000_000L / duracao);
+        return resultado;
+    }
+
+    private int[] lerCabecalho(String[] cabecalho, boolean upsert) {
+        if (cabecalho == null) {
+            throw new BadRequestException("CSV vazio");
+        }
+        int[] colunas = new int[cabecalho.length];
+        for (int i = 0; i < cabecalho.length; i++) {
+            String nome = cabecalho[i].replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+            colunas[i] = PessoaDao.CAMPOS.indexOf(nome);
+            if (colunas[i] < 0) {
+                throw new BadRequestException("Coluna inválida: " + nome);
+            }
+            for (int j = 0; j < i; j++) {
+                if (colunas[j] == colunas[i]) {
+                    throw new BadRequestException("Coluna repetida: " + nome);
+                }
+            }
+        }
+        if (Arrays.stream(colunas).noneMatch(coluna -> coluna == NOME)) {
+            throw new BadRequestException("O cabeçalho deve ter a coluna nome");
+        }
+        if (upsert && Arrays.stream(colunas).noneMatch(coluna -> coluna == ID)) {
+            throw new BadRequestException("Upsert exige a coluna id");
+        }
+        return colunas;
+    }
+
+    private PessoaEntity converter(String[] registro, int[] colunas, boolean upsert, List<String> problemas) {
+        if (registro.length != colunas.length) {
+            problemas.add("Esperadas " + colunas.length + " colunas, encontradas " + registro.length);
+            return null;
+        }
+        PessoaEntity pessoa = new PessoaEntity();
+        for (int i = 0; i < colunas.length; i++) {
+            String valor = registro[i].trim();
+            if (valor.isEmpty()) {
+                continue;
+            }
+            int coluna = colunas[i];
+            if (coluna == NOME) {
+                pessoa.setNome(valor);
+            } else if (coluna == ID) {
+                pessoa.setId(inteiro("id", valor, problemas));
+            } else if (coluna == IDADE) {
+                pessoa.setIdade(inteiro("idade", valor, problemas));
+            } else if (coluna == SEXO) {
+                if (valor.length() == 1) {
+                    pessoa.setSexo(valor.charAt(0));
+                } else {
+                    problemas.add("sexo: deve ter um caractere");
+                }
+            }
+        }
+        if (upsert && pessoa.getId() == null) {
+            problemas.add("id: obrigatório com upsert");
+        }
+        for (ConstraintViolation<PessoaEntity> violacao : validator.validate(pessoa)) {
+            problemas.add(violacao.getPropertyPath() + ": " + violacao.getMessage());
+        }
+        return pessoa;
+    }
+
+    private static Integer inteiro(String campo, String valor, List<String> problemas) {
+        try {
+            return Integer.valueOf(valor);
+        } catch (NumberFormatException e) {
+            problemas.add(campo + ": número inválido '" + valor + "'");
+            return null;
+        }
+    }
+
+    private void gravar(List<PessoaEntity> lote, boolean upsert, PessoaImportacao resultado, long primeiraLinha)
+            throws Exception {
+        resultado.setLotes(resultado.getLotes() + 1);
+        try {
+            tx.begin();
+            if (upsert) {
+                pessoaDao.upsertAll(lote);
+            } else {
+                pessoaDao.inserirTodas(lote);
+            }
+            tx.commit();
+            resultado.setImportadas(resultado.getImportadas() + lote.size());
+        } catch (Exception e) {
+            if (tx.getStatus() != Status.STATUS_NO_TRANSACTION) {
+                tx.rollback();
+            }
+            logger.log(Level.WARNING, "Lote " + resultado.getLotes() + " da importação de pessoas rejeitado", e);
+            resultado.setRejeitadas(resultado.getRejeitadas() + lote.size());
+            resultado.setLotesRejeitados(resultado.getLotesRejeitados() + 1);
+            erro(resultado, resultado.getLotes(), primeiraLinha,
+                    "Lote rejeitado (" + lote.size() + " linhas): " + causa(e));
+        }
+    }
+
+    private void erro(PessoaImportacao resultado, int lote, long linha, String mensagem) {
+        if (resultado.getErros().size() < maxErros) {
+            resultado.getErros().add(new PessoaImportacao.Erro(lote, linha, mensagem));
+        } else {
+            resultado.setErrosOmitidos(resultado.getErrosOmitidos() + 1);
+        }
+    }
+
+    private static String causa(Throwable e) {
+        Throwable causa = e;
+        while (causa.getCause() != null && causa.getCause() != causa) {
+            causa = causa.getCause();
+        }
+        return causa.getMessage();
+    }
+
+}
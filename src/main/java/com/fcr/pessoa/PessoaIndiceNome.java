@@ -0,0 +1,264 @@
+package com.fcr.pessoa;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.control.ActivateRequestContext;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.inject.Inject;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.fcr.dao.EntityChange;
+
+import io.quarkus.runtime.StartupEvent;
+
+/**
+ * Índice invertido de trigramas sobre {@code PessoaEntity.nome}, usado na
+ * busca por trecho do nome quando o banco não tem {@code pg_trgm} (H2/dev).
+ *
+ * É carregado na primeira busca e mantido pelas escritas confirmadas do
+ * {@link com.fcr.dao.BaseDao}; escritas por fora do DAO só aparecem após
+ * {@link #invalidar()}. A busca intersecta as listas dos trigramas do termo a
+ * partir da menor, então o custo depende da quantidade de candidatos e não do
+ * tamanho da tabela. Todo o índice fica em memória.
+ */
+@ApplicationScoped
+public class PessoaIndiceNome {
+
+    static final int TAMANHO_MINIMO = 3;
+
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+
+    private final Object carga = new Object();
+
+    /** Índice publicado; null até a primeira busca ou após {@link #invalidar()} */
+    private volatile Indice indice;
+
+    /** Escritas confirmadas durante a carga, reaplicadas antes de publicar o índice */
+    private volatile Queue<EntityChange> durante;
+
+    @ConfigProperty(name = "pessoa.busca.criar-indice", defaultValue = "false")
+    boolean criarIndice;
+
+    @Inject
+    Logger logger;
+
+    /**
+     * No Postgres a busca usa o índice GIN do {@code pg_trgm} em vez deste
+     * índice; com {@code pessoa.busca.criar-indice}, ele é criado na
+     * inicialização quando ainda não existe. Criar a extensão exige um usuário
+     * com permissão; sem ela a falha é registrada e a aplicação sobe assim
+     * mesmo, com a busca sem o índice.
+     */
+    @ActivateRequestContext
+    void onStart(@Observes StartupEvent event, PessoaRn pessoaRn) {
+        if (criarIndice) {
+            try {
+                pessoaRn.criarIndiceNome();
+            } catch (Exception e) {
+                logger.log(Level.WARNING, "Índice de trigramas do nome não criado: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    void onChange(@Observes(during = TransactionPhase.AFTER_SUCCESS) EntityChange change) {
+        if (change.getEntityClass() != PessoaEntity.class) {
+            return;
+        }
+        // a carga publica o índice antes de descartar a fila: lida a fila e
+        // depois o índice, a escrita entra em pelo menos um dos dois (reaplicar
+        // é inofensivo)
+        Queue<EntityChange> pendentes = durante;
+        if (pendentes != null) {
+            pendentes.add(change);
+        }
+        Indice atual = indice;
+        if (atual != null) {
+            atual.aplicar(change);
+        }
+    }
+
+    /**
+     * Busca as pessoas cujo nome contém o termo, sem diferenciar maiúsculas
+     * nem acentos, ordenadas pela similaridade (trigramas em comum sobre os
+     * trigramas do nome) e pelo id.
+     *
+     * @param termo      Trecho do nome, com ao menos {@value #TAMANHO_MINIMO} caracteres
+     * @param limite     Quantidade máxima de ids
+     * @param carregador Fornece (id, nome) de todas as pessoas na primeira busca
+     * @return Ids em ordem de relevância
+     */
+    public List<Integer> buscar(String termo, int limite, Supplier<List<Object[]>> carregador) {
+        Indice atual = indice;
+        if (atual == null) {
+            atual = carregar(carregador);
+        }
+        return atual.buscar(termo, limite);
+    }
+
+    /**
+     * Descarta o índice; a próxima busca recarrega do banco.
+     */
+    public void invalidar() {
+        indice = null;
+    }
+
+    /**
+     * Monta o índice com a tabela inteira sem bloquear buscas nem escritas: só
+     * as buscas que também esperam a carga aguardam. As escritas confirmadas
+     * enquanto a consulta roda são guardadas e reaplicadas sobre o resultado
+     * antes de publicá-lo.
+     */
+    private Indice carregar(Supplier<List<Object[]>> carregador) {
+        synchronized (carga) {
+            Indice atual = indice;
+            if (atual != null) {
+                return atual;
+            }
+            Queue<EntityChange> pendentes = new ConcurrentLinkedQueue<>();
+            durante = pendentes;
+            try {
+                Indice novo = new Indice();
+                for (Object[] linha : carregador.get()) {
+                    novo.atualizar((Integer) linha[0], (String) linha[1]);
+                }
+                synchronized (novo) {
+                    indice = novo;
+                    EntityChange change;
+                    while ((change = pendentes.poll()) != null) {
+                        novo.aplicar(change);
+                    }
+                }
+                return novo;
+            } finally {
+                durante = null;
+            }
+        }
+    }
+
+    static String normalizar(String texto) {
+        String semAcento = ACENTOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return semAcento.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> trigramas(String texto) {
+        Set<String> resultado = new HashSet<>();
+        for (int i = 0; i + TAMANHO_MINIMO <= texto.length(); i++) {
+            resultado.add(texto.substring(i, i + TAMANHO_MINIMO));
+        }
+        return resultado;
+    }
+
+    /**
+     * Trigramas e nomes; buscas e escritas sincronizam no próprio índice, e só
+     * pelo tempo da operação em memória.
+     */
+    private static final class Indice {
+
+        private final Map<String, Set<Integer>> trigramas = new HashMap<>();
+        private final Map<Integer, String> nomes = new HashMap<>();
+
+        synchronized void aplicar(EntityChange change) {
+            PessoaEntity pessoa = (PessoaEntity) change.getEntity();
+            if (change.getType() == EntityChange.Type.REMOVE) {
+                remover(pessoa.getId());
+            } else {
+                atualizar(pessoa.getId(), pessoa.getNome());
+            }
+        }
+
+        synchronized List<Integer> buscar(String termo, int limite) {
+            String normalizado = normalizar(termo);
+            Set<String> doTermo = trigramas(normalizado);
+            List<Set<Integer>> listas = new ArrayList<>(doTermo.size());
+            for (String trigrama : doTermo) {
+                Set<Integer> ids = trigramas.get(trigrama);
+                if (ids == null) {
+                    return Collections.emptyList();
+                }
+                listas.add(ids);
+            }
+            listas.sort(Comparator.comparingInt(Set::size));
+
+            Comparator<Resultado> relevancia = Comparator.comparingDouble((Resultado r) -> r.similaridade)
+                    .thenComparing(r -> -r.id);
+            PriorityQueue<Resultado> melhores = new PriorityQueue<>(relevancia);
+            candidatos:
+            for (Integer id : listas.get(0)) {
+                for (int i = 1; i < listas.size(); i++) {
+                    if (!listas.get(i).contains(id)) {
+                        continue candidatos;
+                    }
+                }
+                String nome = normalizar(nomes.get(id));
+                if (!nome.contains(normalizado)) {
+                    continue;
+                }
+                melhores.add(new Resultado(id, (double) doTermo.size() / trigramas(nome).size()));
+                if (melhores.size() > limite) {
+                    melhores.poll();
+                }
+            }
+            List<Integer> ids = new ArrayList<>(melhores.size());
+            while (!melhores.isEmpty()) {
+                ids.add(melhores.poll().id);
+            }
+            Collections.reverse(ids);
+            return ids;
+        }
+
+        synchronized void atualizar(Integer id, String nome) {
+            remover(id);
+            if (id == null || nome == null) {
+                return;
+            }
+            nomes.put(id, nome);
+            for (String trigrama : trigramas(normalizar(nome))) {
+                trigramas.computeIfAbsent(trigrama, t -> new HashSet<>()).add(id);
+            }
+        }
+
+        private void remover(Integer id) {
+            String anterior = nomes.remove(id);
+            if (anterior == null) {
+                return;
+            }
+            for (String trigrama : trigramas(normalizar(anterior))) {
+                Set<Integer> ids = trigramas.get(trigrama);
+                if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                    trigramas.remove(trigrama);
+                }
+            }
+        }
+    }
+
+    private static final class Resultado {
+
+        private final int id;
+        private final double similaridade;
+
+        Resultado(int id, double similaridade) {
+            this.id = id;
+            this.similaridade = similaridade;
+        }
+    }
+
+}
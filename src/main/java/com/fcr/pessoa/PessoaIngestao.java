@@ -0,0 +1,139 @@
+package com.fcr.pessoa;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.control.ActivateRequestContext;
+import javax.inject.Inject;
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validator;
+
+import org.eclipse.microprofile.reactive.messaging.Incoming;
+import org.eclipse.microprofile.reactive.messaging.Message;
+
+import io.smallrye.reactive.messaging.annotations.Blocking;
+import io.smallrye.reactive.messaging.kafka.api.KafkaRecordBatch;
+
+/**
+ * Carga em massa de pessoas recebidas pelo canal {@value #CANAL}.
+ *
+ * O conector Kafka entrega as pessoas em lotes ({@code batch=true}), com até
+ * {@code max.poll.records} registros, e cada lote é gravado por upsert em uma
+ * única transação. As mensagens só são confirmadas depois do commit, então o
+ * offset do Kafka nunca passa de uma pessoa não gravada.
+ *
+ * Cada pessoa é validada antes da gravação, e as inválidas (sem id ou fora das
+ * restrições da entidade) são rejeitadas uma a uma. Se o lote ainda assim
+ * falhar, as pessoas são regravadas uma por transação, e só as que falharem de
+ * novo são rejeitadas. No Kafka a rejeição envia a mensagem para o tópico de
+ * dead letter do canal ({@code failure-strategy=dead-letter-queue}) e o
+ * consumo segue; o upsert torna idempotente a reentrega das confirmadas.
+ *
+ * A gravação é bloqueante e ordenada: um novo lote só é pedido ao conector
+ * quando o anterior termina. Enquanto o banco está atrasado não há demanda, e
+ * o conector pausa o consumo das partições até ela voltar.
+ */
+@ApplicationScoped
+public class PessoaIngestao {
+
+    public static final String CANAL = "pessoa-in";
+
+    @Inject
+    Logger logger;
+
+    @Inject
+    PessoaRn pessoaRn;
+
+    @Inject
+    Validator validator;
+
+    @Incoming(CANAL)
+    @Blocking
+    @ActivateRequestContext
+    public CompletionStage<Void> gravar(Message<List<PessoaEntity>> lote) {
+        List<Message<PessoaEntity>> registros = registros(lote);
+        List<Message<PessoaEntity>> validas = new ArrayList<>(registros.size());
+        List<CompletionStage<Void>> etapas = new ArrayList<>(registros.size());
+        for (Message<PessoaEntity> mensagem : registros) {
+            Exception erro = validar(mensagem.getPayload());
+            if (erro == null) {
+                validas.add(mensagem);
+            } else {
+                logger.log(Level.WARNING, "Pessoa rejeitada: " + erro.getMessage());
+                etapas.add(mensagem.nack(erro));
+            }
+        }
+        if (!validas.isEmpty()) {
+            try {
+                pessoaRn.gravarLote(pessoas(validas), true);
+                for (Message<PessoaEntity> mensagem : validas) {
+                    etapas.add(mensagem.ack());
+                }
+            } catch (Exception e) {
+                logger.log(Level.WARNING, "Falha ao gravar lote de " + validas.size()
+                        + " pessoas; gravando uma a uma", e);
+                for (Message<PessoaEntity> mensagem : validas) {
+                    etapas.add(gravarUma(mensagem));
+                }
+            }
+        }
+        return CompletableFuture.allOf(etapas.stream().map(CompletionStage::toCompletableFuture)
+                .toArray(CompletableFuture[]::new)).thenCompose(nada -> lote.ack());
+    }
+
+    private CompletionStage<Void> gravarUma(Message<PessoaEntity> mensagem) {
+        try {
+            pessoaRn.gravarLote(List.of(mensagem.getPayload()), true);
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Falha ao gravar pessoa " + mensagem.getPayload().getId(), e);
+            return mensagem.nack(e);
+        }
+        return mensagem.ack();
+    }
+
+    /**
+     * Erro que impede a gravação da pessoa, ou null se ela é válida.
+     */
+    private Exception validar(PessoaEntity pessoa) {
+        if (pessoa == null) {
+            return new IllegalArgumentException("Mensagem sem pessoa");
+        }
+        if (pessoa.getId() == null) {
+            return new IllegalArgumentException("Pessoa sem id: " + pessoa.getNome());
+        }
+        Set<ConstraintViolation<PessoaEntity>> violacoes = validator.validate(pessoa);
+        return violacoes.isEmpty() ? null : new ConstraintViolationException(violacoes);
+    }
+
+    /**
+     * Registros do lote, cada um com a sua confirmação no Kafka. Fora do
+     * Kafka, o lote é um registro só por pessoa, confirmado junto com ele.
+     */
+    @SuppressWarnings("unchecked")
+    private static List<Message<PessoaEntity>> registros(Message<List<PessoaEntity>> lote) {
+        if (lote instanceof KafkaRecordBatch) {
+            return new ArrayList<>(((KafkaRecordBatch<?, PessoaEntity>) lote).getRecords());
+        }
+        List<Message<PessoaEntity>> registros = new ArrayList<>(lote.getPayload().size());
+        for (PessoaEntity pessoa : lote.getPayload()) {
+            registros.add(Message.of(pessoa));
+        }
+        return registros;
+    }
+
+    private static List<PessoaEntity> pessoas(List<Message<PessoaEntity>> mensagens) {
+        List<PessoaEntity> pessoas = new ArrayList<>(mensagens.size());
+        for (Message<PessoaEntity> mensagem : mensagens) {
+            pessoas.add(mensagem.getPayload());
+        }
+        return pessoas;
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.fcr.pessoa;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Resumo da gravação de um lote de pessoas.
+ */
+@Data
+@AllArgsConstructor
+public class PessoaLoteResultado {
+
+    private int gravados;
+
+    private long duracaoMs;
+
+    private long linhasPorSegundo;
+
+}
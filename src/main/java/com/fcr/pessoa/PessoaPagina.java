@@ -0,0 +1,20 @@
+package com.fcr.pessoa;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Página de pessoas com o cursor para a página seguinte; {@code next} é nulo
+ * quando não há mais registros.
+ */
+@Data
+@AllArgsConstructor
+public class PessoaPagina {
+
+    private List<PessoaEntity> itens;
+
+    private String next;
+
+}
@@ -0,0 +1,47 @@
+package com.fcr.pessoa;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Lista de pessoas com apenas os campos pedidos, serializada como array de
+ * objetos JSON direto das linhas da consulta, sem entidades nem mapas
+ * intermediários.
+ */
+@Getter
+@AllArgsConstructor
+@JsonSerialize(using = PessoaProjecao.Serializer.class)
+public class PessoaProjecao {
+
+    private final List<String> campos;
+
+    private final List<Object[]> linhas;
+
+    static class Serializer extends JsonSerializer<PessoaProjecao> {
+
+        @Override
+        public void serialize(PessoaProjecao projecao, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            List<String> campos = projecao.getCampos();
+            generator.writeStartArray();
+            for (Object[] linha : projecao.getLinhas()) {
+                generator.writeStartObject();
+                for (int i = 0; i < linha.length; i++) {
+                    generator.writeFieldName(campos.get(i));
+                    provider.defaultSerializeValue(linha[i], generator);
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.fcr.pessoa;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.pgclient.PgPool;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.RowIterator;
+import io.vertx.mutiny.sqlclient.SqlConnection;
+import io.vertx.mutiny.sqlclient.Tuple;
+
+/**
+ * Acesso não bloqueante à tabela de pessoas pelo cliente reativo do Postgres,
+ * alternativo ao {@link PessoaDao}. O pool só existe quando o datasource é
+ * Postgres com {@code quarkus.datasource.reactive.url} configurada.
+ */
+@ApplicationScoped
+public class PessoaReactiveDao {
+
+    private static final String SELECT = " SELECT id, nome, idade, sexo FROM PessoaEntity ";
+
+    @Inject
+    Instance<PgPool> pool;
+
+    @ConfigProperty(name = "pessoa.stream.fetch-size", defaultValue = "500")
+    int fetchSize;
+
+    boolean isDisponivel(){
+        return pool.isResolvable();
+    }
+
+    /**
+     * Percorre todas as pessoas com um cursor do servidor, buscando
+     * {@code fetchSize} linhas por vez conforme a demanda do assinante.
+     */
+    public Multi<PessoaEntity> obterTodos(){
+        return Multi.createFrom().resourceFromUni(() -> pool.get().getConnection(),
+                conn -> conn.begin().onItem().transformToMulti(tx -> conn.prepare(SELECT)
+                        .onItem().transformToMulti(statement -> statement.createStream(fetchSize).toMulti())))
+                .withFinalizer(SqlConnection::close)
+                .onItem().transform(PessoaReactiveDao::toEntity);
+    }
+
+    public Uni<PessoaEntity> obterPorId(Integer id){
+        return pool.get().preparedQuery(SELECT + " WHERE id = $1")
+                .execute(Tuple.of(id))
+                .onItem().transform(rows -> {
+                    RowIterator<Row> iterator = rows.iterator();
+                    return iterator.hasNext() ? toEntity(iterator.next()) : null;
+                });
+    }
+
+    private static PessoaEntity toEntity(Row row){
+        PessoaEntity pessoa = new PessoaEntity();
+        pessoa.setId(row.getInteger("id"));
+        pessoa.setNome(row.getString("nome"));
+        pessoa.setIdade(row.getInteger("idade"));
+        String sexo = row.getString("sexo");
+        pessoa.setSexo(sexo == null || sexo.isEmpty() ? null : sexo.charAt(0));
+        return pessoa;
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.fcr.pessoa;
+
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Mesmas consultas do {@link PessoaResource}, executadas no event loop sobre o
+ * cliente reativo. Habilitado por {@code pessoa.reactive.enabled} para
+ * comparar vazão com o caminho bloqueante.
+ */
+@Path("/pessoa/reactive")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+@RequestScoped
+public class PessoaReactiveResource {
+
+    @Inject
+    PessoaReactiveRn pessoaReactiveRn;
+
+    @GET
+    Multi<PessoaEntity> obterTodos(){
+        return pessoaReactiveRn.obterTodos();
+    }
+
+    @GET
+    @Path("/{id}")
+    Uni<Response> obterPorId(@PathParam("id") Integer id){
+        return pessoaReactiveRn.obterPorId(id)
+                .onItem().transform(pessoa -> pessoa == null
+                        ? Response.status(Response.Status.NOT_FOUND).build()
+                        : Response.ok().entity(pessoa).build());
+    }
+    
+}
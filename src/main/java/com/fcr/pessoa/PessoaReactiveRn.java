@@ -0,0 +1,36 @@
+package com.fcr.pessoa;
+
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+import javax.ws.rs.NotFoundException;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+
+@RequestScoped
+public class PessoaReactiveRn {
+
+    @Inject
+    PessoaReactiveDao pessoaReactiveDao;
+
+    @ConfigProperty(name = "pessoa.reactive.enabled", defaultValue = "false")
+    boolean habilitado;
+
+    Multi<PessoaEntity> obterTodos(){
+        verificarHabilitado();
+        return pessoaReactiveDao.obterTodos();
+    }
+
+    Uni<PessoaEntity> obterPorId(Integer id){
+        verificarHabilitado();
+        return pessoaReactiveDao.obterPorId(id);
+    }
+
+    private void verificarHabilitado(){
+        if (!habilitado || !pessoaReactiveDao.isDisponivel()) {
+            throw new NotFoundException("Persistência reativa desabilitada");
+        }
+    }
+}
@@ -1,27 +1,239 @@
 package com.fcr.pessoa;
 
+import java.net.URI;
+import java.util.List;
+
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
+import javax.ws.rs.BadRequestException;
 import javax.ws.rs.Consumes;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.NotAcceptableException;
+import javax.ws.rs.POST;
 import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fcr.utils.BinaryMediaTypes;
+import com.fcr.utils.JacksonBinaryWriter;
 
 @Path("/pessoa")
-@Produces(MediaType.APPLICATION_JSON)
+@Produces({ MediaType.APPLICATION_JSON, BinaryMediaTypes.CBOR, BinaryMediaTypes.SMILE })
 @Consumes(MediaType.APPLICATION_JSON)
 @RequestScoped
 public class PessoaResource {
 
+    private static final MediaType[] FORMATOS = { MediaType.APPLICATION_JSON_TYPE, BinaryMediaTypes.CBOR_TYPE,
+            BinaryMediaTypes.SMILE_TYPE };
+
+    private static final MediaType[] FORMATOS_STREAM = { MediaType.APPLICATION_JSON_TYPE,
+            PessoaStreamingOutput.APPLICATION_NDJSON_TYPE, BinaryMediaTypes.CBOR_TYPE, BinaryMediaTypes.SMILE_TYPE };
+
     @Inject
     PessoaRn pessoaRn;
 
+    @Inject
+    ObjectMapper objectMapper;
+
+    /**
+     * Lista todas as pessoas. Com {@code after} ou {@code limit}, responde uma
+     * página por keyset com o cursor {@code next} da página seguinte. Com
+     * {@code fields} (ex.: "id,nome"), a lista completa traz só esses campos.
+     *
+     * A lista completa leva ETag da versão da tabela e do formato negociado
+     * pelo Accept (com {@code Vary: Accept}) e, por isso, é lida da primária,
+     * nunca de uma réplica atrasada em relação à versão; um {@code If-None-Match} com a
+     * versão atual recebe 304 sem consulta ao banco nem serialização. Em
+     * JSON, a lista é servida do {@link PessoaSnapshot} já serializado
+     * (comprimido se o Accept-Encoding aceitar gzip, com tag própria) quando
+     * ele está na versão atual.
+     */
     @GET
-    Response obterTodos(){
+    Response obterTodos(@QueryParam("after") String after, @QueryParam("limit") Integer limit,
+            @QueryParam("ordem") @DefaultValue(PessoaCursor.ORDEM_ID) String ordem,
+            @QueryParam("fields") String fields, @Context Request request, @Context HttpHeaders headers) throws Exception {
+        if (after != null || limit != null) {
+            if (fields != null) {
+                throw new BadRequestException("fields não se aplica à paginação");
+            }
+            return Response.ok().entity(pessoaRn.obterPagina(after, limit, ordem)).build();
+        }
+        List<String> campos = fields == null ? null : pessoaRn.lerCampos(fields);
+        MediaType tipo = BinaryMediaTypes.negociar(headers.getAcceptableMediaTypes(), FORMATOS);
+        if (tipo == null) {
+            throw new NotAcceptableException();
+        }
+        long numeroVersao = pessoaRn.obterVersao();
+        StringBuilder versao = new StringBuilder(pessoaRn.obterTag(numeroVersao));
+        if (campos != null) {
+            versao.append('-').append(String.join(".", campos));
+        }
+        versao.append('-').append(tipo.getSubtype());
+        boolean lista = campos == null && !BinaryMediaTypes.isBinary(tipo);
+        PessoaSnapshot.Conteudo snapshot = lista ? pessoaRn.obterSnapshot(numeroVersao) : null;
+        boolean gzip = snapshot != null && aceitaGzip(headers.getHeaderString(HttpHeaders.ACCEPT_ENCODING));
+        if (gzip) {
+            // o corpo comprimido é outra representação: não compartilha a tag do JSON puro
+            versao.append("-gzip");
+        }
+        EntityTag tag = new EntityTag(versao.toString());
+        String vary = lista ? HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING : HttpHeaders.ACCEPT;
+        ResponseBuilder naoModificado = request.evaluatePreconditions(tag);
+        if (naoModificado != null) {
+            return naoModificado.header(HttpHeaders.VARY, vary)
+                    .lastModified(pessoaRn.obterUltimaAlteracao())
+                    .build();
+        }
+        if (snapshot != null) {
+            ResponseBuilder resposta = Response.ok(gzip ? snapshot.getGzip() : snapshot.getJson(), tipo);
+            if (gzip) {
+                resposta.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            return resposta.header(HttpHeaders.VARY, vary)
+                    .tag(tag)
+                    .lastModified(pessoaRn.obterUltimaAlteracao())
+                    .build();
+        }
+        Object entidade = campos == null ? pessoaRn.obterTodos() : pessoaRn.obterCampos(campos);
+        return Response.ok(entidade, tipo)
+                .header(HttpHeaders.VARY, vary)
+                .tag(tag)
+                .lastModified(pessoaRn.obterUltimaAlteracao())
+                .build();
+    }
+
+    /**
+     * Indica se o Accept-Encoding aceita gzip com qualidade maior que zero,
+     * pela entrada gzip (ou x-gzip) ou, na falta dela, por "*".
+     */
+    static boolean aceitaGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double qualquer = null;
+        for (String entrada : acceptEncoding.split(",")) {
+            String[] partes = entrada.split(";");
+            String codificacao = partes[0].trim().toLowerCase();
+            String q = null;
+            for (int i = 1; i < partes.length; i++) {
+                String[] parametro = partes[i].split("=", 2);
+                if (parametro.length == 2 && "q".equalsIgnoreCase(parametro[0].trim())) {
+                    q = parametro[1];
+                }
+            }
+            if ("gzip".equals(codificacao) || "x-gzip".equals(codificacao)) {
+                gzip = BinaryMediaTypes.lerQualidade(q);
+            } else if ("*".equals(codificacao)) {
+                qualquer = BinaryMediaTypes.lerQualidade(q);
+            }
+        }
+        Double qualidade = gzip != null ? gzip : qualquer;
+        return qualidade != null && qualidade > 0;
+    }
+
+    /**
+     * Total de pessoas, quantidade por sexo e por faixa de idade, idade
+     * mínima, máxima e média.
+     */
+    @GET
+    @Path("/stats")
+    Response obterEstatisticas() throws Exception {
+        return Response.ok().entity(pessoaRn.obterEstatisticas()).build();
+    }
+
+    /**
+     * Busca as pessoas cujo nome contém {@code nome} (ao menos 3 caracteres,
+     * sem diferenciar maiúsculas), da mais para a menos relevante, por índice
+     * de trigramas em vez de {@code LIKE '%...%'} sobre a tabela.
+     */
+    @GET
+    @Path("/search")
+    Response buscarPorNome(@QueryParam("nome") String nome, @QueryParam("limit") Integer limit) throws Exception {
+        return Response.ok().entity(pessoaRn.buscarPorNome(nome, limit)).build();
+    }
 
-        return Response.ok().entity(pessoaRn.obterTodos()).build();
+    /**
+     * Grava um lote de pessoas com batch JDBC; com {@code upsert=true}
+     * atualiza as já existentes pela pk.
+     */
+    @POST
+    @Path("/batch")
+    Response gravarLote(List<PessoaEntity> pessoas, @QueryParam("upsert") boolean upsert) throws Exception {
+        return Response.ok().entity(pessoaRn.gravarLote(pessoas, upsert)).build();
+    }
+
+    /**
+     * Agenda a exportação de todas as pessoas para arquivo ({@code csv}) e
+     * responde 202 com o id; a situação fica em {@code /exports/{id}} e o
+     * arquivo, ao concluir, em {@code /exports/{id}/download}.
+     */
+    @POST
+    @Path("/exports")
+    Response criarExportacao(@QueryParam("formato") @DefaultValue(PessoaExportacoes.CSV) String formato){
+        PessoaExportacao exportacao = pessoaRn.criarExportacao(formato);
+        return Response.accepted(exportacao)
+                .location(URI.create("/pessoa/exports/" + exportacao.getId()))
+                .build();
+    }
+
+    @GET
+    @Path("/exports/{id}")
+    Response obterExportacao(@PathParam("id") String id){
+        return Response.ok().entity(pessoaRn.obterExportacao(id)).build();
+    }
+
+    /**
+     * Arquivo da exportação concluída, enviado direto do disco para o socket
+     * (sendfile), sem passar pela heap.
+     */
+    @GET
+    @Path("/exports/{id}/download")
+    @Produces("text/csv")
+    Response baixarExportacao(@PathParam("id") String id){
+        return Response.ok(pessoaRn.obterArquivoExportacao(id))
+                .header("Content-Disposition", "attachment; filename=\"pessoas-" + id + ".csv\"")
+                .build();
+    }
+
+    /**
+     * Contadores do cache de segundo nível de pessoas e do cache de consultas.
+     */
+    @GET
+    @Path("/cache")
+    Response obterEstatisticasCache(){
+        return Response.ok().entity(pessoaRn.obterEstatisticasCache()).build();
+    }
+
+    /**
+     * Lista todas as pessoas em streaming, como array JSON, NDJSON, CBOR ou
+     * Smile conforme o Accept (com seus q-values), com memória constante
+     * independente do tamanho da tabela. NDJSON é sempre JSON.
+     */
+    @GET
+    @Path("/stream")
+    @Produces({ MediaType.APPLICATION_JSON, PessoaStreamingOutput.APPLICATION_NDJSON, BinaryMediaTypes.CBOR,
+            BinaryMediaTypes.SMILE })
+    Response obterTodosStream(@Context HttpHeaders headers){
+        MediaType tipo = BinaryMediaTypes.negociar(headers.getAcceptableMediaTypes(), FORMATOS_STREAM);
+        if (tipo == null) {
+            throw new NotAcceptableException();
+        }
+        boolean ndjson = PessoaStreamingOutput.APPLICATION_NDJSON_TYPE.isCompatible(tipo);
+        ObjectMapper mapper = JacksonBinaryWriter.getMapper(tipo, objectMapper);
+        return Response.ok(new PessoaStreamingOutput(pessoaRn, mapper, ndjson), tipo)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .build();
     }
     
 }
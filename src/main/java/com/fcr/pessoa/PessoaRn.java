@@ -1,17 +1,315 @@
 package com.fcr.pessoa;
 
+import java.io.File;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
+import javax.transaction.Transactional;
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validator;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.ClientErrorException;
+import javax.ws.rs.NotFoundException;
+import javax.ws.rs.ServiceUnavailableException;
+import javax.ws.rs.core.Response;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.fcr.dao.CacheStatistics;
+import com.fcr.dao.EntityVersions;
+
+import io.quarkus.narayana.jta.runtime.TransactionConfiguration;
 
 @RequestScoped
 public class PessoaRn {
 
     @Inject
     PessoaDao pessoaDao;
+
+    @Inject
+    EntityVersions entityVersions;
+
+    @Inject
+    PessoaEstatisticasMaterializadas estatisticasMaterializadas;
+
+    @Inject
+    PessoaSnapshot pessoaSnapshot;
+
+    @Inject
+    PessoaExportacoes exportacoes;
+
+    @Inject
+    PessoaImportador importador;
+
+    @Inject
+    PessoaConsultasCompartilhadas consultas;
+
+    @Inject
+    Validator validator;
+
+    @ConfigProperty(name = "pessoa.stream.fetch-size", defaultValue = "500")
+    int fetchSize;
+
+    @ConfigProperty(name = "pessoa.pagina.tamanho-padrao", defaultValue = "50")
+    int tamanhoPadrao;
+
+    @ConfigProperty(name = "pessoa.pagina.tamanho-maximo", defaultValue = "1000")
+    int tamanhoMaximo;
+
+    @ConfigProperty(name = "pessoa.stats.faixa-idade", defaultValue = "10")
+    int faixaIdade;
+
+    @ConfigProperty(name = "pessoa.stats.materializado", defaultValue = "false")
+    boolean estatisticasEmMemoria;
+
+    @ConfigProperty(name = "pessoa.busca.limite-padrao", defaultValue = "20")
+    int limiteBusca;
+
+    @ConfigProperty(name = "pessoa.busca.limite-maximo", defaultValue = "100")
+    int limiteBuscaMaximo;
     
-    List<PessoaEntity> obterTodos(){
-        return pessoaDao.obterTodos();
+    /**
+     * Lista todas as pessoas; requisições simultâneas compartilham a mesma
+     * consulta (ver {@link PessoaConsultasCompartilhadas}).
+     */
+    List<PessoaEntity> obterTodos() throws Exception {
+        return consultas.executar("todos", List.of(), () -> desanexadas(pessoaDao.obterTodos()));
+    }
+
+    /**
+     * Entidades lidas para uma consulta compartilhada, já fora do contexto de
+     * persistência desta requisição.
+     */
+    private List<PessoaEntity> desanexadas(List<PessoaEntity> pessoas) {
+        pessoaDao.detach(pessoas);
+        return pessoas;
+    }
+
+    /**
+     * Lista todas as pessoas apenas com os campos pedidos (ex.: "id,nome").
+     */
+    PessoaProjecao obterCampos(List<String> campos) throws Exception {
+        return new PessoaProjecao(campos, consultas.executar("campos", campos, () -> pessoaDao.obterCampos(campos)));
+    }
+
+    /**
+     * Valida e normaliza a lista de campos do parâmetro {@code fields}.
+     */
+    List<String> lerCampos(String fields){
+        List<String> campos = new ArrayList<>();
+        for (String campo : fields.split(",")) {
+            String nome = campo.trim();
+            if (!PessoaDao.CAMPOS.contains(nome)) {
+                throw new BadRequestException("Campo inválido: " + nome);
+            }
+            if (!campos.contains(nome)) {
+                campos.add(nome);
+            }
+        }
+        return campos;
+    }
+
+    /**
+     * Estatísticas de idade e sexo; com {@code pessoa.stats.materializado},
+     * vêm dos contadores em memória em vez de agregadas no banco.
+     */
+    PessoaEstatisticas obterEstatisticas() throws Exception {
+        if (estatisticasEmMemoria) {
+            return estatisticasMaterializadas.obter(faixaIdade, pessoaDao::contarPorIdadeESexo);
+        }
+        return consultas.executar("estatisticas", List.of(faixaIdade), () -> pessoaDao.obterEstatisticas(faixaIdade));
+    }
+
+    /**
+     * Busca as pessoas pelo trecho do nome, em ordem de relevância.
+     */
+    List<PessoaEntity> buscarPorNome(String nome, Integer limit) throws Exception {
+        if (nome == null || nome.trim().length() < PessoaIndiceNome.TAMANHO_MINIMO) {
+            throw new BadRequestException("nome deve ter ao menos " + PessoaIndiceNome.TAMANHO_MINIMO + " caracteres");
+        }
+        if (limit != null && limit <= 0) {
+            throw new BadRequestException("limit deve ser positivo");
+        }
+        int limite = limit == null ? limiteBusca : Math.min(limit, limiteBuscaMaximo);
+        String termo = nome.trim();
+        return consultas.executar("busca", List.of(termo, limite),
+                () -> desanexadas(pessoaDao.buscarPorNome(termo, limite)));
+    }
+
+    /**
+     * Versão atual da tabela de pessoas, para ETag. Deve ser obtida antes da
+     * consulta que ela identifica.
+     */
+    long obterVersao(){
+        return entityVersions.getVersion(PessoaEntity.class);
+    }
+
+    /**
+     * Lista completa já serializada da versão informada, ou nulo se ainda não
+     * estiver pronta.
+     */
+    PessoaSnapshot.Conteudo obterSnapshot(long versao){
+        return pessoaSnapshot.obter(versao);
+    }
+
+    String obterTag(long versao){
+        return entityVersions.getTag(versao);
+    }
+
+    Date obterUltimaAlteracao(){
+        return new Date(entityVersions.getLastModified(PessoaEntity.class));
+    }
+
+    /**
+     * Grava o lote em uma transação com batch JDBC. Sem {@code upsert} as
+     * pessoas são inseridas, com o id informado ou gerado pela sequence; com
+     * {@code upsert}, as pessoas existentes (pela pk informada) são
+     * atualizadas por SQL nativo.
+     */
+    @Transactional
+    PessoaLoteResultado gravarLote(List<PessoaEntity> pessoas, boolean upsert) throws Exception {
+        if (pessoas == null || pessoas.isEmpty()) {
+            throw new BadRequestException("Lote vazio");
+        }
+        validar(pessoas);
+        long inicio = System.nanoTime();
+        if (upsert) {
+            if (pessoas.stream().anyMatch(pessoa -> pessoa.getId() == null)) {
+                throw new BadRequestException("Upsert exige id em todas as pessoas");
+            }
+            pessoaDao.upsertAll(pessoas);
+        } else {
+            pessoaDao.inserirTodas(pessoas);
+        }
+        long duracao = Math.max(1, System.nanoTime() - inicio);
+        return new PessoaLoteResultado(pessoas.size(), duracao / 1_000_000,
+                pessoas.size() * 1_000_000_000L / duracao);
+    }
+
+    /**
+     * Valida as pessoas pelas constraints de {@link PessoaEntity} antes da
+     * gravação, também no upsert, que não passa pela validação do Hibernate.
+     *
+     * @throws ConstraintViolationException com as violações de todo o lote
+     */
+    private void validar(List<PessoaEntity> pessoas) {
+        Set<ConstraintViolation<PessoaEntity>> violacoes = new LinkedHashSet<>();
+        for (PessoaEntity pessoa : pessoas) {
+            violacoes.addAll(validator.validate(pessoa));
+        }
+        if (!violacoes.isEmpty()) {
+            throw new ConstraintViolationException(violacoes);
+        }
+    }
+
+    /**
+     * Importa pessoas de um CSV lido à medida que chega, em lotes com uma
+     * transação cada; linhas inválidas e lotes rejeitados vão para o relatório.
+     */
+    PessoaImportacao importar(InputStream csv, boolean upsert) throws Exception {
+        return importador.importar(new InputStreamReader(csv, StandardCharsets.UTF_8), upsert);
+    }
+
+    CacheStatistics obterEstatisticasCache(){
+        return pessoaDao.getCacheStatistics();
+    }
+
+    /**
+     * Obtém a página seguinte ao cursor (keyset), ordenada por id ou por
+     * (nome, id). Sem cursor, retorna a primeira página da ordem informada.
+     */
+    PessoaPagina obterPagina(String after, Integer limit, String ordem) throws Exception {
+        if (limit != null && limit <= 0) {
+            throw new BadRequestException("limit deve ser positivo");
+        }
+        int tamanho = limit == null ? tamanhoPadrao : Math.min(limit, tamanhoMaximo);
+        PessoaCursor cursor = after == null ? PessoaCursor.inicio(ordem) : PessoaCursor.decodificar(after);
+        List<PessoaEntity> itens;
+        if (cursor.isPorNome()) {
+            itens = pessoaDao.findAllAfter(PessoaCursor.ORDEM_NOME, cursor.getNome(), cursor.getId(), tamanho);
+        } else {
+            itens = pessoaDao.findAllAfter(cursor.getId(), tamanho);
+        }
+        String next = null;
+        if (itens.size() == tamanho) {
+            next = PessoaCursor.apos(itens.get(itens.size() - 1), cursor.getOrdem()).codificar();
+        }
+        return new PessoaPagina(itens, next);
+    }
+
+    /**
+     * Agenda a exportação de todas as pessoas para arquivo. Responde 503 se
+     * já houver exportações demais em andamento.
+     */
+    PessoaExportacao criarExportacao(String formato){
+        if (!PessoaExportacoes.CSV.equals(formato)) {
+            throw new BadRequestException("Formato de exportação inválido: " + formato);
+        }
+        try {
+            return exportacoes.criar(formato);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableException("Exportações demais em andamento", 30L);
+        }
+    }
+
+    PessoaExportacao obterExportacao(String id){
+        PessoaExportacao exportacao = exportacoes.obter(id);
+        if (exportacao == null) {
+            throw new NotFoundException("Exportação não encontrada: " + id);
+        }
+        return exportacao;
+    }
+
+    /**
+     * Arquivo de uma exportação concluída; 409 enquanto ela não termina.
+     */
+    File obterArquivoExportacao(String id){
+        PessoaExportacao exportacao = obterExportacao(id);
+        if (exportacao.getStatus() != PessoaExportacao.Status.CONCLUIDA) {
+            throw new ClientErrorException("Exportação " + exportacao.getStatus(), Response.Status.CONFLICT);
+        }
+        return exportacao.getArquivo().toFile();
+    }
+
+    /**
+     * Entrega cada pessoa ao consumidor dentro de uma transação, para que o
+     * driver JDBC respeite o fetch size (o Postgres ignora fora de transação).
+     */
+    @Transactional
+    @TransactionConfiguration(timeout = 3600)
+    void percorrerTodos(Consumer<PessoaEntity> consumidor){
+        try (Stream<PessoaEntity> pessoas = pessoaDao.obterTodosStream(fetchSize)) {
+            pessoas.forEach(consumidor);
+        }
+    }
+
+    /**
+     * Cria o índice de trigramas do nome (Postgres) em transação própria.
+     */
+    @Transactional
+    void criarIndiceNome(){
+        pessoaDao.criarIndiceNome();
+    }
+
+    /**
+     * Avança a sequence de pessoas para depois do maior id gravado, que pode
+     * ter vindo de fora do gerador (carga por JDBC, outra versão da
+     * aplicação).
+     */
+    @Transactional
+    void sincronizarSequence(){
+        pessoaDao.reservarIds(pessoaDao.obterMaiorId());
     }
 }
@@ -0,0 +1,23 @@
+package com.fcr.pessoa;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.control.ActivateRequestContext;
+import javax.enterprise.event.Observes;
+
+import io.quarkus.runtime.StartupEvent;
+
+/**
+ * Posiciona a sequence {@value PessoaEntity#SEQUENCE} depois do maior id da
+ * tabela na inicialização, para que os ids gerados não colidam com os
+ * gravados por fora do gerador antes da subida. Durante a execução, upsert e
+ * inserção com id fazem o mesmo a cada lote ({@link PessoaDao#reservarIds}).
+ */
+@ApplicationScoped
+public class PessoaSequencia {
+
+    @ActivateRequestContext
+    void onStart(@Observes StartupEvent event, PessoaRn pessoaRn) {
+        pessoaRn.sincronizarSequence();
+    }
+
+}
@@ -0,0 +1,146 @@
+package com.fcr.pessoa;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.control.ActivateRequestContext;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.inject.Inject;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fcr.dao.EntityChange;
+import com.fcr.dao.EntityVersions;
+
+import io.quarkus.runtime.ShutdownEvent;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Lista completa de pessoas já serializada em JSON, e também comprimida com
+ * gzip, para o {@code GET /pessoa} responder sem consulta nem Jackson.
+ *
+ * O snapshot é identificado pela versão da tabela em {@link EntityVersions} e
+ * só é servido enquanto ela não muda. Cada escrita confirmada pelo
+ * {@link com.fcr.dao.BaseDao} agenda a reconstrução em segundo plano, no
+ * máximo uma a cada {@code pessoa.snapshot.intervalo-ms}: as escritas de uma
+ * carga se juntam em uma reconstrução por intervalo, e enquanto isso o
+ * {@code GET /pessoa} consulta o banco.
+ *
+ * Desligado por padrão ({@code pessoa.snapshot.enabled}): cada reconstrução lê
+ * e serializa a tabela inteira, o que só compensa com leituras frequentes da
+ * lista e escritas raras.
+ */
+@ApplicationScoped
+public class PessoaSnapshot {
+
+    @Inject
+    Logger logger;
+
+    @Inject
+    PessoaDao pessoaDao;
+
+    @Inject
+    EntityVersions entityVersions;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "pessoa.snapshot.enabled", defaultValue = "false")
+    boolean habilitado;
+
+    @ConfigProperty(name = "pessoa.snapshot.intervalo-ms", defaultValue = "1000")
+    long intervalo;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "pessoa-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean agendado = new AtomicBoolean();
+    private volatile long ultimaReconstrucao;
+    private volatile Conteudo atual;
+
+    void onChange(@Observes(during = TransactionPhase.AFTER_SUCCESS) EntityChange change) {
+        if (change.getEntityClass() == PessoaEntity.class) {
+            agendar();
+        }
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Snapshot da versão informada da tabela, ou nulo se ele ainda não foi
+     * (re)construído; nesse caso a reconstrução é agendada.
+     *
+     * @param versao Versão atual da tabela
+     * @return
+     */
+    public Conteudo obter(long versao) {
+        if (!habilitado) {
+            return null;
+        }
+        Conteudo conteudo = atual;
+        if (conteudo != null && conteudo.getVersao() == versao) {
+            return conteudo;
+        }
+        agendar();
+        return null;
+    }
+
+    private void agendar() {
+        if (habilitado && agendado.compareAndSet(false, true)) {
+            long espera = Math.max(0, ultimaReconstrucao + intervalo - System.currentTimeMillis());
+            executor.schedule(this::reconstruir, espera, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @ActivateRequestContext
+    void reconstruir() {
+        ultimaReconstrucao = System.currentTimeMillis();
+        agendado.set(false);
+        try {
+            long versao = entityVersions.getVersion(PessoaEntity.class);
+            byte[] json = objectMapper.writeValueAsBytes(pessoaDao.obterTodos());
+            atual = new Conteudo(versao, json, gzip(json));
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Falha ao reconstruir o snapshot de pessoas", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] dados) throws IOException {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(Math.max(64, dados.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(saida, 8192)) {
+            gzip.write(dados);
+        }
+        return saida.toByteArray();
+    }
+
+    /**
+     * Corpo da resposta de uma versão da tabela, em JSON e em JSON+gzip.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Conteudo {
+
+        private final long versao;
+
+        private final byte[] json;
+
+        private final byte[] gzip;
+
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.fcr.pessoa;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.StreamingOutput;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Escreve as pessoas de forma incremental, como array ou NDJSON, à medida
+ * que são lidas do banco. O formato do array (JSON, CBOR ou Smile) é o do
+ * ObjectMapper recebido; NDJSON só existe em JSON.
+ */
+public class PessoaStreamingOutput implements StreamingOutput {
+
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+    public static final MediaType APPLICATION_NDJSON_TYPE = MediaType.valueOf(APPLICATION_NDJSON);
+
+    private final PessoaRn pessoaRn;
+    private final ObjectMapper objectMapper;
+    private final boolean ndjson;
+
+    public PessoaStreamingOutput(PessoaRn pessoaRn, ObjectMapper objectMapper, boolean ndjson) {
+        if (ndjson && objectMapper.getFactory().canHandleBinaryNatively()) {
+            throw new IllegalArgumentException("NDJSON exige um ObjectMapper de JSON");
+        }
+        this.pessoaRn = pessoaRn;
+        this.objectMapper = objectMapper;
+        this.ndjson = ndjson;
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException, WebApplicationException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+            generator.setRootValueSeparator(null);
+            if (!ndjson) {
+                generator.writeStartArray();
+            }
+            pessoaRn.percorrerTodos(pessoa -> escrever(generator, pessoa));
+            if (!ndjson) {
+                generator.writeEndArray();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void escrever(JsonGenerator generator, PessoaEntity pessoa) {
+        try {
+            generator.writeObject(pessoa);
+            if (ndjson) {
+                generator.writeRaw('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.fcr.utils;
+
+import java.util.List;
+
+import javax.ws.rs.core.MediaType;
+
+/**
+ * Formatos binários do Jackson aceitos nas respostas, além do JSON, e a
+ * negociação do formato pelo Accept.
+ */
+public final class BinaryMediaTypes {
+
+    public static final String CBOR = "application/cbor";
+    public static final MediaType CBOR_TYPE = MediaType.valueOf(CBOR);
+
+    public static final String SMILE = "application/x-jackson-smile";
+    public static final MediaType SMILE_TYPE = MediaType.valueOf(SMILE);
+
+    private BinaryMediaTypes() {
+        super();
+    }
+
+    /**
+     * Indica se o media type é um dos formatos binários.
+     */
+    public static boolean isBinary(MediaType mediaType) {
+        return mediaType != null && (CBOR_TYPE.isCompatible(mediaType) || SMILE_TYPE.isCompatible(mediaType))
+                && !mediaType.isWildcardType() && !mediaType.isWildcardSubtype();
+    }
+
+    /**
+     * Escolhe, entre os media types que o recurso produz, o de maior
+     * qualidade no Accept. A qualidade de cada um é a da faixa mais
+     * específica que o abrange ({@code q=0} o exclui); no empate vale a ordem
+     * de {@code produzidos}.
+     *
+     * @param aceitos    Media types do Accept ({@code HttpHeaders.getAcceptableMediaTypes()})
+     * @param produzidos Media types que o recurso produz, em ordem de preferência
+     * @return Media type escolhido, ou null se nenhum é aceito
+     */
+    public static MediaType negociar(List<MediaType> aceitos, MediaType... produzidos) {
+        MediaType escolhido = null;
+        double melhor = 0;
+        for (MediaType produzido : produzidos) {
+            double qualidade = aceitos.isEmpty() ? 1 : qualidade(aceitos, produzido);
+            if (qualidade > melhor) {
+                melhor = qualidade;
+                escolhido = produzido;
+            }
+        }
+        return escolhido;
+    }
+
+    /**
+     * Valor de um parâmetro {@code q} (Accept, Accept-Encoding); 1 quando
+     * ausente e 0 quando inválido.
+     */
+    public static double lerQualidade(String q) {
+        if (q == null) {
+            return 1;
+        }
+        try {
+            double valor = Double.parseDouble(q.trim());
+            return valor >= 0 && valor <= 1 ? valor : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static double qualidade(List<MediaType> aceitos, MediaType tipo) {
+        int especificidade = -1;
+        double qualidade = 0;
+        for (MediaType aceito : aceitos) {
+            if (!aceito.isCompatible(tipo)) {
+                continue;
+            }
+            int atual = aceito.isWildcardType() ? 0 : aceito.isWildcardSubtype() ? 1 : 2;
+            if (atual > especificidade) {
+                especificidade = atual;
+                qualidade = lerQualidade(aceito.getParameters().get("q"));
+            }
+        }
+        return qualidade;
+    }
+
+}
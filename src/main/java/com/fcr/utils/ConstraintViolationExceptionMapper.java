@@ -0,0 +1,39 @@
+package com.fcr.utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.ExceptionMapper;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * Responde 400 com as violações quando a validação das entidades recusa a
+ * entrada ({@code POST /pessoa/batch}), em vez do 500 que o Quarkus dá às
+ * violações fora dos parâmetros do endpoint. Cada violação traz o campo e a
+ * mensagem.
+ */
+@Provider
+public class ConstraintViolationExceptionMapper implements ExceptionMapper<ConstraintViolationException> {
+
+    @Override
+    public Response toResponse(ConstraintViolationException exception) {
+        List<Map<String, String>> violacoes = new ArrayList<>();
+        for (ConstraintViolation<?> violacao : exception.getConstraintViolations()) {
+            Map<String, String> campo = new LinkedHashMap<>();
+            campo.put("campo", violacao.getPropertyPath().toString());
+            campo.put("mensagem", violacao.getMessage());
+            violacoes.add(campo);
+        }
+        return Response.status(Response.Status.BAD_REQUEST)
+                .type(MediaType.APPLICATION_JSON)
+                .entity(violacoes)
+                .build();
+    }
+
+}
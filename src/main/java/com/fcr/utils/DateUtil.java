@@ -1,15 +1,32 @@
 package com.fcr.utils;
 
 import java.sql.Timestamp;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.text.ParsePosition;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQueries;
+import java.time.zone.ZoneRules;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Logger;
 
 /**
  * Classe de métodos utilitários para trabalhar com datas e horas.
+ * 
+ * Formatação e parse usam {@link DateTimeFormatter} imutáveis, criados uma
+ * vez por pattern e compartilhados entre threads.
  */
 public final class DateUtil {
 
@@ -24,6 +41,16 @@ public final class DateUtil {
   public static final String PATTERN_DD_MM_YYYY_HH_MM_SS = "dd/MM/yyyy HH:mm:ss";
   public static final String PATTERN_DD_MM_YYYY_DD_MM_SS = "dd/MM/yyy HH:mm:ss";
 
+  private static final LocalDate EPOCH = LocalDate.of(1970, 1, 1);
+
+  private static final ConcurrentMap<String, DateTimeFormatter> FORMATTERS = new ConcurrentHashMap<>();
+  private static final ConcurrentMap<String, DateTimeFormatter> PARSERS = new ConcurrentHashMap<>();
+
+  /** Intervalo entre as consultas ao fuso padrão da JVM */
+  private static final long ZONE_REFRESH_MILLIS = 1000;
+
+  private static volatile Zone defaultZone = new Zone(ZoneId.systemDefault(), 0);
+
   private static Logger logger = Logger.getLogger(DateUtil.class.getName());
 
   private DateUtil() {
@@ -105,16 +132,10 @@ public final class DateUtil {
    * @return Diferença
    */
   public static long getDiffInMilliseconds(final Date dateEnd, final Date dateBegin) {
-
-    Calendar end = DateUtil.getToday();
-    end.setTime(dateEnd);
-    Calendar begin = DateUtil.getToday();
-    begin.setTime(dateBegin);
-
-    long endL = end.getTimeInMillis() + end.getTimeZone().getOffset(end.getTimeInMillis());
-    long startL = begin.getTimeInMillis() + begin.getTimeZone().getOffset(begin.getTimeInMillis());
-
-    return (endL - startL);
+    ZoneRules rules = getZone().rules;
+    long end = dateEnd.getTime();
+    long begin = dateBegin.getTime();
+    return (end + getOffset(rules, end)) - (begin + getOffset(rules, begin));
   }
 
   public static String getSeconds() {
@@ -214,7 +235,7 @@ public final class DateUtil {
     if (calendar == null) {
       return null;
     }
-    return new SimpleDateFormat(PATTERN_DD_MM_YYYY).format(calendar.getTime());
+    return format(calendar.getTimeInMillis(), PATTERN_DD_MM_YYYY);
   }
 
   /**
@@ -230,7 +251,7 @@ public final class DateUtil {
     if (calendar == null) {
       return null;
     }
-    return new SimpleDateFormat(pattern).format(calendar.getTime());
+    return format(calendar.getTimeInMillis(), pattern);
   }
 
   /**
@@ -244,7 +265,7 @@ public final class DateUtil {
     if (date == null) {
       return null;
     }
-    return new SimpleDateFormat(PATTERN_DD_MM_YYYY).format(date);
+    return format(date.getTime(), PATTERN_DD_MM_YYYY);
   }
 
   /**
@@ -260,7 +281,7 @@ public final class DateUtil {
     if (date == null) {
       return null;
     }
-    return new SimpleDateFormat(pattern).format(date);
+    return format(date.getTime(), pattern);
   }
 
   /**
@@ -274,7 +295,7 @@ public final class DateUtil {
     if (timestamp == null) {
       return null;
     }
-    return new SimpleDateFormat(PATTERN_DD_MM_YYYY).format(timestamp);
+    return format(timestamp.getTime(), PATTERN_DD_MM_YYYY);
   }
 
   /**
@@ -290,7 +311,7 @@ public final class DateUtil {
     if (timestamp == null) {
       return null;
     }
-    return new SimpleDateFormat(pattern).format(timestamp);
+    return format(timestamp.getTime(), pattern);
   }
 
   /**
@@ -317,14 +338,7 @@ public final class DateUtil {
     if (dateAsString == null) {
       return null;
     }
-    try {
-      Calendar calendar = getToday();
-      calendar.setTime(new SimpleDateFormat(PATTERN_DD_MM_YYYY).parse(dateAsString));
-      return calendar;
-    } catch (ParseException e) {
-      logger.severe(e.getMessage());
-    }
-    return null;
+    return parse(dateAsString, PATTERN_DD_MM_YYYY);
   }
 
   /**
@@ -340,18 +354,11 @@ public final class DateUtil {
     if (dateAsString == null) {
       return null;
     }
-    try {
-      Calendar calendar = getToday();
-      calendar.setTime(new SimpleDateFormat(pattern).parse(dateAsString));
-      return calendar;
-    } catch (ParseException e) {
-      logger.severe(e.getMessage());
-    }
-    return null;
+    return parse(dateAsString, pattern);
   }
 
   /**
-   * Converte as datas em String e verifica se são iguais.
+   * Verifica se as datas caem no mesmo dia do fuso padrão.
    * 
    * @param date1
    *          Data 1
@@ -360,12 +367,14 @@ public final class DateUtil {
    * @return Booleano
    */
   public static boolean isDataIgual(final Date date1, final Date date2) {
-    String dataString1 = parseDateAsString(date1);
-    String dataString2 = parseDateAsString(date2);
-    if (dataString1 != null && dataString2 != null) {
-      return dataString1.equals(dataString2);
+    if (date1 == null || date2 == null) {
+      return false;
     }
-    return false;
+    ZoneRules rules = getZone().rules;
+    long time1 = date1.getTime();
+    long time2 = date2.getTime();
+    return Math.floorDiv(time1 + getOffset(rules, time1), MILLISECONDS_PER_DAY)
+        == Math.floorDiv(time2 + getOffset(rules, time2), MILLISECONDS_PER_DAY);
   }
 
   public static Date getDataHoraMinima(Date date) {
@@ -448,4 +457,89 @@ public final class DateUtil {
     return dataInicial.after(dataFinal);
   }
 
-}
\ No newline at end of file
+  /**
+   * Retorna o formatter do pattern, criado na primeira vez em que é usado.
+   * 
+   * @param pattern
+   *          Pattern
+   * @return Formatter
+   */
+  public static DateTimeFormatter getFormatter(final String pattern) {
+    return FORMATTERS.computeIfAbsent(pattern, DateTimeFormatter::ofPattern);
+  }
+
+  /**
+   * Formatter de parse do pattern, leniente como o SimpleDateFormat: campos
+   * numéricos com menos dígitos ("1/2/2026" com "dd/MM/yyyy"), texto sem
+   * diferenciar maiúsculas e valores fora do intervalo somados ao campo
+   * seguinte ("31/02/2026" vira 03/03/2026).
+   */
+  private static DateTimeFormatter getParser(final String pattern) {
+    return PARSERS.computeIfAbsent(pattern, p -> new DateTimeFormatterBuilder()
+        .parseCaseInsensitive()
+        .parseLenient()
+        .appendPattern(p)
+        .toFormatter()
+        .withResolverStyle(ResolverStyle.LENIENT));
+  }
+
+  /**
+   * Fuso padrão da JVM e as suas regras, em cache. {@code ZoneId.systemDefault()}
+   * clona o {@link TimeZone} padrão a cada chamada, então ele é
+   * consultado no máximo uma vez a cada {@link #ZONE_REFRESH_MILLIS}: uma
+   * troca por {@code TimeZone.setDefault} vale a partir da consulta seguinte.
+   */
+  private static Zone getZone() {
+    Zone current = defaultZone;
+    long now = System.currentTimeMillis();
+    if (now - current.checkedAt < ZONE_REFRESH_MILLIS) {
+      return current;
+    }
+    current = new Zone(ZoneId.systemDefault(), now);
+    defaultZone = current;
+    return current;
+  }
+
+  private static long getOffset(final ZoneRules rules, final long timeInMillis) {
+    return rules.getOffset(Instant.ofEpochMilli(timeInMillis)).getTotalSeconds() * MILLISECONDS_PER_SECOND;
+  }
+
+  private static String format(final long timeInMillis, final String pattern) {
+    return getFormatter(pattern).format(Instant.ofEpochMilli(timeInMillis).atZone(getZone().id));
+  }
+
+  /**
+   * Parse no fuso padrão; campos ausentes no pattern assumem 01/01/1970 e
+   * meia-noite e o texto após a data é ignorado, como no SimpleDateFormat.
+   */
+  private static Calendar parse(final String dateAsString, final String pattern) {
+    try {
+      TemporalAccessor parsed = getParser(pattern).parse(dateAsString, new ParsePosition(0));
+      LocalDate date = parsed.query(TemporalQueries.localDate());
+      LocalTime time = parsed.query(TemporalQueries.localTime());
+      ZoneId zone = parsed.query(TemporalQueries.zone());
+      ZonedDateTime dateTime = ZonedDateTime.of(date != null ? date : EPOCH, time != null ? time : LocalTime.MIDNIGHT,
+          zone != null ? zone : getZone().id);
+      Calendar calendar = getToday();
+      calendar.setTimeInMillis(dateTime.toInstant().toEpochMilli());
+      return calendar;
+    } catch (DateTimeParseException e) {
+      logger.severe(e.getMessage());
+    }
+    return null;
+  }
+
+  private static final class Zone {
+
+    private final ZoneId id;
+    private final ZoneRules rules;
+    private final long checkedAt;
+
+    Zone(final ZoneId id, final long checkedAt) {
+      this.id = id;
+      this.rules = id.getRules();
+      this.checkedAt = checkedAt;
+    }
+  }
+
+}
@@ -0,0 +1,95 @@
+package com.fcr.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import javax.inject.Inject;
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+
+/**
+ * Escreve as respostas em CBOR ou Smile quando o cliente pede um desses
+ * formatos no Accept. São o mesmo modelo de dados do JSON, com as mesmas
+ * anotações do Jackson, em codificação binária: números e strings sem texto,
+ * e no Smile nomes de campo repetidos viram referências.
+ *
+ * Os mappers binários são derivados do ObjectMapper de JSON da aplicação:
+ * herdam a configuração de serialização ({@code quarkus.jackson.*},
+ * {@code ObjectMapperCustomizer}) e os serializers dos módulos registrados
+ * nele, então os três formatos escrevem os mesmos campos e valores. São
+ * usados só para escrita.
+ */
+@Provider
+@Produces({ BinaryMediaTypes.CBOR, BinaryMediaTypes.SMILE })
+public class JacksonBinaryWriter implements MessageBodyWriter<Object> {
+
+    /** CBOR e Smile derivados de cada ObjectMapper de JSON (na aplicação, só o do Quarkus) */
+    private static final Map<ObjectMapper, Derivados> DERIVADOS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return !StreamingOutput.class.isAssignableFrom(type) && BinaryMediaTypes.isBinary(mediaType);
+    }
+
+    @Override
+    public void writeTo(Object t, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+            MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream)
+            throws IOException, WebApplicationException {
+        getMapper(mediaType, objectMapper).writeValue(entityStream, t);
+    }
+
+    /**
+     * ObjectMapper do formato binário; JSON para outros media types.
+     *
+     * @param mediaType Media type da resposta
+     * @param json      ObjectMapper de JSON da aplicação
+     * @return
+     */
+    public static ObjectMapper getMapper(MediaType mediaType, ObjectMapper json) {
+        if (!BinaryMediaTypes.isBinary(mediaType)) {
+            return json;
+        }
+        Derivados derivados = DERIVADOS.computeIfAbsent(json, Derivados::new);
+        return BinaryMediaTypes.SMILE_TYPE.isCompatible(mediaType) ? derivados.smile : derivados.cbor;
+    }
+
+    /**
+     * Mapper do formato binário com a configuração de serialização do JSON.
+     */
+    private static ObjectMapper derivar(ObjectMapper json, ObjectMapper binario) {
+        binario.setConfig(json.getSerializationConfig());
+        binario.setSerializerFactory(json.getSerializerFactory());
+        binario.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        return binario;
+    }
+
+    private static final class Derivados {
+
+        private final ObjectMapper cbor;
+        private final ObjectMapper smile;
+
+        Derivados(ObjectMapper json) {
+            cbor = derivar(json, new CBORMapper());
+            smile = derivar(json, new SmileMapper());
+        }
+    }
+
+}
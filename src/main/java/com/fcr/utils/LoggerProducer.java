@@ -0,0 +1,21 @@
+package com.fcr.utils;
+
+import java.util.logging.Logger;
+
+import javax.enterprise.context.Dependent;
+import javax.enterprise.inject.Produces;
+import javax.enterprise.inject.spi.InjectionPoint;
+
+/**
+ * Produz o {@link Logger} do java.util.logging injetado nos DAOs, nomeado pela
+ * classe que declara o ponto de injeção.
+ */
+@Dependent
+public class LoggerProducer {
+
+    @Produces
+    Logger produceLogger(InjectionPoint injectionPoint) {
+        return Logger.getLogger(injectionPoint.getMember().getDeclaringClass().getName());
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.fcr.utils;
+
+import javax.enterprise.inject.Produces;
+import javax.inject.Singleton;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+
+/**
+ * Publica histogramas de latência das requisições HTTP, para que p50/p99
+ * sejam calculados no Prometheus a partir dos buckets.
+ */
+@Singleton
+public class MeterFilterProducer {
+
+    private static final String HTTP_SERVER_REQUESTS = "http.server.requests";
+
+    @Produces
+    @Singleton
+    public MeterFilter httpServerHistogram() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (id.getName().equals(HTTP_SERVER_REQUESTS)) {
+                    return DistributionStatisticConfig.builder()
+                            .percentilesHistogram(true)
+                            .build()
+                            .merge(config);
+                }
+                return config;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,120 @@
+package com.fcr.utils;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Coalescimento de chamadas idênticas concorrentes: a primeira chamada de uma
+ * chave executa, e as que chegam enquanto ela está em andamento esperam e
+ * recebem o mesmo resultado (ou a mesma exceção) em vez de executar de novo.
+ * Terminada a execução, a chave sai do mapa e a próxima chamada executa
+ * novamente; nada é guardado além das execuções em andamento.
+ *
+ * Quem espera o faz por até {@code espera}; passado esse tempo, desiste da
+ * execução em andamento e executa a sua própria, para que uma consulta presa
+ * não prenda junto todas as requisições que chegaram depois dela.
+ *
+ * Sem locks: a disputa pela chave é resolvida pelo {@code putIfAbsent} do
+ * {@link ConcurrentHashMap}. Registra {@value #CALLS} com
+ * {@code result=executed|coalesced|timeout} e o gauge {@value #IN_FLIGHT},
+ * com a tag {@code name}.
+ *
+ * @param <K> Chave da chamada; deve ter equals/hashCode por valor
+ * @param <V> Resultado, compartilhado entre as chamadas coalescidas e que por
+ *            isso não deve ser alterado por elas
+ */
+public final class SingleFlight<K, V> {
+
+    public static final String CALLS = "singleflight.calls";
+    public static final String IN_FLIGHT = "singleflight.in.flight";
+
+    private final ConcurrentMap<K, CompletableFuture<V>> emAndamento = new ConcurrentHashMap<>();
+    private final Counter executadas;
+    private final Counter coalescidas;
+    private final Counter expiradas;
+    private final Duration espera;
+
+    /**
+     * @param name     Nome nas métricas
+     * @param registry Registro das métricas
+     * @param espera   Tempo máximo de espera pela execução em andamento
+     */
+    public SingleFlight(String name, MeterRegistry registry, Duration espera) {
+        this.espera = espera;
+        executadas = Counter.builder(CALLS).tag("name", name).tag("result", "executed").register(registry);
+        coalescidas = Counter.builder(CALLS).tag("name", name).tag("result", "coalesced").register(registry);
+        expiradas = Counter.builder(CALLS).tag("name", name).tag("result", "timeout").register(registry);
+        Gauge.builder(IN_FLIGHT, emAndamento, ConcurrentMap::size).tag("name", name).register(registry);
+    }
+
+    /**
+     * Executa a chamada, ou espera pela execução em andamento da mesma chave;
+     * se ela não terminar em {@code espera}, executa a chamada mesmo assim.
+     *
+     * @param chave    Chave da chamada
+     * @param execucao Execução, feita se não houver outra em andamento ou se
+     *                 a espera por ela expirar
+     * @return Resultado da execução própria ou da compartilhada
+     * @throws Exception a exceção da execução, própria ou compartilhada
+     */
+    public V executar(K chave, Callable<V> execucao) throws Exception {
+        CompletableFuture<V> propria = new CompletableFuture<>();
+        CompletableFuture<V> existente = emAndamento.putIfAbsent(chave, propria);
+        if (existente != null) {
+            coalescidas.increment();
+            return aguardar(existente, execucao);
+        }
+        executadas.increment();
+        try {
+            V valor = execucao.call();
+            propria.complete(valor);
+            return valor;
+        } catch (Exception | Error e) {
+            propria.completeExceptionally(e);
+            throw e;
+        } finally {
+            emAndamento.remove(chave, propria);
+        }
+    }
+
+    public long getExecutadas() {
+        return (long) executadas.count();
+    }
+
+    public long getCoalescidas() {
+        return (long) coalescidas.count();
+    }
+
+    public long getExpiradas() {
+        return (long) expiradas.count();
+    }
+
+    private V aguardar(CompletableFuture<V> existente, Callable<V> execucao) throws Exception {
+        try {
+            return existente.get(espera.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            expiradas.increment();
+            return execucao.call();
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof Exception) {
+                throw (Exception) causa;
+            }
+            if (causa instanceof Error) {
+                throw (Error) causa;
+            }
+            throw e;
+        }
+    }
+
+}
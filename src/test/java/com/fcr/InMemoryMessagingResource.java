@@ -0,0 +1,30 @@
+package com.fcr;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.fcr.outbox.OutboxRelay;
+import com.fcr.pessoa.PessoaIngestao;
+
+import io.quarkus.test.common.QuarkusTestResourceLifecycleManager;
+import io.smallrye.reactive.messaging.providers.connectors.InMemoryConnector;
+
+/**
+ * Troca os canais Kafka pelo conector em memória nos testes, sem broker.
+ */
+public class InMemoryMessagingResource implements QuarkusTestResourceLifecycleManager {
+
+    @Override
+    public Map<String, String> start() {
+        Map<String, String> config = new HashMap<>();
+        config.putAll(InMemoryConnector.switchOutgoingChannelsToInMemory(OutboxRelay.CANAL));
+        config.putAll(InMemoryConnector.switchIncomingChannelsToInMemory(PessoaIngestao.CANAL));
+        return config;
+    }
+
+    @Override
+    public void stop() {
+        InMemoryConnector.clear();
+    }
+
+}
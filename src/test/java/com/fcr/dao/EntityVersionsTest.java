@@ -0,0 +1,75 @@
+package com.fcr.dao;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.enterprise.context.control.ActivateRequestContext;
+import javax.inject.Inject;
+import javax.sql.DataSource;
+import javax.transaction.UserTransaction;
+
+import org.junit.jupiter.api.Test;
+
+import com.fcr.pessoa.PessoaDao;
+import com.fcr.pessoa.PessoaEntity;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class EntityVersionsTest {
+
+    @Inject
+    PessoaDao pessoaDao;
+
+    @Inject
+    EntityVersions entityVersions;
+
+    @Inject
+    DataSource dataSource;
+
+    @Inject
+    UserTransaction tx;
+
+    @Test
+    @ActivateRequestContext
+    public void testUmIncrementoPorTransacao() throws Exception {
+        long antes = entityVersions.getVersion(PessoaEntity.class);
+        List<PessoaEntity> pessoas = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            PessoaEntity pessoa = new PessoaEntity();
+            pessoa.setNome("Versão " + i);
+            pessoas.add(pessoa);
+        }
+        tx.begin();
+        pessoaDao.persistAll(pessoas);
+        tx.commit();
+        assertEquals(antes + 1, entityVersions.getVersion(PessoaEntity.class));
+
+        tx.begin();
+        pessoaDao.remove(pessoas.get(0).getId());
+        tx.rollback();
+        assertEquals(antes + 1, entityVersions.getVersion(PessoaEntity.class));
+    }
+
+    @Test
+    public void testEscritaDeOutraInstancia() throws Exception {
+        long antes = entityVersions.getVersion(PessoaEntity.class);
+
+        // outra instância da aplicação escrevendo no mesmo banco
+        try (Connection connection = dataSource.getConnection(); PreparedStatement statement = connection
+                .prepareStatement("UPDATE entity_version SET versao = versao + 1 WHERE entidade = ?")) {
+            statement.setString(1, PessoaEntity.class.getName());
+            assertEquals(1, statement.executeUpdate());
+        }
+
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> entityVersions.getVersion(PessoaEntity.class) == antes + 1);
+    }
+
+}
@@ -0,0 +1,125 @@
+package com.fcr.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.enterprise.context.control.ActivateRequestContext;
+import javax.inject.Inject;
+import javax.transaction.UserTransaction;
+
+import org.hibernate.criterion.MatchMode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fcr.pessoa.PessoaDao;
+import com.fcr.pessoa.PessoaEntity;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class ExampleQueriesTest {
+
+    private static boolean populado;
+
+    @Inject
+    PessoaDao pessoaDao;
+
+    @Inject
+    UserTransaction tx;
+
+    @BeforeEach
+    @ActivateRequestContext
+    void popular() throws Exception {
+        if (populado) {
+            return;
+        }
+        tx.begin();
+        pessoaDao.persistAll(List.of(
+                pessoa("ExemploQ Ana", 30, 'F'),
+                pessoa("ExemploQ ana maria", 20, 'F'),
+                pessoa("ExemploQ Bruno", 30, 'M'),
+                pessoa("exemploq Carla", 40, 'F')));
+        tx.commit();
+        populado = true;
+    }
+
+    @Test
+    @ActivateRequestContext
+    public void testMatchModes() {
+        assertEquals(List.of("ExemploQ Ana", "ExemploQ Bruno", "ExemploQ ana maria"),
+                nomes(pessoaDao.findByExample(pessoa("ExemploQ", null, null), MatchMode.ANYWHERE, false)));
+        assertEquals(List.of("ExemploQ Ana"),
+                nomes(pessoaDao.findByExample(pessoa("ExemploQ A", null, null), MatchMode.START, false)));
+        assertEquals(List.of("ExemploQ ana maria"),
+                nomes(pessoaDao.findByExample(pessoa("Q ana maria", null, null), MatchMode.END, false)));
+        assertEquals(Collections.emptyList(),
+                nomes(pessoaDao.findByExample(pessoa("xemploQ", null, null), MatchMode.START, false)));
+
+        // sem match mode: igualdade
+        assertEquals(List.of("ExemploQ Bruno"),
+                nomes(pessoaDao.findByExample(pessoa("ExemploQ Bruno", null, null), null, false)));
+        assertEquals(Collections.emptyList(),
+                nomes(pessoaDao.findByExample(pessoa("ExemploQ", null, null), null, false)));
+    }
+
+    @Test
+    @ActivateRequestContext
+    public void testIgnoreCase() {
+        assertEquals(List.of("ExemploQ Ana", "ExemploQ Bruno", "ExemploQ ana maria", "exemploq Carla"),
+                nomes(pessoaDao.findByExample(pessoa("EXEMPLOQ", null, null), true)));
+        assertEquals(List.of("ExemploQ Ana", "ExemploQ ana maria"),
+                nomes(pessoaDao.findByExample(pessoa("exemploq a", null, null), MatchMode.START, true)));
+    }
+
+    @Test
+    @ActivateRequestContext
+    public void testAtributosCombinados() {
+        assertEquals(List.of("ExemploQ Ana", "ExemploQ Bruno"),
+                nomes(pessoaDao.findByExample(pessoa("ExemploQ", 30, null), false)));
+        assertEquals(List.of("ExemploQ Ana"),
+                nomes(pessoaDao.findByExample(pessoa("ExemploQ", 30, 'F'), false)));
+    }
+
+    @Test
+    @ActivateRequestContext
+    public void testOrdenacao() {
+        PessoaEntity exemplo = pessoa("ExemploQ", null, null);
+        assertEquals(List.of("ExemploQ ana maria", "ExemploQ Ana", "ExemploQ Bruno"),
+                nomesNaOrdem(pessoaDao.findByExample(exemplo, false, List.of("idade", "nome"), true)));
+        assertEquals(List.of("ExemploQ Bruno", "ExemploQ Ana", "ExemploQ ana maria"),
+                nomesNaOrdem(pessoaDao.findByExample(exemplo, false, List.of("idade", "nome"), false)));
+
+        // useLike: like exato, sem curingas
+        assertEquals(List.of("ExemploQ Ana"),
+                nomes(pessoaDao.findByExample(pessoa("ExemploQ Ana", null, null), true, List.of("id"), true)));
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> pessoaDao.findByExample(exemplo, false, List.of("nome; DROP TABLE x"), true));
+        assertTrue(e.getCause() instanceof IllegalArgumentException);
+    }
+
+    /**
+     * Nomes em ordem natural, para consultas sem ordenação.
+     */
+    private static List<String> nomes(List<PessoaEntity> pessoas) {
+        return nomesNaOrdem(pessoas).stream().sorted().collect(Collectors.toList());
+    }
+
+    private static List<String> nomesNaOrdem(List<PessoaEntity> pessoas) {
+        return pessoas.stream().map(PessoaEntity::getNome).collect(Collectors.toList());
+    }
+
+    private static PessoaEntity pessoa(String nome, Integer idade, Character sexo) {
+        PessoaEntity pessoa = new PessoaEntity();
+        pessoa.setNome(nome);
+        pessoa.setIdade(idade);
+        pessoa.setSexo(sexo);
+        return pessoa;
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.fcr.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.enterprise.context.control.ActivateRequestContext;
+import javax.inject.Inject;
+import javax.transaction.UserTransaction;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fcr.pessoa.PessoaDao;
+import com.fcr.pessoa.PessoaEntity;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class FindAllQueriesTest {
+
+    private static final int PESSOAS = 5;
+
+    private static List<Integer> populadas;
+
+    @Inject
+    PessoaDao pessoaDao;
+
+    @Inject
+    UserTransaction tx;
+
+    @BeforeEach
+    @ActivateRequestContext
+    void popular() throws Exception {
+        if (populadas != null) {
+            return;
+        }
+        List<PessoaEntity> pessoas = new ArrayList<>();
+        for (int i = 0; i < PESSOAS; i++) {
+            PessoaEntity pessoa = new PessoaEntity();
+            pessoa.setNome("FindAll " + i);
+            pessoas.add(pessoa);
+        }
+        tx.begin();
+        pessoaDao.persistAll(pessoas);
+        tx.commit();
+        populadas = ids(pessoas);
+    }
+
+    @Test
+    @ActivateRequestContext
+    public void testOrdenacaoEPaginacao() throws Exception {
+        List<Integer> ids = ids(pessoaDao.findAll());
+        assertTrue(ids.containsAll(populadas), ids + " sem " + populadas);
+        List<Integer> ascendentes = ids.stream().sorted().collect(Collectors.toList());
+        List<Integer> descendentes = ids.stream().sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+
+        assertEquals(ascendentes, ids(pessoaDao.findAll(List.of("id"), true)));
+        assertEquals(descendentes, ids(pessoaDao.findAll(List.of("id"), false)));
+        // a segunda chamada reaproveita o JPQL guardado
+        assertEquals(descendentes, ids(pessoaDao.findAll(List.of("id"), false)));
+        assertEquals(descendentes.subList(0, 2), ids(pessoaDao.findAll(0, 2, List.of("id"), false)));
+        assertEquals(descendentes.subList(2, 4), ids(pessoaDao.findAll(2, 2, List.of("id"), false)));
+    }
+
+    @Test
+    @ActivateRequestContext
+    public void testAtributoDeOrdenacaoInvalido() {
+        Exception e = assertThrows(Exception.class, () -> pessoaDao.findAll(List.of("id; DROP TABLE x"), true));
+        assertTrue(e.getCause() instanceof IllegalArgumentException);
+    }
+
+    private static List<Integer> ids(List<PessoaEntity> pessoas) {
+        return pessoas.stream().map(PessoaEntity::getId).collect(Collectors.toList());
+    }
+
+}
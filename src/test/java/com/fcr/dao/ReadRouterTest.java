@@ -0,0 +1,195 @@
+package com.fcr.dao;
+
+import static io.restassured.RestAssured.given;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import javax.enterprise.context.control.ActivateRequestContext;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.transaction.UserTransaction;
+
+import org.junit.jupiter.api.Test;
+
+import com.fcr.dao.ReadRouterTest.ReplicaProfile;
+import com.fcr.pessoa.PessoaDao;
+import com.fcr.pessoa.PessoaEntity;
+
+import io.quarkus.hibernate.orm.PersistenceUnit;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.ContentType;
+import io.restassured.specification.RequestSpecification;
+
+/**
+ * Primária e réplica são dois H2 independentes, sem replicação: o que cada
+ * leitura enxerga mostra de qual datasource ela veio. A réplica só existe
+ * neste perfil.
+ */
+@QuarkusTest
+@TestProfile(ReplicaProfile.class)
+public class ReadRouterTest {
+
+    private static final long STICKY_MS = 500;
+
+    @Inject
+    PessoaDao pessoaDao;
+
+    @Inject
+    @PersistenceUnit("replica")
+    EntityManager replica;
+
+    @Inject
+    ReadSession session;
+
+    @Inject
+    UserTransaction tx;
+
+    public static class ReplicaProfile implements QuarkusTestProfile {
+
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("dao.read.replicas", "replica", "dao.read.sticky-ms", String.valueOf(STICKY_MS),
+                    "quarkus.datasource.replica.db-kind", "h2",
+                    "quarkus.datasource.replica.jdbc.url", "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1",
+                    "quarkus.hibernate-orm.packages", "com.fcr.dao,com.fcr.pessoa,com.fcr.outbox",
+                    "quarkus.hibernate-orm.\"replica\".datasource", "replica",
+                    "quarkus.hibernate-orm.\"replica\".packages", "com.fcr.pessoa,com.fcr.outbox",
+                    "quarkus.hibernate-orm.\"replica\".database.generation", "drop-and-create",
+                    "quarkus.hibernate-orm.\"replica\".second-level-caching-enabled", "false");
+        }
+    }
+
+    @Test
+    @ActivateRequestContext
+    public void testLeiturasNaReplicaEscritasNaPrimaria() throws Exception {
+        tx.begin();
+        replica.persist(pessoa("Somente na réplica"));
+        tx.commit();
+        aguardarJanela();
+
+        assertEquals(1, contar("Somente na réplica"));
+
+        // dentro de transação a leitura é na primária
+        tx.begin();
+        assertEquals(0, contar("Somente na réplica"));
+        tx.commit();
+
+        tx.begin();
+        pessoaDao.persist(pessoa("Escrita na primária"));
+        tx.commit();
+
+        // logo após a escrita: primária, lendo o que acabou de ser escrito
+        assertEquals(1, contar("Escrita na primária"));
+        assertEquals(0, contar("Somente na réplica"));
+
+        aguardarJanela();
+        assertEquals(0, contar("Escrita na primária"));
+        assertEquals(1, contar("Somente na réplica"));
+    }
+
+    @Test
+    @ActivateRequestContext
+    public void testJanelaPorCliente() throws Exception {
+        tx.begin();
+        replica.persist(pessoa("Réplica HTTP"));
+        tx.commit();
+
+        String escrita = given().contentType(ContentType.JSON).body(List.of(pessoa("Primária HTTP")))
+                .when().post("/pessoa/batch")
+                .then().statusCode(200)
+                .extract().cookie(ReadSession.COOKIE);
+        assertNotNull(escrita);
+
+        // quem escreveu lê da primária; os demais clientes seguem na réplica
+        List<String> doCliente = nomes(given().cookie(ReadSession.COOKIE, escrita));
+        assertTrue(doCliente.contains("Primária HTTP"));
+        assertFalse(doCliente.contains("Réplica HTTP"));
+
+        List<String> deOutro = nomes(given());
+        assertTrue(deOutro.contains("Réplica HTTP"));
+        assertFalse(deOutro.contains("Primária HTTP"));
+
+        // cookie inválido ou vencido: réplica
+        assertTrue(nomes(given().cookie(ReadSession.COOKIE, "x")).contains("Réplica HTTP"));
+        assertTrue(nomes(given().cookie(ReadSession.COOKIE, "1")).contains("Réplica HTTP"));
+    }
+
+    @Test
+    @ActivateRequestContext
+    public void testDetachNaReplicaDaLeitura() throws Exception {
+        tx.begin();
+        replica.persist(pessoa("Desanexada da réplica"));
+        tx.commit();
+        aguardarJanela();
+
+        PessoaEntity exemplo = pessoa("Desanexada da réplica");
+        List<PessoaEntity> lidas = pessoaDao.findByExample(exemplo, false);
+        assertEquals(1, lidas.size());
+        assertTrue(replica.contains(lidas.get(0)));
+
+        // a escrita leva as próximas leituras para a primária, mas a entidade
+        // continua no contexto da réplica em que foi lida
+        tx.begin();
+        pessoaDao.persist(pessoa("Escrita antes do detach"));
+        tx.commit();
+        pessoaDao.detach(lidas);
+        assertFalse(replica.contains(lidas.get(0)));
+    }
+
+    @Test
+    public void testListaComVersaoLidaDaPrimaria() throws Exception {
+        tx.begin();
+        replica.persist(pessoa("Réplica versionada"));
+        tx.commit();
+        given().contentType(ContentType.JSON).body(List.of(pessoa("Primária versionada")))
+                .when().post("/pessoa/batch")
+                .then().statusCode(200);
+
+        // sem o cookie da escrita a página vem da réplica, mas a lista completa
+        // leva a ETag da versão da primária e por isso é lida dela
+        assertTrue(nomes(given()).contains("Réplica versionada"));
+        for (String url : List.of("/pessoa", "/pessoa?fields=nome")) {
+            List<String> lista = given().when().get(url)
+                    .then().statusCode(200)
+                    .extract().jsonPath().getList("nome", String.class);
+            assertTrue(lista.contains("Primária versionada"), url);
+            assertFalse(lista.contains("Réplica versionada"), url);
+        }
+    }
+
+    /**
+     * Nomes da primeira página, que não leva versão e segue o rodízio.
+     */
+    private List<String> nomes(RequestSpecification requisicao) {
+        return requisicao.when().get("/pessoa?limit=100")
+                .then().statusCode(200)
+                .extract().jsonPath().getList("itens.nome", String.class);
+    }
+
+    private int contar(String nome) {
+        PessoaEntity exemplo = new PessoaEntity();
+        exemplo.setNome(nome);
+        return pessoaDao.findByExample(exemplo, false).size();
+    }
+
+    private void aguardarJanela() {
+        long ultimaEscrita = session.getLastWrite();
+        await().atMost(Duration.ofSeconds(10)).until(() -> System.currentTimeMillis() - ultimaEscrita > STICKY_MS);
+    }
+
+    private PessoaEntity pessoa(String nome) {
+        PessoaEntity pessoa = new PessoaEntity();
+        pessoa.setNome(nome);
+        return pessoa;
+    }
+
+}
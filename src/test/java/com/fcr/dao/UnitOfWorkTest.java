@@ -0,0 +1,147 @@
+package com.fcr.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.enterprise.context.control.ActivateRequestContext;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.transaction.UserTransaction;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+import com.fcr.pessoa.PessoaDao;
+import com.fcr.pessoa.PessoaEntity;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class UnitOfWorkTest {
+
+    private static final int OPERACOES = 50;
+    private static final int STATEMENTS = 0;
+    private static final int LINHAS = 1;
+
+    @Inject
+    PessoaDao pessoaDao;
+
+    @Inject
+    UnitOfWork unitOfWork;
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    UserTransaction tx;
+
+    @Test
+    @ActivateRequestContext
+    public void testFlushNoCommitAgrupaEscritas() throws Exception {
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        List<PessoaEntity> existentes = existentes("Por operação");
+        long[] antes = contadores(statistics);
+        List<PessoaEntity> novas = unitOfWork.execute(FlushMode.PER_OPERATION, 0, () -> carga(existentes));
+        long[] porOperacao = diferenca(antes, contadores(statistics));
+        conferir(existentes, novas);
+
+        List<PessoaEntity> existentesAdiadas = existentes("Adiada");
+        antes = contadores(statistics);
+        novas = unitOfWork.execute(() -> carga(existentesAdiadas));
+        long[] adiado = diferenca(antes, contadores(statistics));
+        conferir(existentesAdiadas, novas);
+
+        // por operação: um insert, um update e um delete por pessoa, cada um no
+        // seu statement. No commit, os inserts de pessoa e da outbox seguem em
+        // batches separados, e updates e deletes em um batch cada. A folga cobre
+        // as idas à sequence e os statements de outras threads (relay da outbox)
+        assertTrue(porOperacao[STATEMENTS] >= OPERACOES * 3, porOperacao[STATEMENTS] + " statements por operação");
+        assertTrue(porOperacao[LINHAS] >= OPERACOES * 6, porOperacao[LINHAS] + " linhas por operação");
+        assertTrue(adiado[LINHAS] >= OPERACOES * 6, adiado[LINHAS] + " linhas no commit");
+        long linhasPorStatement = adiado[LINHAS] / adiado[STATEMENTS];
+        assertTrue(linhasPorStatement >= 10,
+                adiado[LINHAS] + " linhas em " + adiado[STATEMENTS] + " statements no commit");
+    }
+
+    @Test
+    @ActivateRequestContext
+    public void testFlushACadaNOperacoes() throws Exception {
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        List<PessoaEntity> existentes = existentes("Intervalo");
+
+        long antes = statistics.getFlushCount();
+        List<PessoaEntity> novas = unitOfWork.execute(FlushMode.DEFERRED, 10, () -> carga(existentes));
+        long flushes = statistics.getFlushCount() - antes;
+
+        conferir(existentes, novas);
+        assertTrue(flushes >= OPERACOES * 3 / 10, flushes + " flushes");
+        assertTrue(flushes < OPERACOES * 3, flushes + " flushes");
+    }
+
+    /**
+     * Statements preparados e linhas escritas (inserts, updates e deletes de
+     * todas as entidades) até agora.
+     */
+    private static long[] contadores(Statistics statistics) {
+        return new long[] { statistics.getPrepareStatementCount(), statistics.getEntityInsertCount()
+                + statistics.getEntityUpdateCount() + statistics.getEntityDeleteCount() };
+    }
+
+    private static long[] diferenca(long[] antes, long[] depois) {
+        return new long[] { depois[STATEMENTS] - antes[STATEMENTS], depois[LINHAS] - antes[LINHAS] };
+    }
+
+    /**
+     * Para cada i, insere uma pessoa nova, altera existentes[i] e remove
+     * existentes[OPERACOES + i].
+     */
+    private List<PessoaEntity> carga(List<PessoaEntity> existentes) throws Exception {
+        List<PessoaEntity> novas = new ArrayList<>();
+        for (int i = 0; i < OPERACOES; i++) {
+            PessoaEntity nova = new PessoaEntity();
+            nova.setNome("Unidade de trabalho " + i);
+            novas.add(pessoaDao.persist(nova));
+
+            PessoaEntity alterada = existentes.get(i);
+            alterada.setNome(alterada.getNome() + " alterada");
+            pessoaDao.merge(alterada);
+
+            pessoaDao.remove(existentes.get(OPERACOES + i).getId());
+        }
+        return novas;
+    }
+
+    private List<PessoaEntity> existentes(String nome) throws Exception {
+        List<PessoaEntity> pessoas = new ArrayList<>();
+        for (int i = 0; i < OPERACOES * 2; i++) {
+            PessoaEntity pessoa = new PessoaEntity();
+            pessoa.setNome(nome + " " + i);
+            pessoas.add(pessoa);
+        }
+        tx.begin();
+        pessoaDao.persistAll(pessoas);
+        tx.commit();
+        return pessoas;
+    }
+
+    private void conferir(List<PessoaEntity> existentes, List<PessoaEntity> novas) throws Exception {
+        tx.begin();
+        try {
+            for (int i = 0; i < OPERACOES; i++) {
+                PessoaEntity alterada = existentes.get(i);
+                assertEquals(alterada.getNome(), em.find(PessoaEntity.class, alterada.getId()).getNome());
+                assertNull(em.find(PessoaEntity.class, existentes.get(OPERACOES + i).getId()));
+                assertEquals(novas.get(i).getNome(), em.find(PessoaEntity.class, novas.get(i).getId()).getNome());
+            }
+        } finally {
+            tx.commit();
+        }
+    }
+
+}
@@ -0,0 +1,126 @@
+package com.fcr.outbox;
+
+import static io.restassured.RestAssured.given;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.enterprise.context.control.ActivateRequestContext;
+import javax.enterprise.inject.Any;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.transaction.UserTransaction;
+
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fcr.InMemoryMessagingResource;
+import com.fcr.pessoa.PessoaDao;
+import com.fcr.pessoa.PessoaEntity;
+
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.smallrye.reactive.messaging.kafka.api.OutgoingKafkaRecordMetadata;
+import io.smallrye.reactive.messaging.providers.connectors.InMemoryConnector;
+import io.smallrye.reactive.messaging.providers.connectors.InMemorySink;
+
+@QuarkusTest
+@QuarkusTestResource(InMemoryMessagingResource.class)
+public class OutboxTest {
+
+    @Inject
+    @Any
+    InMemoryConnector connector;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    PessoaDao pessoaDao;
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    UserTransaction tx;
+
+    @Test
+    public void testLotePublicaUmEventoPorPessoa() throws Exception {
+        InMemorySink<String> sink = connector.sink(OutboxRelay.CANAL);
+        given().contentType(ContentType.JSON).body(criar("Outbox publicado", 1_200))
+                .when().post("/pessoa/batch")
+                .then().statusCode(200);
+
+        await().atMost(Duration.ofSeconds(30))
+                .until(() -> eventos(sink, "Outbox publicado").size() == 1_200);
+
+        for (Map.Entry<String, JsonNode> evento : eventos(sink, "Outbox publicado").entrySet()) {
+            assertEquals("PessoaEntity", evento.getValue().get("entidade").asText());
+            assertEquals("PERSIST", evento.getValue().get("tipo").asText());
+            assertEquals(evento.getKey(), evento.getValue().get("id").asText());
+        }
+
+        await().atMost(Duration.ofSeconds(30)).until(() -> pendentes() == 0L);
+    }
+
+    @Test
+    @ActivateRequestContext
+    public void testTransacaoDesfeitaNaoPublica() throws Exception {
+        InMemorySink<String> sink = connector.sink(OutboxRelay.CANAL);
+        tx.begin();
+        pessoaDao.persistAll(criar("Outbox desfeito", 10));
+        tx.rollback();
+
+        await().atMost(Duration.ofSeconds(30)).until(() -> pendentes() == 0L);
+        assertTrue(eventos(sink, "Outbox desfeito").isEmpty());
+    }
+
+    /**
+     * Eventos recebidos de pessoas com o nome iniciado pelo prefixo, pela
+     * chave da mensagem.
+     */
+    private Map<String, JsonNode> eventos(InMemorySink<String> sink, String prefixo) throws Exception {
+        Map<String, JsonNode> eventos = new HashMap<>();
+        for (Message<String> mensagem : new ArrayList<>(sink.received())) {
+            JsonNode evento = objectMapper.readTree(mensagem.getPayload());
+            JsonNode dados = evento.get("dados");
+            if (dados != null && dados.hasNonNull("nome") && dados.get("nome").asText().startsWith(prefixo)) {
+                String chave = mensagem.getMetadata(OutgoingKafkaRecordMetadata.class)
+                        .map(meta -> String.valueOf(meta.getKey())).orElse(null);
+                eventos.put(chave, evento);
+            }
+        }
+        return eventos;
+    }
+
+    private long pendentes() throws Exception {
+        tx.begin();
+        try {
+            return em.createQuery("SELECT count(a) FROM OutboxEntity a", Long.class).getSingleResult();
+        } finally {
+            tx.commit();
+        }
+    }
+
+    private List<PessoaEntity> criar(String prefixo, int quantidade) {
+        List<PessoaEntity> pessoas = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            PessoaEntity pessoa = new PessoaEntity();
+            pessoa.setNome(prefixo + " " + i);
+            pessoa.setIdade(i % 90);
+            pessoa.setSexo(i % 2 == 0 ? 'F' : 'M');
+            pessoas.add(pessoa);
+        }
+        return pessoas;
+    }
+
+}
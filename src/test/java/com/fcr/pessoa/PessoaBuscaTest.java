@@ -0,0 +1,66 @@
+package com.fcr.pessoa;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+
+@QuarkusTest
+public class PessoaBuscaTest {
+
+    @Test
+    public void testBuscaPorTrechoDoNome() {
+        List<PessoaEntity> pessoas = List.of(
+                pessoa("Ana Qwérzul da Silva"),
+                pessoa("Qwerzul"),
+                pessoa("Maria Qwerzul"),
+                pessoa("Maria Qwer"));
+        given().contentType(ContentType.JSON).body(pessoas)
+                .when().post("/pessoa/batch")
+                .then().statusCode(200);
+
+        List<Integer> ids = given().queryParam("nome", "QWERZUL")
+                .when().get("/pessoa/search")
+                .then().statusCode(200)
+                .body("nome", contains("Qwerzul", "Maria Qwerzul", "Ana Qwérzul da Silva"))
+                .extract().jsonPath().getList("id", Integer.class);
+
+        given().queryParam("nome", "qwerzul").queryParam("limit", 1)
+                .when().get("/pessoa/search")
+                .then().statusCode(200)
+                .body("size()", is(1));
+
+        PessoaEntity renomeada = pessoa("Maria Souza");
+        renomeada.setId(ids.get(1));
+        given().contentType(ContentType.JSON).body(List.of(renomeada))
+                .when().post("/pessoa/batch?upsert=true")
+                .then().statusCode(200);
+
+        given().queryParam("nome", "qwerzul")
+                .when().get("/pessoa/search")
+                .then().statusCode(200)
+                .body("id", contains(ids.get(0), ids.get(2)));
+    }
+
+    @Test
+    public void testTermoCurtoRetorna400() {
+        given().queryParam("nome", "qw")
+                .when().get("/pessoa/search")
+                .then().statusCode(400);
+    }
+
+    private PessoaEntity pessoa(String nome) {
+        PessoaEntity pessoa = new PessoaEntity();
+        pessoa.setNome(nome);
+        pessoa.setIdade(30);
+        pessoa.setSexo('F');
+        return pessoa;
+    }
+
+}
@@ -0,0 +1,113 @@
+package com.fcr.pessoa;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import javax.enterprise.context.control.ActivateRequestContext;
+import javax.inject.Inject;
+import javax.persistence.Cache;
+import javax.transaction.UserTransaction;
+
+import org.junit.jupiter.api.Test;
+
+import com.fcr.dao.CacheStatistics;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class PessoaCacheTest {
+
+    @Inject
+    PessoaDao pessoaDao;
+
+    @Inject
+    UserTransaction tx;
+
+    @Test
+    @ActivateRequestContext
+    public void testFindPelaRegiaoDeEntidades() throws Exception {
+        PessoaEntity pessoa = new PessoaEntity();
+        pessoa.setNome("Em cache");
+        tx.begin();
+        pessoaDao.persist(pessoa);
+        tx.commit();
+        pessoaDao.evictCache(pessoa.getId());
+
+        CacheStatistics antes = pessoaDao.getCacheStatistics();
+        tx.begin();
+        assertEquals("Em cache", pessoaDao.find(pessoa.getId()).getNome());
+        tx.commit();
+        CacheStatistics depoisDoMiss = pessoaDao.getCacheStatistics();
+        assertEquals(antes.getMisses() + 1, depoisDoMiss.getMisses());
+        assertEquals(antes.getPuts() + 1, depoisDoMiss.getPuts());
+
+        tx.begin();
+        assertEquals("Em cache", pessoaDao.find(pessoa.getId()).getNome());
+        tx.commit();
+        assertEquals(depoisDoMiss.getHits() + 1, pessoaDao.getCacheStatistics().getHits());
+    }
+
+    @Test
+    @ActivateRequestContext
+    public void testUpsertRemoveDoCacheSoAsGravadas() throws Exception {
+        PessoaEntity mantida = new PessoaEntity();
+        mantida.setNome("Fora do upsert");
+        PessoaEntity gravada = new PessoaEntity();
+        gravada.setNome("Antes do upsert");
+        tx.begin();
+        pessoaDao.persist(mantida);
+        pessoaDao.persist(gravada);
+        tx.commit();
+        tx.begin();
+        pessoaDao.find(mantida.getId());
+        pessoaDao.find(gravada.getId());
+        tx.commit();
+        Cache cache = pessoaDao.getEntityManager().getEntityManagerFactory().getCache();
+        assertTrue(cache.contains(PessoaEntity.class, mantida.getId()));
+        assertTrue(cache.contains(PessoaEntity.class, gravada.getId()));
+
+        PessoaEntity alterada = new PessoaEntity();
+        alterada.setId(gravada.getId());
+        alterada.setNome("Depois do upsert");
+        tx.begin();
+        pessoaDao.upsertAll(List.of(alterada));
+        // até o commit, o cache continua com a versão confirmada
+        assertTrue(cache.contains(PessoaEntity.class, gravada.getId()));
+        tx.commit();
+
+        assertTrue(cache.contains(PessoaEntity.class, mantida.getId()));
+        assertFalse(cache.contains(PessoaEntity.class, gravada.getId()));
+        tx.begin();
+        assertEquals("Depois do upsert", pessoaDao.find(gravada.getId()).getNome());
+        tx.commit();
+    }
+
+    @Test
+    @ActivateRequestContext
+    public void testListaCompletaSemCacheDeConsultas() throws Exception {
+        CacheStatistics antes = pessoaDao.getCacheStatistics();
+        pessoaDao.obterTodos();
+        pessoaDao.obterTodos();
+        pessoaDao.findAll();
+        CacheStatistics depois = pessoaDao.getCacheStatistics();
+        assertEquals(antes.getQueryPuts(), depois.getQueryPuts());
+        assertEquals(antes.getQueryHits(), depois.getQueryHits());
+        assertEquals(antes.getQueryMisses(), depois.getQueryMisses());
+    }
+
+    @Test
+    public void testEndpointDeEstatisticas() {
+        given().when().get("/pessoa/cache")
+                .then().statusCode(200)
+                .body("region", is(PessoaEntity.class.getName()))
+                .body("$", not(hasKey("evictions")));
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.fcr.pessoa;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.transaction.UserTransaction;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class PessoaCamposTest {
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    UserTransaction tx;
+
+    @Test
+    public void testSomenteCamposPedidos() throws Exception {
+        PessoaEntity pessoa = new PessoaEntity();
+        pessoa.setNome("Projeção");
+        pessoa.setIdade(33);
+        pessoa.setSexo('F');
+        tx.begin();
+        em.persist(pessoa);
+        tx.commit();
+
+        List<Map<String, Object>> linhas = given().queryParam("fields", "id, nome")
+                .when().get("/pessoa")
+                .then().statusCode(200)
+                .extract().jsonPath().getList("$");
+        assertFalse(linhas.isEmpty());
+        for (Map<String, Object> linha : linhas) {
+            assertEquals(Set.of("id", "nome"), linha.keySet());
+        }
+        assertTrue(linhas.stream().anyMatch(linha -> pessoa.getId().equals(linha.get("id"))
+                && "Projeção".equals(linha.get("nome"))));
+
+        List<Map<String, Object>> nomes = given().queryParam("fields", "nome")
+                .when().get("/pessoa")
+                .then().statusCode(200)
+                .extract().jsonPath().getList("$");
+        assertEquals(linhas.size(), nomes.size());
+        for (Map<String, Object> linha : nomes) {
+            assertEquals(Set.of("nome"), linha.keySet());
+        }
+    }
+
+    @Test
+    public void testCampoInvalido() {
+        given().queryParam("fields", "id,senha")
+                .when().get("/pessoa")
+                .then().statusCode(400);
+        given().queryParam("fields", "id")
+                .queryParam("limit", 10)
+                .when().get("/pessoa")
+                .then().statusCode(400);
+    }
+
+}
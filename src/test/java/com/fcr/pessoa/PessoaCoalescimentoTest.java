@@ -0,0 +1,68 @@
+package com.fcr.pessoa;
+
+import static io.restassured.RestAssured.given;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+
+import com.fcr.utils.SingleFlight;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class PessoaCoalescimentoTest {
+
+    private static final int REQUISICOES = 5;
+
+    @Inject
+    PessoaConsultasCompartilhadas consultas;
+
+    @Test
+    public void testGetSimultaneosCompartilhamAConsulta() throws Exception {
+        SingleFlight<List<Object>, Object> todos = consultas.singleFlight("todos");
+        PessoaEntity compartilhada = new PessoaEntity();
+        compartilhada.setId(-1);
+        compartilhada.setNome("Resultado compartilhado");
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(REQUISICOES + 1);
+        try {
+            // ocupa a consulta da versão atual, como uma requisição anterior ainda no banco
+            List<Object> chave = consultas.chave(List.of());
+            Future<Object> emAndamento = executor.submit(() -> todos.executar(chave, () -> {
+                liberar.await();
+                return List.of(compartilhada);
+            }));
+            long coalescidas = todos.getCoalescidas();
+            List<Future<List<String>>> requisicoes = new ArrayList<>();
+            for (int i = 0; i < REQUISICOES; i++) {
+                requisicoes.add(executor.submit(() -> given().when().get("/pessoa")
+                        .then().statusCode(200)
+                        .extract().jsonPath().getList("nome", String.class)));
+            }
+            await().atMost(Duration.ofSeconds(10)).until(() -> todos.getCoalescidas() == coalescidas + REQUISICOES);
+            liberar.countDown();
+
+            emAndamento.get();
+            for (Future<List<String>> requisicao : requisicoes) {
+                assertEquals(List.of("Resultado compartilhado"), requisicao.get());
+            }
+            assertEquals(0, todos.getExpiradas());
+        } finally {
+            liberar.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,132 @@
+package com.fcr.pessoa;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fcr.dao.EntityChange;
+import com.fcr.dao.EntityVersions;
+
+public class PessoaEstatisticasMaterializadasTest {
+
+    private static final int FAIXA = 10;
+
+    private PessoaEstatisticasMaterializadas materializadas;
+
+    /** Versão que a "transação" da próxima escrita confirmou */
+    private long confirmada;
+
+    @BeforeEach
+    void criar() {
+        materializadas = new PessoaEstatisticasMaterializadas();
+        materializadas.entityVersions = new EntityVersions() {
+
+            @Override
+            public Long getCommittedVersion(Class<?> entityClass) {
+                return confirmada;
+            }
+        };
+    }
+
+    @Test
+    public void testNotificacaoDepoisDaCargaNaoContaDuasVezes() {
+        // a escrita da versão 5 foi confirmada e já está na carga...
+        assertEquals(1, materializadas.obter(FAIXA, () -> linhas(5, new Object[] { 30, 'F', 1L })).getTotal());
+
+        // ...e a notificação dela chega depois
+        escrever(5, EntityChange.Type.PERSIST, 30, 'F');
+        assertEquals(1, obter().getTotal());
+
+        escrever(6, EntityChange.Type.PERSIST, 40, 'M');
+        PessoaEstatisticas estatisticas = obter();
+        assertEquals(2, estatisticas.getTotal());
+        assertEquals(Map.of("F", 1L, "M", 1L), estatisticas.getPorSexo());
+
+        escrever(7, EntityChange.Type.REMOVE, 30, 'F');
+        assertEquals(1, obter().getTotal());
+    }
+
+    @Test
+    public void testEscritasDuranteACarga() {
+        PessoaEstatisticas estatisticas = materializadas.obter(FAIXA, () -> {
+            escrever(3, EntityChange.Type.PERSIST, 20, 'F');
+            escrever(4, EntityChange.Type.PERSIST, 50, 'M');
+            // a consulta viu até a versão 3
+            return linhas(3, new Object[] { 20, 'F', 2L });
+        });
+        assertEquals(3, estatisticas.getTotal());
+        assertEquals(Integer.valueOf(50), estatisticas.getIdadeMaxima());
+    }
+
+    @Test
+    public void testMergeComAnteriorAjusta() {
+        materializadas.obter(FAIXA, () -> linhas(1, new Object[] { 30, 'F', 2L }, new Object[] { 40, 'M', 1L }));
+        PessoaEntity anterior = pessoa(30, 'F');
+
+        escrever(2, EntityChange.Type.MERGE, pessoa(45, 'M'), anterior);
+        PessoaEstatisticas estatisticas = obter();
+        assertEquals(3, estatisticas.getTotal());
+        assertEquals(Map.of("F", 1L, "M", 2L), estatisticas.getPorSexo());
+        assertEquals(Integer.valueOf(45), estatisticas.getIdadeMaxima());
+
+        // o último da idade sai da faixa
+        escrever(3, EntityChange.Type.MERGE, pessoa(41, 'M'), pessoa(45, 'M'));
+        assertEquals(Integer.valueOf(41), obter().getIdadeMaxima());
+        assertEquals(Map.of("30-39", 1L, "40-49", 2L), obter().getFaixasIdade());
+    }
+
+    @Test
+    public void testMergeRecarrega() {
+        materializadas.obter(FAIXA, () -> linhas(1, new Object[] { 30, 'F', 1L }));
+        // merge já visto pela carga: ignorado
+        escrever(1, EntityChange.Type.MERGE, 31, 'F');
+        assertEquals(Integer.valueOf(30), obter().getIdadeMaxima());
+
+        escrever(2, EntityChange.Type.MERGE, 31, 'F');
+        assertEquals(Integer.valueOf(31),
+                materializadas.obter(FAIXA, () -> linhas(2, new Object[] { 31, 'F', 1L })).getIdadeMaxima());
+    }
+
+    @Test
+    public void testTabelaVazia() {
+        assertEquals(0, materializadas.obter(FAIXA, () -> linhas(8, new Object[] { null, null, 0L })).getTotal());
+        escrever(9, EntityChange.Type.PERSIST, null, null);
+        assertEquals(1, obter().getTotal());
+    }
+
+    private PessoaEstatisticas obter() {
+        return materializadas.obter(FAIXA, () -> {
+            throw new AssertionError("não deveria recarregar");
+        });
+    }
+
+    private void escrever(long versao, EntityChange.Type tipo, Integer idade, Character sexo) {
+        escrever(versao, tipo, pessoa(idade, sexo), null);
+    }
+
+    private void escrever(long versao, EntityChange.Type tipo, PessoaEntity pessoa, PessoaEntity anterior) {
+        confirmada = versao;
+        materializadas.onChange(new EntityChange(PessoaEntity.class, tipo, pessoa, anterior));
+    }
+
+    private static PessoaEntity pessoa(Integer idade, Character sexo) {
+        PessoaEntity pessoa = new PessoaEntity();
+        pessoa.setIdade(idade);
+        pessoa.setSexo(sexo);
+        return pessoa;
+    }
+
+    private static List<Object[]> linhas(long versao, Object[]... grupos) {
+        List<Object[]> linhas = new ArrayList<>();
+        for (Object[] grupo : grupos) {
+            linhas.add(new Object[] { versao, grupo[0], grupo[1], grupo[2] });
+        }
+        return linhas;
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.fcr.pessoa;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.enterprise.context.control.ActivateRequestContext;
+import javax.inject.Inject;
+import javax.transaction.UserTransaction;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+
+@QuarkusTest
+public class PessoaEstatisticasTest {
+
+    private static final int FAIXA = 10;
+
+    @Inject
+    PessoaDao pessoaDao;
+
+    @Inject
+    PessoaEstatisticasMaterializadas materializadas;
+
+    @Inject
+    UserTransaction tx;
+
+    @Test
+    @ActivateRequestContext
+    public void testMaterializadasAcompanhamGroupBy() throws Exception {
+        materializadas.invalidar();
+        comparar();
+
+        List<PessoaEntity> pessoas = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            PessoaEntity pessoa = new PessoaEntity();
+            pessoa.setNome("Estatistica " + i);
+            pessoa.setIdade(150 + i);
+            pessoa.setSexo(i % 2 == 0 ? 'F' : 'M');
+            pessoas.add(pessoa);
+        }
+        tx.begin();
+        pessoaDao.persistAll(pessoas);
+        tx.commit();
+        given().when().get("/pessoa/stats")
+                .then().statusCode(200)
+                .body("faixasIdade.'150-159'", is(10))
+                .body("idadeMaxima", is(159));
+        comparar();
+
+        tx.begin();
+        pessoaDao.remove(pessoas.get(9).getId());
+        tx.commit();
+        comparar();
+
+        pessoas.get(0).setIdade(null);
+        given().contentType(ContentType.JSON).body(pessoas.subList(0, 1))
+                .when().post("/pessoa/batch?upsert=true")
+                .then().statusCode(200);
+        comparar();
+    }
+
+    private void comparar() throws Exception {
+        tx.begin();
+        try {
+            PessoaEstatisticas esperado = pessoaDao.obterEstatisticas(FAIXA);
+            PessoaEstatisticas obtido = materializadas.obter(FAIXA, pessoaDao::contarPorIdadeESexo);
+            assertEquals(esperado.getTotal(), obtido.getTotal());
+            assertEquals(esperado.getPorSexo(), obtido.getPorSexo());
+            assertEquals(esperado.getIdadeMinima(), obtido.getIdadeMinima());
+            assertEquals(esperado.getIdadeMaxima(), obtido.getIdadeMaxima());
+            assertEquals(esperado.getIdadeMedia(), obtido.getIdadeMedia(), 1e-6);
+            assertEquals(esperado.getFaixasIdade(), obtido.getFaixasIdade());
+        } finally {
+            tx.commit();
+        }
+    }
+
+}
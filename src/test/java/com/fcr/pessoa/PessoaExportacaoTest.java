@@ -0,0 +1,93 @@
+package com.fcr.pessoa;
+
+import static io.restassured.RestAssured.given;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+
+@QuarkusTest
+public class PessoaExportacaoTest {
+
+    @Inject
+    PessoaExportacoes exportacoes;
+
+    @ConfigProperty(name = "pessoa.export.diretorio")
+    String diretorio;
+
+    @Test
+    public void testExportacaoCsv() {
+        PessoaEntity pessoa = new PessoaEntity();
+        pessoa.setNome("Exportação, \"aspas\"");
+        pessoa.setIdade(33);
+        pessoa.setSexo('F');
+        given().contentType(ContentType.JSON).body(List.of(pessoa))
+                .when().post("/pessoa/batch")
+                .then().statusCode(200);
+
+        String id = given().when().post("/pessoa/exports")
+                .then().statusCode(202)
+                .header("Location", containsString("/pessoa/exports/"))
+                .extract().path("id");
+        await().atMost(Duration.ofSeconds(30)).until(() -> "CONCLUIDA".equals(situacao(id).path("status")));
+
+        int linhas = situacao(id).path("linhas");
+        Response download = given().when().get("/pessoa/exports/" + id + "/download")
+                .then().statusCode(200)
+                .contentType("text/csv")
+                .extract().response();
+        String[] csv = download.asString().split("\n");
+        assertEquals("id,nome,idade,sexo", csv[0]);
+        assertEquals(linhas + 1, csv.length);
+        assertTrue(download.asString().contains(",\"Exportação, \"\"aspas\"\"\",33,F"));
+    }
+
+    @Test
+    public void testExportacaoInvalida() {
+        given().when().post("/pessoa/exports?formato=parquet")
+                .then().statusCode(400);
+        given().when().get("/pessoa/exports/inexistente")
+                .then().statusCode(404);
+        given().when().get("/pessoa/exports/inexistente/download")
+                .then().statusCode(404);
+    }
+
+    @Test
+    public void testVarreduraApagaArquivosOrfaos() throws Exception {
+        Path pasta = Files.createDirectories(Path.of(diretorio));
+        Path csv = Files.writeString(pasta.resolve("orfa.csv"), "id,nome,idade,sexo\n");
+        Path parcial = Files.writeString(pasta.resolve("orfa.csv.part"), "id,nome");
+        Path outro = Files.writeString(pasta.resolve("leia-me.txt"), "não é exportação");
+
+        exportacoes.varrer();
+
+        assertFalse(Files.exists(csv));
+        assertFalse(Files.exists(parcial));
+        assertTrue(Files.exists(outro));
+        Files.delete(outro);
+    }
+
+    private Response situacao(String id) {
+        return given().when().get("/pessoa/exports/" + id)
+                .then().statusCode(200)
+                .body("formato", is("csv"))
+                .extract().response();
+    }
+
+}
@@ -0,0 +1,112 @@
+package com.fcr.pessoa;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fcr.utils.BinaryMediaTypes;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+
+@QuarkusTest
+public class PessoaFormatoTest {
+
+    private static final TypeReference<List<PessoaEntity>> LISTA = new TypeReference<List<PessoaEntity>>() {
+    };
+
+    @Test
+    public void testListaEmFormatosBinarios() throws Exception {
+        PessoaEntity pessoa = new PessoaEntity();
+        pessoa.setNome("Formato binário");
+        given().contentType(ContentType.JSON).body(List.of(pessoa))
+                .when().post("/pessoa/batch")
+                .then().statusCode(200);
+
+        byte[] json = obter("/pessoa", ContentType.JSON.toString());
+        List<List<Object>> esperado = campos(new ObjectMapper().readValue(json, LISTA));
+
+        byte[] cbor = obter("/pessoa", BinaryMediaTypes.CBOR);
+        assertEquals(esperado, campos(new CBORMapper().readValue(cbor, LISTA)));
+        assertTrue(cbor.length < json.length, "CBOR: " + cbor.length + " bytes, JSON: " + json.length);
+
+        byte[] smile = obter("/pessoa", BinaryMediaTypes.SMILE);
+        assertEquals(esperado, campos(new SmileMapper().readValue(smile, LISTA)));
+        assertTrue(smile.length < json.length, "Smile: " + smile.length + " bytes, JSON: " + json.length);
+
+        assertEquals(esperado,
+                campos(new CBORMapper().readValue(obter("/pessoa/stream", BinaryMediaTypes.CBOR), LISTA)));
+    }
+
+    @Test
+    public void testEtagPorFormato() {
+        String json = etag(ContentType.JSON.toString());
+        String cbor = etag(BinaryMediaTypes.CBOR);
+        assertNotEquals(json, cbor);
+        assertNotEquals(json, etag(BinaryMediaTypes.SMILE));
+
+        // a tag de um formato não vale para outro
+        given().accept(BinaryMediaTypes.CBOR).header("If-None-Match", cbor)
+                .when().get("/pessoa")
+                .then().statusCode(304)
+                .header("Vary", containsString("Accept"));
+        given().accept(ContentType.JSON).header("If-None-Match", cbor)
+                .when().get("/pessoa")
+                .then().statusCode(200);
+    }
+
+    @Test
+    public void testNegociacaoPorQualidade() {
+        obter("/pessoa", BinaryMediaTypes.CBOR + ";q=0.5, application/json", ContentType.JSON.toString());
+        obter("/pessoa", "application/json;q=0.1, " + BinaryMediaTypes.SMILE, BinaryMediaTypes.SMILE);
+        obter("/pessoa/stream", "application/x-ndjson;q=0, */*", ContentType.JSON.toString());
+        obter("/pessoa/stream", BinaryMediaTypes.CBOR + ";q=0.2, application/x-ndjson",
+                PessoaStreamingOutput.APPLICATION_NDJSON);
+        given().accept(BinaryMediaTypes.CBOR + ";q=0")
+                .when().get("/pessoa")
+                .then().statusCode(406);
+    }
+
+    private String etag(String tipo) {
+        return given().accept(tipo)
+                .when().get("/pessoa")
+                .then().statusCode(200)
+                .header("Vary", containsString("Accept"))
+                .extract().header("ETag");
+    }
+
+    private byte[] obter(String path, String accept, String tipo) {
+        return given().accept(accept)
+                .when().get(path)
+                .then().statusCode(200)
+                .header("Content-Type", startsWith(tipo))
+                .extract().asByteArray();
+    }
+
+    /**
+     * Campos de cada pessoa, já que PessoaEntity só compara o id.
+     */
+    private static List<List<Object>> campos(List<PessoaEntity> pessoas) {
+        return pessoas.stream()
+                .map(p -> Arrays.<Object>asList(p.getId(), p.getNome(), p.getIdade(), p.getSexo()))
+                .collect(Collectors.toList());
+    }
+
+    private byte[] obter(String path, String tipo) {
+        return obter(path, tipo, tipo);
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.fcr.pessoa;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.fcr.pessoa.PessoaImportacaoLimiteTest.LimiteProfile;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.ContentType;
+
+/**
+ * Limite global de corpo pequeno: só a importação passa dele, até o seu
+ * próprio limite.
+ */
+@QuarkusTest
+@TestProfile(LimiteProfile.class)
+public class PessoaImportacaoLimiteTest {
+
+    private static final int LINHAS = 200;
+
+    public static class LimiteProfile implements QuarkusTestProfile {
+
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("quarkus.http.limits.max-body-size", "1K", "pessoa.import.max-body-size", "8K",
+                    "pessoa.import.lote", "100");
+        }
+    }
+
+    @Test
+    public void testLimiteSoParaImportacao() {
+        // ~3K: acima do limite global, abaixo do da importação
+        StringBuilder csv = new StringBuilder("nome,idade,sexo\n");
+        List<PessoaEntity> pessoas = new ArrayList<>();
+        for (int i = 0; i < LINHAS; i++) {
+            csv.append("Limite ").append(i).append(",30,F\n");
+            PessoaEntity pessoa = new PessoaEntity();
+            pessoa.setNome("Limite " + i);
+            pessoas.add(pessoa);
+        }
+        given().contentType("text/csv").body(csv.toString())
+                .when().post("/pessoa/import")
+                .then().statusCode(200)
+                .body("importadas", is(LINHAS));
+
+        given().contentType(ContentType.JSON).body(pessoas)
+                .when().post("/pessoa/batch")
+                .then().statusCode(413);
+
+        given().contentType("text/csv").body(csv.toString().repeat(3))
+                .when().post("/pessoa/import")
+                .then().statusCode(413)
+                .body("mensagem", notNullValue());
+
+        given().contentType(ContentType.JSON).body("[]")
+                .when().post("/pessoa/import")
+                .then().statusCode(415)
+                .body("mensagem", notNullValue());
+    }
+
+}
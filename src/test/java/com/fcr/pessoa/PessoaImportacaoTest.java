@@ -0,0 +1,67 @@
+package com.fcr.pessoa;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.hasItems;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.hamcrest.Matchers.contains;
+
+import org.junit.jupiter.api.Test;
+
+import com.fcr.dao.ReadSession;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+
+@QuarkusTest
+public class PessoaImportacaoTest {
+
+    private static final String CSV = "nome,idade,sexo\r\n"
+            + "Importada 1,30,F\r\n"
+            + "\"Importada, 2\",40,M\n"
+            + ",20,F\n"
+            + "Importada 4,abc,M\n"
+            + "Importada 5,-1,F\n"
+            + "\"Importada\n6\",50,M\n"
+            + "Importada 7,60,XY\n"
+            + "\n";
+
+    @Test
+    public void testImportacaoComRejeicoes() {
+        // pessoa.import.lote=2 no perfil de teste: as 3 válidas vão em 2 lotes
+        given().contentType("text/csv").body(CSV)
+                .when().post("/pessoa/import")
+                .then().statusCode(200)
+                .body("linhas", is(7))
+                .body("importadas", is(3))
+                .body("rejeitadas", is(4))
+                .body("lotes", is(2))
+                .body("lotesRejeitados", is(0))
+                .body("erros.linha", contains(4, 5, 6, 9))
+                .body("erros[0].mensagem", startsWith("nome: "))
+                // a importação gravou: o cliente passa a ler da primária
+                .cookie(ReadSession.COOKIE, notNullValue());
+
+        given().queryParam("nome", "Importada")
+                .when().get("/pessoa/search")
+                .then().statusCode(200)
+                .body("nome", hasItems("Importada 1", "Importada, 2", "Importada\n6"));
+    }
+
+    @Test
+    public void testCabecalhoInvalido() {
+        given().contentType("text/csv").body("nome,cpf\nFulano,123\n")
+                .when().post("/pessoa/import")
+                .then().statusCode(400)
+                .contentType(ContentType.JSON)
+                .body("mensagem", is("Coluna inválida: cpf"));
+        given().contentType("text/csv").body("idade\n30\n")
+                .when().post("/pessoa/import")
+                .then().statusCode(400);
+        given().contentType("text/csv").body("nome\nFulano\n")
+                .when().post("/pessoa/import?upsert=true")
+                .then().statusCode(400);
+    }
+
+}
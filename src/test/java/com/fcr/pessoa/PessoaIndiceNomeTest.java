@@ -0,0 +1,56 @@
+package com.fcr.pessoa;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.fcr.dao.EntityChange;
+
+public class PessoaIndiceNomeTest {
+
+    @Test
+    public void testBuscaSemAcentoNemCaixa() {
+        PessoaIndiceNome indice = new PessoaIndiceNome();
+        List<Integer> ids = indice.buscar("JOSE", 10, () -> linhas(new Object[] { 1, "José da Silva" },
+                new Object[] { 2, "Maria José" }, new Object[] { 3, "Joana" }));
+        assertEquals(List.of(2, 1), ids);
+    }
+
+    @Test
+    public void testEscritasDuranteACargaSaoReaplicadas() {
+        PessoaIndiceNome indice = new PessoaIndiceNome();
+        List<Integer> ids = indice.buscar("Carga", 10, () -> {
+            // confirmadas enquanto a consulta da carga roda
+            indice.onChange(new EntityChange(PessoaEntity.class, EntityChange.Type.PERSIST, pessoa(3, "Carga nova")));
+            indice.onChange(new EntityChange(PessoaEntity.class, EntityChange.Type.REMOVE, pessoa(2, null)));
+            return linhas(new Object[] { 1, "Carga antiga" }, new Object[] { 2, "Carga removida" });
+        });
+        assertEquals(List.of(3, 1), ids);
+
+        indice.onChange(new EntityChange(PessoaEntity.class, EntityChange.Type.MERGE, pessoa(1, "Outro nome")));
+        assertEquals(List.of(3), indice.buscar("Carga", 10, ArrayList::new));
+    }
+
+    @Test
+    public void testInvalidarRecarrega() {
+        PessoaIndiceNome indice = new PessoaIndiceNome();
+        assertEquals(List.of(1), indice.buscar("Primeira", 10, () -> linhas(new Object[] { 1, "Primeira" })));
+        indice.invalidar();
+        assertEquals(List.of(), indice.buscar("Primeira", 10, () -> linhas(new Object[] { 2, "Segunda" })));
+    }
+
+    private static List<Object[]> linhas(Object[]... linhas) {
+        return new ArrayList<>(List.of(linhas));
+    }
+
+    private static PessoaEntity pessoa(Integer id, String nome) {
+        PessoaEntity pessoa = new PessoaEntity();
+        pessoa.setId(id);
+        pessoa.setNome(nome);
+        return pessoa;
+    }
+
+}
@@ -0,0 +1,224 @@
+package com.fcr.pessoa;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.enterprise.inject.Any;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.transaction.UserTransaction;
+
+import org.apache.kafka.common.TopicPartition;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.junit.jupiter.api.Test;
+
+import com.fcr.InMemoryMessagingResource;
+
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.smallrye.reactive.messaging.kafka.KafkaRecord;
+import io.smallrye.reactive.messaging.kafka.api.KafkaRecordBatch;
+import io.smallrye.reactive.messaging.providers.connectors.InMemoryConnector;
+import io.smallrye.reactive.messaging.providers.connectors.InMemorySource;
+
+@QuarkusTest
+@QuarkusTestResource(InMemoryMessagingResource.class)
+public class PessoaIngestaoTest {
+
+    private static final int PRIMEIRO_ID = 5_000_000;
+    private static final int QUANTIDADE = 20_000;
+    private static final int INVALIDA_A_CADA = 1_000;
+
+    private static final int PRIMEIRO_ID_REENTREGA = 6_000_000;
+    private static final int QUANTIDADE_REENTREGA = 100;
+
+    private static final int PRIMEIRO_ID_VAZAO = 7_000_000;
+    private static final int QUANTIDADE_VAZAO = 50_000;
+    // piso conservador para o H2 em memória; gravando uma a uma a carga fica bem abaixo disso
+    private static final double VAZAO_MINIMA = 2_000;
+
+    // tamanho dos lotes entregues pelo conector (max.poll.records)
+    private static final int TAMANHO_LOTE = 500;
+
+    @Inject
+    @Any
+    InMemoryConnector connector;
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    UserTransaction tx;
+
+    private final AtomicInteger confirmadas = new AtomicInteger();
+    private final AtomicInteger rejeitadas = new AtomicInteger();
+
+    @Test
+    public void testIngestaoEmLote() throws Exception {
+        InMemorySource<Message<List<PessoaEntity>>> source = connector.source(PessoaIngestao.CANAL);
+
+        List<PessoaEntity> pessoas = new ArrayList<>(QUANTIDADE);
+        int invalidas = 0;
+        for (int i = 0; i < QUANTIDADE; i++) {
+            PessoaEntity pessoa = pessoa(PRIMEIRO_ID + i, "Ingestao " + (PRIMEIRO_ID + i));
+            if (i % INVALIDA_A_CADA == 1) {
+                // sem id: o upsert do lote inteiro falharia
+                pessoa.setId(null);
+                invalidas++;
+            } else if (i % INVALIDA_A_CADA == 2) {
+                pessoa.setNome(" ");
+                invalidas++;
+            }
+            pessoas.add(pessoa);
+        }
+        enviar(source, pessoas);
+        await().atMost(Duration.ofMinutes(2)).until(() -> confirmadas.get() + rejeitadas.get() == QUANTIDADE);
+
+        // as inválidas são rejeitadas sozinhas, sem derrubar o lote
+        assertEquals(invalidas, rejeitadas.get());
+        assertEquals(QUANTIDADE - invalidas, confirmadas.get());
+        // a confirmação só ocorre após o commit: todas as confirmadas já estão no banco
+        assertEquals((long) QUANTIDADE - invalidas, contar(PRIMEIRO_ID, PRIMEIRO_ID + QUANTIDADE));
+    }
+
+    @Test
+    public void testReentregaIdempotente() throws Exception {
+        InMemorySource<Message<List<PessoaEntity>>> source = connector.source(PessoaIngestao.CANAL);
+
+        List<PessoaEntity> entregas = new ArrayList<>(QUANTIDADE_REENTREGA);
+        for (int i = 0; i < QUANTIDADE_REENTREGA; i++) {
+            entregas.add(pessoa(PRIMEIRO_ID_REENTREGA + i, "Entrega " + i));
+        }
+        enviar(source, entregas);
+        await().atMost(Duration.ofMinutes(1)).until(() -> confirmadas.get() == QUANTIDADE_REENTREGA);
+
+        // o broker reentrega as mesmas mensagens, agora com o nome alterado
+        List<PessoaEntity> reentregas = new ArrayList<>(QUANTIDADE_REENTREGA);
+        for (int i = 0; i < QUANTIDADE_REENTREGA; i++) {
+            reentregas.add(pessoa(PRIMEIRO_ID_REENTREGA + i, "Reentrega " + i));
+        }
+        enviar(source, reentregas);
+        await().atMost(Duration.ofMinutes(1)).until(() -> confirmadas.get() == QUANTIDADE_REENTREGA * 2);
+
+        assertEquals(0, rejeitadas.get());
+        assertEquals((long) QUANTIDADE_REENTREGA,
+                contar(PRIMEIRO_ID_REENTREGA, PRIMEIRO_ID_REENTREGA + QUANTIDADE_REENTREGA));
+        tx.begin();
+        try {
+            List<String> nomes = em.createQuery("SELECT a.nome FROM PessoaEntity a WHERE a.id >= :de AND a.id < :ate",
+                    String.class)
+                    .setParameter("de", PRIMEIRO_ID_REENTREGA)
+                    .setParameter("ate", PRIMEIRO_ID_REENTREGA + QUANTIDADE_REENTREGA)
+                    .getResultList();
+            assertEquals(QUANTIDADE_REENTREGA, nomes.stream().filter(nome -> nome.startsWith("Reentrega ")).count());
+        } finally {
+            tx.commit();
+        }
+    }
+
+    @Test
+    public void testVazao() throws Exception {
+        InMemorySource<Message<List<PessoaEntity>>> source = connector.source(PessoaIngestao.CANAL);
+
+        List<PessoaEntity> pessoas = new ArrayList<>(QUANTIDADE_VAZAO);
+        for (int i = 0; i < QUANTIDADE_VAZAO; i++) {
+            pessoas.add(pessoa(PRIMEIRO_ID_VAZAO + i, "Vazao " + i));
+        }
+        long inicio = System.nanoTime();
+        enviar(source, pessoas);
+        await().atMost(Duration.ofMinutes(2)).until(() -> confirmadas.get() == QUANTIDADE_VAZAO);
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        double vazao = QUANTIDADE_VAZAO / segundos;
+        assertTrue(vazao >= VAZAO_MINIMA, String.format("Vazão de %.0f pessoas/s abaixo de %.0f", vazao, VAZAO_MINIMA));
+        assertEquals(0, rejeitadas.get());
+        assertEquals((long) QUANTIDADE_VAZAO, contar(PRIMEIRO_ID_VAZAO, PRIMEIRO_ID_VAZAO + QUANTIDADE_VAZAO));
+    }
+
+    /**
+     * Entrega as pessoas como o conector Kafka faria, em lotes de até
+     * {@value #TAMANHO_LOTE} registros confirmados um a um.
+     */
+    private void enviar(InMemorySource<Message<List<PessoaEntity>>> source, List<PessoaEntity> pessoas) {
+        for (int de = 0; de < pessoas.size(); de += TAMANHO_LOTE) {
+            List<KafkaRecord<Integer, PessoaEntity>> registros = new ArrayList<>(TAMANHO_LOTE);
+            for (PessoaEntity pessoa : pessoas.subList(de, Math.min(de + TAMANHO_LOTE, pessoas.size()))) {
+                registros.add(KafkaRecord.from(Message.of(pessoa)
+                        .withAck(() -> {
+                            confirmadas.incrementAndGet();
+                            return CompletableFuture.completedFuture(null);
+                        })
+                        .withNack(erro -> {
+                            rejeitadas.incrementAndGet();
+                            return CompletableFuture.completedFuture(null);
+                        })));
+            }
+            source.send(new Lote(registros));
+        }
+    }
+
+    private static class Lote implements KafkaRecordBatch<Integer, PessoaEntity> {
+
+        private final List<KafkaRecord<Integer, PessoaEntity>> registros;
+
+        Lote(List<KafkaRecord<Integer, PessoaEntity>> registros) {
+            this.registros = registros;
+        }
+
+        @Override
+        public List<PessoaEntity> getPayload() {
+            List<PessoaEntity> pessoas = new ArrayList<>(registros.size());
+            for (KafkaRecord<Integer, PessoaEntity> registro : registros) {
+                pessoas.add(registro.getPayload());
+            }
+            return pessoas;
+        }
+
+        @Override
+        public List<KafkaRecord<Integer, PessoaEntity>> getRecords() {
+            return registros;
+        }
+
+        @Override
+        public Map<TopicPartition, KafkaRecord<Integer, PessoaEntity>> getLatestOffsetRecords() {
+            return Map.of();
+        }
+
+        @Override
+        public Iterator<KafkaRecord<Integer, PessoaEntity>> iterator() {
+            return registros.iterator();
+        }
+
+    }
+
+    private static PessoaEntity pessoa(int id, String nome) {
+        PessoaEntity pessoa = new PessoaEntity();
+        pessoa.setId(id);
+        pessoa.setNome(nome);
+        pessoa.setIdade(id % 90);
+        pessoa.setSexo(id % 2 == 0 ? 'F' : 'M');
+        return pessoa;
+    }
+
+    private long contar(int de, int ate) throws Exception {
+        tx.begin();
+        try {
+            return em.createQuery("SELECT count(a) FROM PessoaEntity a WHERE a.id >= :de AND a.id < :ate", Long.class)
+                    .setParameter("de", de)
+                    .setParameter("ate", ate)
+                    .getSingleResult();
+        } finally {
+            tx.commit();
+        }
+    }
+
+}
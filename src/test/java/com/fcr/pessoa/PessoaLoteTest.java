@@ -0,0 +1,130 @@
+package com.fcr.pessoa;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.enterprise.context.control.ActivateRequestContext;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.transaction.UserTransaction;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+import com.fcr.dao.FlushMode;
+import com.fcr.dao.UnitOfWork;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+
+@QuarkusTest
+public class PessoaLoteTest {
+
+    private static final int QUANTIDADE = 5_000;
+
+    @Inject
+    PessoaDao pessoaDao;
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    UserTransaction tx;
+
+    @Inject
+    UnitOfWork unitOfWork;
+
+    @Test
+    @ActivateRequestContext
+    public void testPersistAllComBatch() throws Exception {
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        List<PessoaEntity> umAUm = criar(null, QUANTIDADE);
+        long antes = statistics.getPrepareStatementCount();
+        // flush a cada persist, como antes da unidade de trabalho
+        unitOfWork.execute(FlushMode.PER_OPERATION, 0, () -> {
+            for (PessoaEntity pessoa : umAUm) {
+                pessoaDao.persist(pessoa);
+            }
+            return null;
+        });
+        long statementsUmAUm = statistics.getPrepareStatementCount() - antes;
+
+        List<PessoaEntity> lote = criar(null, QUANTIDADE);
+        antes = statistics.getPrepareStatementCount();
+        tx.begin();
+        pessoaDao.persistAll(lote);
+        tx.commit();
+        long statementsLote = statistics.getPrepareStatementCount() - antes;
+
+        assertTrue(statementsUmAUm >= QUANTIDADE, statementsUmAUm + " statements no persist um a um");
+        // a cada 50 pessoas: um batch de pessoas, um da outbox e uma ida a cada
+        // sequence; a folga cobre statements de outras threads (relay da outbox)
+        long esperado = QUANTIDADE / 50 * 4;
+        assertTrue(statementsLote <= esperado + 100, statementsLote + " statements no persistAll de " + QUANTIDADE);
+    }
+
+    @Test
+    public void testUpsertPorEndpoint() throws Exception {
+        List<PessoaEntity> pessoas = criar(3_000_000, 100);
+        given().contentType(ContentType.JSON).body(pessoas)
+                .when().post("/pessoa/batch?upsert=true")
+                .then().statusCode(200)
+                .body("gravados", is(100));
+
+        pessoas.forEach(pessoa -> pessoa.setNome("Atualizada " + pessoa.getId()));
+        given().contentType(ContentType.JSON).body(pessoas)
+                .when().post("/pessoa/batch?upsert=true")
+                .then().statusCode(200);
+
+        tx.begin();
+        Long atualizadas = em.createQuery("SELECT count(a) FROM PessoaEntity a WHERE a.id > 3000000 AND a.nome LIKE 'Atualizada%'", Long.class)
+                .getSingleResult();
+        tx.commit();
+        assertEquals(100L, atualizadas);
+    }
+
+    @Test
+    public void testLoteInvalidoRespondeBadRequest() throws Exception {
+        List<PessoaEntity> pessoas = criar(3_100_000, 3);
+        pessoas.get(1).setNome(" ");
+        pessoas.get(2).setIdade(-1);
+        for (String upsert : List.of("false", "true")) {
+            given().contentType(ContentType.JSON).body(pessoas)
+                    .when().post("/pessoa/batch?upsert=" + upsert)
+                    .then().statusCode(400)
+                    .body("campo", containsInAnyOrder("nome", "idade"));
+        }
+
+        tx.begin();
+        Long gravadas = em.createQuery("SELECT count(a) FROM PessoaEntity a WHERE a.id >= 3100000", Long.class)
+                .getSingleResult();
+        tx.commit();
+        assertEquals(0L, gravadas);
+    }
+
+    /**
+     * Pessoas com ids a partir de {@code primeiroId} (para upsert) ou sem id,
+     * para a sequence gerar.
+     */
+    private List<PessoaEntity> criar(Integer primeiroId, int quantidade) {
+        List<PessoaEntity> pessoas = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            PessoaEntity pessoa = new PessoaEntity();
+            pessoa.setId(primeiroId == null ? null : primeiroId + i);
+            pessoa.setNome("Lote " + i);
+            pessoa.setIdade(i % 90);
+            pessoa.setSexo(i % 2 == 0 ? 'F' : 'M');
+            pessoas.add(pessoa);
+        }
+        return pessoas;
+    }
+
+}
@@ -0,0 +1,186 @@
+package com.fcr.pessoa;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.transaction.UserTransaction;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
+import io.restassured.specification.RequestSpecification;
+
+@QuarkusTest
+public class PessoaResourceTest {
+
+    private static final int TOTAL = 20_000;
+    private static final int LIMIT = 100;
+
+    private static boolean populado;
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    UserTransaction tx;
+
+    @BeforeEach
+    void popular() throws Exception {
+        if (populado) {
+            return;
+        }
+        tx.begin();
+        for (int i = 1; i <= TOTAL; i++) {
+            PessoaEntity pessoa = new PessoaEntity();
+            pessoa.setNome(String.format("Pessoa %05d", TOTAL - i));
+            pessoa.setIdade(i % 100);
+            pessoa.setSexo(i % 2 == 0 ? 'F' : 'M');
+            em.persist(pessoa);
+            if (i % 1000 == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        tx.commit();
+        populado = true;
+    }
+
+    @Test
+    public void testPrimeiraPagina() {
+        JsonPath pagina = obterPagina(null);
+        List<Integer> ids = pagina.getList("itens.id", Integer.class);
+        assertEquals(LIMIT, ids.size());
+        assertCrescente(ids, Integer.MIN_VALUE);
+        assertNotNull(pagina.getString("next"));
+
+        List<Integer> seguinte = obterPagina(pagina.getString("next")).getList("itens.id", Integer.class);
+        assertCrescente(seguinte, ids.get(ids.size() - 1));
+    }
+
+    @Test
+    public void testPaginaProfunda() throws Exception {
+        tx.begin();
+        Integer ultimoVisto = em.createQuery("SELECT a.id FROM PessoaEntity a ORDER BY a.id", Integer.class)
+                .setFirstResult(TOTAL - LIMIT - 1)
+                .setMaxResults(1)
+                .getSingleResult();
+        tx.commit();
+        String cursor = new PessoaCursor(PessoaCursor.ORDEM_ID, ultimoVisto, null).codificar();
+
+        List<Integer> ids = obterPagina(cursor).getList("itens.id", Integer.class);
+        assertEquals(LIMIT, ids.size());
+        assertCrescente(ids, ultimoVisto);
+    }
+
+    @Test
+    public void testPaginacaoPorNome() {
+        JsonPath pagina = given().queryParam("limit", LIMIT).queryParam("ordem", "nome")
+                .when().get("/pessoa")
+                .then().statusCode(200)
+                .extract().jsonPath();
+        List<String> nomes = pagina.getList("itens.nome", String.class);
+        assertEquals(LIMIT, nomes.size());
+        for (int i = 1; i < nomes.size(); i++) {
+            assertTrue(nomes.get(i - 1).compareTo(nomes.get(i)) <= 0);
+        }
+        assertNotNull(pagina.getString("next"));
+    }
+
+    @Test
+    public void testPaginacaoPorNomeComNulos() throws Exception {
+        // nomes nulos só entram por SQL nativo (a entidade exige nome); ids fora da sequence
+        tx.begin();
+        for (int id = -3; id <= -1; id++) {
+            em.createNativeQuery("INSERT INTO PessoaEntity (id, nome) VALUES (?1, NULL)")
+                    .setParameter(1, id)
+                    .executeUpdate();
+        }
+        long total = em.createQuery("SELECT count(a) FROM PessoaEntity a", Long.class).getSingleResult();
+        tx.commit();
+
+        Set<Integer> vistos = new HashSet<>();
+        boolean nulos = false;
+        String cursor = null;
+        do {
+            RequestSpecification request = given().queryParam("limit", 1000).queryParam("ordem", "nome");
+            if (cursor != null) {
+                request.queryParam("after", cursor);
+            }
+            JsonPath pagina = request.when().get("/pessoa")
+                    .then().statusCode(200)
+                    .extract().jsonPath();
+            List<Integer> ids = pagina.getList("itens.id", Integer.class);
+            List<String> nomes = pagina.getList("itens.nome", String.class);
+            for (int i = 0; i < ids.size(); i++) {
+                assertTrue(vistos.add(ids.get(i)), "id repetido: " + ids.get(i));
+                assertTrue(!nulos || nomes.get(i) == null, "nome depois dos nulos: " + nomes.get(i));
+                nulos = nomes.get(i) == null;
+            }
+            cursor = pagina.getString("next");
+        } while (cursor != null);
+
+        assertEquals(total, vistos.size());
+        assertTrue(vistos.containsAll(List.of(-3, -2, -1)));
+    }
+
+    @Test
+    public void testCursorInvalido() {
+        given().queryParam("after", "???").queryParam("limit", LIMIT)
+                .when().get("/pessoa")
+                .then().statusCode(400);
+    }
+
+    @Test
+    public void testEtagResponde304SemAlteracao() {
+        String etag = given().when().get("/pessoa")
+                .then().statusCode(200)
+                .extract().header("ETag");
+        assertNotNull(etag);
+
+        given().header("If-None-Match", etag)
+                .when().get("/pessoa")
+                .then().statusCode(304);
+
+        PessoaEntity pessoa = new PessoaEntity();
+        pessoa.setNome("Nova");
+        given().contentType(ContentType.JSON).body(List.of(pessoa))
+                .when().post("/pessoa/batch")
+                .then().statusCode(200);
+
+        given().header("If-None-Match", etag)
+                .when().get("/pessoa")
+                .then().statusCode(200)
+                .header("ETag", not(etag));
+    }
+
+    private JsonPath obterPagina(String cursor) {
+        RequestSpecification request = given().queryParam("limit", LIMIT);
+        if (cursor != null) {
+            request.queryParam("after", cursor);
+        }
+        return request.when().get("/pessoa")
+                .then().statusCode(200)
+                .extract().jsonPath();
+    }
+
+    private void assertCrescente(List<Integer> ids, int maiorQue) {
+        int anterior = maiorQue;
+        for (Integer id : ids) {
+            assertTrue(id > anterior, "ids fora de ordem: " + ids);
+            anterior = id;
+        }
+    }
+
+}
@@ -0,0 +1,152 @@
+package com.fcr.pessoa;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.transaction.UserTransaction;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+
+@QuarkusTest
+public class PessoaSequenceTest {
+
+    private static final int QUANTIDADE = 10_000;
+    private static final int LOTE = 50;
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    UserTransaction tx;
+
+    @Test
+    public void testInsertsEmBatchComSequencePooled() throws Exception {
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        Set<Integer> ids = new HashSet<>();
+
+        tx.begin();
+        long statementsAntes = statistics.getPrepareStatementCount();
+        long insertsAntes = statistics.getEntityInsertCount();
+        for (int i = 0; i < QUANTIDADE; i++) {
+            PessoaEntity pessoa = new PessoaEntity();
+            pessoa.setNome("Sequence " + i);
+            em.persist(pessoa);
+            ids.add(pessoa.getId());
+            if ((i + 1) % LOTE == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        tx.commit();
+        long statements = statistics.getPrepareStatementCount() - statementsAntes;
+        long inserts = statistics.getEntityInsertCount() - insertsAntes;
+
+        assertEquals(QUANTIDADE, ids.size());
+        assertTrue(inserts >= QUANTIDADE, inserts + " inserts");
+        // ao menos um batch de insert por lote
+        assertTrue(statements >= QUANTIDADE / LOTE, statements + " statements para " + QUANTIDADE + " inserts");
+        // um batch de insert e uma ida à sequence a cada 50 pessoas; a folga cobre
+        // statements de outras threads (relay da outbox) no mesmo período
+        long esperado = QUANTIDADE / LOTE * 2;
+        assertTrue(statements <= esperado + 100, statements + " statements para " + QUANTIDADE + " inserts");
+    }
+
+    @Test
+    public void testUpsertAvancaSequence() throws Exception {
+        int informado = maiorId() + 1_000;
+        given().contentType(ContentType.JSON).body(List.of(pessoa(informado, "Upsert à frente")))
+                .when().post("/pessoa/batch?upsert=true")
+                .then().statusCode(200);
+
+        // sem o avanço, o bloco já reservado ou a sequence chegariam ao id informado
+        for (int i = 0; i < LOTE * 3; i++) {
+            assertTrue(persistir("Depois do upsert " + i) > informado);
+        }
+    }
+
+    @Test
+    public void testLoteComIdInformado() throws Exception {
+        int informado = maiorId() + 500;
+        given().contentType(ContentType.JSON)
+                .body(List.of(pessoa(informado, "Com id"), pessoa(null, "Sem id")))
+                .when().post("/pessoa/batch")
+                .then().statusCode(200);
+
+        tx.begin();
+        try {
+            assertEquals("Com id", em.find(PessoaEntity.class, informado).getNome());
+            assertEquals(1L, (long) em.createQuery("SELECT count(a) FROM PessoaEntity a WHERE a.nome = 'Sem id'",
+                    Long.class).getSingleResult());
+        } finally {
+            tx.commit();
+        }
+        assertTrue(persistir("Depois do lote") > informado);
+
+        // id já existente sem upsert: o lote falha inteiro
+        given().contentType(ContentType.JSON).body(List.of(pessoa(informado, "Repetido")))
+                .when().post("/pessoa/batch")
+                .then().statusCode(not(200));
+    }
+
+    @Test
+    public void testLoteMistoNaoColideComSequence() throws Exception {
+        // os próximos ids da sequence seriam proximo + 1, + 2 e + 3
+        int proximo = persistir("Antes do lote misto");
+        int informado = proximo + 2;
+        given().contentType(ContentType.JSON)
+                .body(List.of(pessoa(informado, "Misto com id"), pessoa(null, "Misto sem id"),
+                        pessoa(null, "Misto sem id"), pessoa(null, "Misto sem id")))
+                .when().post("/pessoa/batch")
+                .then().statusCode(200);
+
+        tx.begin();
+        try {
+            assertEquals("Misto com id", em.find(PessoaEntity.class, informado).getNome());
+            List<Integer> gerados = em.createQuery("SELECT a.id FROM PessoaEntity a WHERE a.nome = 'Misto sem id'",
+                    Integer.class).getResultList();
+            assertEquals(3, gerados.size());
+            assertTrue(gerados.stream().allMatch(id -> id > informado), gerados.toString());
+        } finally {
+            tx.commit();
+        }
+    }
+
+    private int maiorId() throws Exception {
+        tx.begin();
+        try {
+            Integer maior = em.createQuery("SELECT max(a.id) FROM PessoaEntity a", Integer.class).getSingleResult();
+            return maior == null ? 0 : maior;
+        } finally {
+            tx.commit();
+        }
+    }
+
+    private int persistir(String nome) throws Exception {
+        PessoaEntity pessoa = pessoa(null, nome);
+        tx.begin();
+        em.persist(pessoa);
+        tx.commit();
+        return pessoa.getId();
+    }
+
+    private static PessoaEntity pessoa(Integer id, String nome) {
+        PessoaEntity pessoa = new PessoaEntity();
+        pessoa.setId(id);
+        pessoa.setNome(nome);
+        return pessoa;
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.fcr.pessoa;
+
+import static io.restassured.RestAssured.given;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.fcr.pessoa.PessoaSnapshotTest.SnapshotProfile;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+
+@QuarkusTest
+@TestProfile(SnapshotProfile.class)
+public class PessoaSnapshotTest {
+
+    public static class SnapshotProfile implements QuarkusTestProfile {
+
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("pessoa.snapshot.enabled", "true", "pessoa.snapshot.intervalo-ms", "200");
+        }
+    }
+
+    @Test
+    public void testSnapshotAcompanhaEscritas() {
+        gravar("Snapshot 1");
+        await().atMost(Duration.ofSeconds(30)).until(() -> "gzip".equals(obter().header("Content-Encoding")));
+        List<String> nomes = obter().jsonPath().getList("nome", String.class);
+        assertTrue(nomes.contains("Snapshot 1"));
+
+        gravar("Snapshot 2");
+        // a versão mudou: a resposta seguinte nunca vem do snapshot anterior
+        List<String> depois = obter().jsonPath().getList("nome", String.class);
+        assertEquals(nomes.size() + 1, depois.size());
+        assertTrue(depois.contains("Snapshot 2"));
+
+        await().atMost(Duration.ofSeconds(30)).until(() -> "gzip".equals(obter().header("Content-Encoding")));
+        assertEquals(depois.size(), obter().jsonPath().getList("nome").size());
+    }
+
+    @Test
+    public void testGzipPorQualidadeComTagPropria() {
+        gravar("Snapshot gzip");
+        await().atMost(Duration.ofSeconds(30)).until(() -> "gzip".equals(obter().header("Content-Encoding")));
+
+        Response gzip = obter();
+        Response identidade = obter("gzip;q=0, identity");
+        assertNull(identidade.header("Content-Encoding"));
+        assertNotEquals(gzip.header("ETag"), identidade.header("ETag"));
+        assertTrue(identidade.header("Vary").contains("Accept-Encoding"));
+        assertEquals("gzip", obter("*;q=0.5").header("Content-Encoding"));
+        assertNull(obter("br, *;q=0").header("Content-Encoding"));
+
+        // a tag do corpo comprimido não valida o corpo sem compressão
+        given().header("Accept-Encoding", "gzip").header("If-None-Match", gzip.header("ETag"))
+                .when().get("/pessoa")
+                .then().statusCode(304);
+        given().header("Accept-Encoding", "identity").header("If-None-Match", gzip.header("ETag"))
+                .when().get("/pessoa")
+                .then().statusCode(200);
+    }
+
+    private Response obter() {
+        return obter("gzip");
+    }
+
+    private Response obter(String acceptEncoding) {
+        return given().header("Accept-Encoding", acceptEncoding)
+                .when().get("/pessoa")
+                .then().statusCode(200)
+                .extract().response();
+    }
+
+    private void gravar(String nome) {
+        PessoaEntity pessoa = new PessoaEntity();
+        pessoa.setNome(nome);
+        given().contentType(ContentType.JSON).body(List.of(pessoa))
+                .when().post("/pessoa/batch")
+                .then().statusCode(200);
+    }
+
+}
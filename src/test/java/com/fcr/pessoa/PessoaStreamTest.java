@@ -0,0 +1,75 @@
+package com.fcr.pessoa;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.transaction.UserTransaction;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+
+@QuarkusTest
+public class PessoaStreamTest {
+
+    private static final int QUANTIDADE = 120;
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    UserTransaction tx;
+
+    @Test
+    public void testArrayJsonENdjson() throws Exception {
+        tx.begin();
+        for (int i = 0; i < QUANTIDADE; i++) {
+            PessoaEntity pessoa = new PessoaEntity();
+            pessoa.setNome("Stream " + i);
+            pessoa.setIdade(i);
+            em.persist(pessoa);
+        }
+        tx.commit();
+        tx.begin();
+        long total = em.createQuery("SELECT count(a) FROM PessoaEntity a", Long.class).getSingleResult();
+        tx.commit();
+
+        List<String> nomesArray = given().accept(ContentType.JSON)
+                .when().get("/pessoa/stream")
+                .then().statusCode(200)
+                .header("Content-Type", startsWith(ContentType.JSON.toString()))
+                .extract().jsonPath().getList("nome", String.class);
+        assertEquals(total, nomesArray.size());
+
+        String ndjson = given().accept(PessoaStreamingOutput.APPLICATION_NDJSON)
+                .when().get("/pessoa/stream")
+                .then().statusCode(200)
+                .header("Content-Type", startsWith(PessoaStreamingOutput.APPLICATION_NDJSON))
+                .extract().asString();
+        assertTrue(ndjson.endsWith("\n"));
+        String[] linhas = ndjson.split("\n");
+        assertEquals(total, linhas.length);
+        ObjectMapper mapper = new ObjectMapper();
+        List<String> nomesNdjson = new ArrayList<>();
+        for (String linha : linhas) {
+            nomesNdjson.add(mapper.readValue(linha, PessoaEntity.class).getNome());
+        }
+        assertEquals(nomesArray, nomesNdjson);
+
+        List<String> inseridas = nomesNdjson.stream().filter(nome -> nome != null && nome.startsWith("Stream "))
+                .collect(Collectors.toList());
+        assertEquals(QUANTIDADE, inseridas.size());
+    }
+
+}
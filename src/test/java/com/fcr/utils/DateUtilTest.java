@@ -0,0 +1,72 @@
+package com.fcr.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+
+import org.junit.jupiter.api.Test;
+
+public class DateUtilTest {
+
+    private static final Date DATA = new GregorianCalendar(2026, Calendar.OCTOBER, 18, 13, 45, 10).getTime();
+
+    @Test
+    public void testFormatacaoIgualAoSimpleDateFormat() {
+        for (String pattern : new String[] { DateUtil.PATTERN_DD_MM_YYYY, DateUtil.PATTERN_DD_MM_SS,
+                DateUtil.PATTERN_DD_MM_YYYY_HH_MM_SS, DateUtil.PATTERN_DD_MM_YYYY_DD_MM_SS }) {
+            assertEquals(new SimpleDateFormat(pattern).format(DATA), DateUtil.parseDateAsString(DATA, pattern));
+        }
+        assertEquals("18/10/2026", DateUtil.parseDateAsString(DATA));
+        assertNull(DateUtil.parseDateAsString(null));
+    }
+
+    @Test
+    public void testParse() {
+        Calendar data = DateUtil.parseDate("18/10/2026");
+        assertEquals(new GregorianCalendar(2026, Calendar.OCTOBER, 18).getTimeInMillis(), data.getTimeInMillis());
+
+        Calendar dataHora = DateUtil.parseDate("18/10/2026 13:45:10", DateUtil.PATTERN_DD_MM_YYYY_HH_MM_SS);
+        assertEquals(DATA.getTime(), dataHora.getTimeInMillis());
+
+        assertNull(DateUtil.parseDate("data inválida"));
+        assertNull(DateUtil.parseDate(null));
+    }
+
+    @Test
+    public void testParseLenienteComoSimpleDateFormat() throws Exception {
+        SimpleDateFormat formato = new SimpleDateFormat(DateUtil.PATTERN_DD_MM_YYYY);
+        // campos com um dígito, texto depois da data e dia fora do mês
+        for (String texto : new String[] { "1/2/2026", "18/10/2026 13:45", "31/02/2026" }) {
+            assertEquals(formato.parse(texto).getTime(), DateUtil.parseDate(texto).getTimeInMillis(), texto);
+        }
+        assertEquals(new GregorianCalendar(2026, Calendar.FEBRUARY, 1).getTimeInMillis(),
+                DateUtil.parseDate("1/2/2026").getTimeInMillis());
+        assertEquals(new GregorianCalendar(2026, Calendar.OCTOBER, 18).getTimeInMillis(),
+                DateUtil.parseDate("18/10/2026 13:45").getTimeInMillis());
+        assertEquals(new GregorianCalendar(2026, Calendar.MARCH, 3).getTimeInMillis(),
+                DateUtil.parseDate("31/02/2026").getTimeInMillis());
+    }
+
+    @Test
+    public void testDiferenca() {
+        Date depois = new Date(DATA.getTime() + DateUtil.getDiffInMilliseconds(DATA, DATA) + 3_600_000L * 50);
+        assertEquals(50, DateUtil.getDiffInHours(depois, DATA));
+        assertEquals(2, DateUtil.getDiffInDays(depois, DATA));
+    }
+
+    @Test
+    public void testDataIgual() {
+        Calendar mesmoDia = new GregorianCalendar(2026, Calendar.OCTOBER, 18, 0, 0, 0);
+        Calendar outroDia = new GregorianCalendar(2026, Calendar.OCTOBER, 17, 23, 59, 59);
+        assertTrue(DateUtil.isDataIgual(DATA, mesmoDia.getTime()));
+        assertFalse(DateUtil.isDataIgual(DATA, outroDia.getTime()));
+        assertFalse(DateUtil.isDataIgual(DATA, null));
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.fcr.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.IOException;
+import java.util.Map;
+
+import javax.ws.rs.core.MediaType;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+
+public class JacksonBinaryWriterTest {
+
+    @Test
+    public void testFormatosBinariosSeguemOMapperDeJson() throws Exception {
+        ObjectMapper json = new ObjectMapper()
+                .setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+                .registerModule(new SimpleModule().addSerializer(Sexo.class, new JsonSerializer<Sexo>() {
+
+                    @Override
+                    public void serialize(Sexo sexo, JsonGenerator gerador, SerializerProvider provider)
+                            throws IOException {
+                        gerador.writeString(sexo.sigla);
+                    }
+                }));
+        Exemplo exemplo = new Exemplo();
+        exemplo.nomeCompleto = "Fulano";
+        exemplo.sexo = Sexo.FEMININO;
+
+        Map<String, Object> esperado = Map.of("nome_completo", "Fulano", "sexo", "F");
+        assertEquals(esperado, json.readValue(json.writeValueAsBytes(exemplo), new TypeReference<Map<String, Object>>() {
+        }));
+        assertEquals(esperado, new CBORMapper().readValue(JacksonBinaryWriter.getMapper(BinaryMediaTypes.CBOR_TYPE, json)
+                .writeValueAsBytes(exemplo), new TypeReference<Map<String, Object>>() {
+                }));
+        assertEquals(esperado, new SmileMapper().readValue(JacksonBinaryWriter.getMapper(BinaryMediaTypes.SMILE_TYPE, json)
+                .writeValueAsBytes(exemplo), new TypeReference<Map<String, Object>>() {
+                }));
+
+        // derivados uma vez por mapper de JSON
+        assertSame(JacksonBinaryWriter.getMapper(BinaryMediaTypes.CBOR_TYPE, json),
+                JacksonBinaryWriter.getMapper(BinaryMediaTypes.CBOR_TYPE, json));
+        assertSame(json, JacksonBinaryWriter.getMapper(MediaType.APPLICATION_JSON_TYPE, json));
+    }
+
+    enum Sexo {
+        FEMININO("F");
+
+        private final String sigla;
+
+        Sexo(String sigla) {
+            this.sigla = sigla;
+        }
+    }
+
+    public static class Exemplo {
+
+        public String nomeCompleto;
+
+        public Sexo sexo;
+
+        public Integer idade;
+    }
+
+}
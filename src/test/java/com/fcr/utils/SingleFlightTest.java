@@ -0,0 +1,110 @@
+package com.fcr.utils;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class SingleFlightTest {
+
+    private static final int CHAMADAS = 20;
+    private static final Duration ESPERA = Duration.ofSeconds(30);
+
+    @Test
+    public void testChamadasSimultaneasCompartilhamExecucao() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SingleFlight<String, Object> singleFlight = new SingleFlight<>("teste", registry, ESPERA);
+        CountDownLatch liberar = new CountDownLatch(1);
+        AtomicInteger execucoes = new AtomicInteger();
+        Object resultado = new Object();
+
+        ExecutorService executor = Executors.newFixedThreadPool(CHAMADAS);
+        try {
+            List<Future<Object>> chamadas = new ArrayList<>();
+            for (int i = 0; i < CHAMADAS; i++) {
+                chamadas.add(executor.submit(() -> singleFlight.executar("chave", () -> {
+                    execucoes.incrementAndGet();
+                    liberar.await();
+                    return resultado;
+                })));
+            }
+            await().atMost(Duration.ofSeconds(10)).until(() -> singleFlight.getCoalescidas() == CHAMADAS - 1);
+            assertEquals(1.0, registry.get(SingleFlight.IN_FLIGHT).gauge().value());
+            liberar.countDown();
+            for (Future<Object> chamada : chamadas) {
+                assertSame(resultado, chamada.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, execucoes.get());
+        assertEquals(1, singleFlight.getExecutadas());
+        assertEquals(CHAMADAS - 1.0, registry.get(SingleFlight.CALLS).tag("result", "coalesced").counter().count());
+        assertEquals(0.0, registry.get(SingleFlight.IN_FLIGHT).gauge().value());
+
+        // terminada a execução, a chave volta a executar
+        assertEquals("nova", singleFlight.executar("chave", () -> "nova"));
+        assertEquals(2, singleFlight.getExecutadas());
+    }
+
+    @Test
+    public void testExcecaoCompartilhada() throws Exception {
+        SingleFlight<String, Object> singleFlight = new SingleFlight<>("erro", new SimpleMeterRegistry(), ESPERA);
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> primeira = executor.submit(() -> singleFlight.executar("chave", () -> {
+                liberar.await();
+                throw new IllegalStateException("falhou");
+            }));
+            await().atMost(Duration.ofSeconds(10)).until(() -> singleFlight.getExecutadas() == 1);
+            Future<Object> segunda = executor.submit(() -> singleFlight.executar("chave", () -> "não executa"));
+            await().atMost(Duration.ofSeconds(10)).until(() -> singleFlight.getCoalescidas() == 1);
+            liberar.countDown();
+            for (Future<Object> chamada : List.of(primeira, segunda)) {
+                Exception e = assertThrows(Exception.class, chamada::get);
+                assertEquals("falhou", e.getCause().getMessage());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testEsperaExpiradaExecutaAChamada() throws Exception {
+        SingleFlight<String, Object> singleFlight = new SingleFlight<>("espera", new SimpleMeterRegistry(),
+                Duration.ofMillis(100));
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Object> presa = executor.submit(() -> singleFlight.executar("chave", () -> {
+                liberar.await();
+                return "presa";
+            }));
+            await().atMost(Duration.ofSeconds(10)).until(() -> singleFlight.getExecutadas() == 1);
+
+            assertEquals("própria", singleFlight.executar("chave", () -> "própria"));
+            assertEquals(1, singleFlight.getCoalescidas());
+            assertEquals(1, singleFlight.getExpiradas());
+
+            liberar.countDown();
+            assertEquals("presa", presa.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}